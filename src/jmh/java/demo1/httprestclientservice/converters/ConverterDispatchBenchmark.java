@@ -0,0 +1,136 @@
+package demo1.httprestclientservice.converters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import demo1.httprestclientservice.DTOs.db.UserDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of picking the converter and reading a response body:
+ *  - linear*:  the old converter list (Jackson twice), probed one by one the way RestClient does it,
+ *  - indexed*: the same delegates behind IndexedHttpMessageConverter.
+ *
+ *   ./gradlew jmh -Pjmh.includes=ConverterDispatchBenchmark
+ *
+ * choose* isolates the dispatch (UserDTO, Map<String,String> of ping and the not-matching last pick), read*
+ * adds parsing a small UserDbDTO body, i.e. what one getWithData call pays in total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConverterDispatchBenchmark {
+
+    private static final Type PING = new ParameterizedTypeReference<Map<String, String>>() { }.getType();
+
+    private List<HttpMessageConverter<?>> linear;
+    private IndexedHttpMessageConverter indexed;
+    private byte[] userBody;
+    private HttpHeaders jsonHeaders;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        linear = List.of(new ByteArrayHttpMessageConverter(), new MappingJackson2HttpMessageConverter(mapper),
+                new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter(mapper),
+                new ResourceHttpMessageConverter(), new FormHttpMessageConverter());
+        indexed = new IndexedHttpMessageConverter(List.of(new ByteArrayHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(mapper), new StringHttpMessageConverter(),
+                new ResourceHttpMessageConverter(), new FormHttpMessageConverter()), HttpClientInterface.class);
+
+        UserDbDTO user = new UserDbDTO();
+        user.setId(42L);
+        userBody = mapper.writeValueAsBytes(user);
+        jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public Object linearChooseUser() {
+        return linearReader(UserDTO.class, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public boolean indexedChooseUser() {
+        return indexed.canRead(UserDTO.class, null, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public Object linearChoosePing() {
+        return linearReader(PING, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public boolean indexedChoosePing() {
+        return indexed.canRead(PING, null, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public Object linearReadUser() throws IOException {
+        HttpMessageConverter<?> converter = linearReader(UserDbDTO.class, MediaType.APPLICATION_JSON);
+        return ((GenericHttpMessageConverter<?>) converter).read(UserDbDTO.class, null, response());
+    }
+
+    @Benchmark
+    public Object indexedReadUser() throws IOException {
+        if (!indexed.canRead(UserDbDTO.class, null, MediaType.APPLICATION_JSON)) {
+            throw new IllegalStateException();
+        }
+        return indexed.read(UserDbDTO.class, null, response());
+    }
+
+    /** DefaultRestClient.readWithMessageConverters, minus the logging */
+    private HttpMessageConverter<?> linearReader(Type type, MediaType mediaType) {
+        Class<?> raw = type instanceof Class<?> c ? c : Map.class;
+        for (HttpMessageConverter<?> converter : linear) {
+            if (converter instanceof GenericHttpMessageConverter<?> generic) {
+                if (generic.canRead(type, null, mediaType)) {
+                    return converter;
+                }
+            } else if (converter.canRead(raw, mediaType)) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    private HttpInputMessage response() {
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(userBody);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return jsonHeaders;
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package demo1.httprestclientservice.grpc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.grpc.proto.UserRecord;
+import io.grpc.ManagedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One UserDbDTO over the wire, JSON (the http transport) against protobuf (the grpc transport):
+ *  - json* / protobuf*: encode + decode of the body only, i.e. the CPU part of every create / getWithData;
+ *  - grpcGetWithData:   a full getWithData through GrpcHttpClientInterface against LocalUserServiceServer
+ *                       (in-process, so no network - stub, deadline, framing and mapping only).
+ *
+ *   ./gradlew jmh -Pjmh.includes=TransportBenchmark
+ *
+ * Compare the throughput and gc.alloc.rate.norm of jsonRoundTrip and protobufRoundTrip; the body sizes are in
+ * jsonBytes / protobufBytes (their result is the length).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransportBenchmark {
+
+    private ObjectWriter jsonWriter;
+    private ObjectReader jsonReader;
+    private UserDbDTO user;
+
+    private LocalUserServiceServer server;
+    private ManagedChannel channel;
+    private HttpClientInterface grpc;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        jsonWriter = mapper.writerFor(UserDbDTO.class);
+        jsonReader = mapper.readerFor(UserDbDTO.class);
+        user = user();
+
+        server = LocalUserServiceServer.start("transport-benchmark", null);
+        server.put(UserProtoMapper.toProto(user));
+        channel = server.channel();
+        grpc = new GrpcHttpClientInterface(channel, null, Duration.ofSeconds(5));
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.shutdownNow();
+        server.close();
+    }
+
+    @Benchmark
+    public UserDbDTO jsonRoundTrip() throws IOException {
+        return jsonReader.readValue(jsonWriter.writeValueAsBytes(user));
+    }
+
+    @Benchmark
+    public UserDbDTO protobufRoundTrip() throws IOException {
+        return UserProtoMapper.fromProto(UserRecord.parseFrom(UserProtoMapper.toProto(user).toByteArray()));
+    }
+
+    @Benchmark
+    public int jsonBytes() throws IOException {
+        return jsonWriter.writeValueAsBytes(user).length;
+    }
+
+    @Benchmark
+    public int protobufBytes() {
+        return UserProtoMapper.toProto(user).getSerializedSize();
+    }
+
+    @Benchmark
+    public UserDbDTO grpcGetWithData() {
+        return grpc.getWithData(user.getId(), Map.of()).getBody();
+    }
+
+    private static UserDbDTO user() {
+        RegistrationDataDbDTO reg = new RegistrationDataDbDTO();
+        reg.setId(1L);
+        reg.setUsername("ivan.petrov");
+        reg.setEmail("ivan.petrov@example.com");
+        reg.setPassword("s3cretPassw0rd");
+        reg.setRegDate(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        reg.setConfirmRegDeadline(LocalDateTime.of(2024, 5, 2, 10, 15, 30));
+        reg.setConfirmRegDate(LocalDateTime.of(2024, 5, 1, 11, 0));
+
+        ProfileDataDbDTO profile = new ProfileDataDbDTO();
+        profile.setId(1L);
+        profile.setLastLogin(LocalDateTime.of(2025, 1, 1, 8, 30));
+        profile.setBirthDate(LocalDate.of(1990, 2, 28));
+        profile.setCountry("Bulgaria");
+        profile.setRegion("Plovdiv");
+        profile.setCity("Plovdiv");
+        profile.setMaritalStatus(MaritalStatus.SINGLE);
+        profile.setHeight(new BigDecimal("1.82"));
+        profile.setWeight(new BigDecimal("78.5"));
+        profile.setHairColor(HairColor.BROWN);
+        profile.setEyeColor(EyeColor.GREEN);
+        profile.setChildren(0);
+        profile.setReligion("none");
+        profile.setSmoking(false);
+        profile.setDrinking(true);
+        profile.setEducation("university");
+        profile.setOccupation("engineer");
+        profile.setLanguages("bg,en,de");
+
+        DescriptionDataDbDTO desc = new DescriptionDataDbDTO();
+        desc.setId(1L);
+        desc.setDescription("Enjoys hiking in the Rhodopes, reading and cooking for friends on the weekends.");
+        return new UserDbDTO(1L, reg, profile, desc);
+    }
+}
@@ -0,0 +1,99 @@
+package demo1.httprestclientservice.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a page of 1000 profiles, with and without ProfileAttributesModule.
+ *
+ *   ./gradlew jmh
+ *
+ * The gc profiler is on (see the jmh block in build.gradle): compare gc.alloc.rate.norm (bytes per page)
+ * between interning=false and interning=true. The values repeat a small vocabulary, like real profiles do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProfileDeserializationBenchmark {
+
+    private static final String[] COUNTRIES = {"Bulgaria", "Germany", "Austria", "Romania", "Greece", "Serbia"};
+    private static final String[] CITIES = {"Sofia", "Plovdiv", "Varna", "Berlin", "Munich", "Vienna", "Graz",
+            "Bucharest", "Athens", "Belgrade", "Burgas", "Hamburg"};
+    private static final String[] RELIGIONS = {"orthodox", "catholic", "protestant", "none"};
+    private static final String[] EDUCATIONS = {"secondary", "bachelor", "master", "doctorate"};
+    private static final String[] OCCUPATIONS = {"engineer", "teacher", "doctor", "designer", "driver", "nurse"};
+    private static final String[] LANGUAGES = {"bg", "bg,en", "de", "de,en", "en", "ro,en", "el,en", "sr"};
+
+    @Param({"false", "true"})
+    public boolean interning;
+
+    private ObjectReader reader;
+    private byte[] page;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        page = mapper.writeValueAsBytes(profiles(1000));
+        if (interning) {
+            mapper.registerModule(new ProfileAttributesModule(1024, 64));
+        }
+        reader = mapper.readerForListOf(ProfileDataDbDTO.class);
+    }
+
+    @Benchmark
+    public List<ProfileDataDbDTO> readPage() throws IOException {
+        return reader.readValue(page);
+    }
+
+    private static List<ProfileDataDbDTO> profiles(int count) {
+        Random random = new Random(42);
+        List<ProfileDataDbDTO> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ProfileDataDbDTO p = new ProfileDataDbDTO();
+            p.setId((long) i);
+            p.setBirthDate(LocalDate.of(1960 + random.nextInt(40), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            p.setCountry(pick(random, COUNTRIES));
+            p.setRegion(pick(random, CITIES) + " region");
+            p.setCity(pick(random, CITIES));
+            p.setMaritalStatus(pick(random, MaritalStatus.values()));
+            p.setHeight(BigDecimal.valueOf(150 + random.nextInt(50), 2));
+            p.setWeight(BigDecimal.valueOf(50 + random.nextInt(60)));
+            p.setHairColor(pick(random, HairColor.values()));
+            p.setEyeColor(pick(random, EyeColor.values()));
+            p.setChildren(random.nextInt(4));
+            p.setReligion(pick(random, RELIGIONS));
+            p.setSmoking(random.nextBoolean());
+            p.setDrinking(random.nextBoolean());
+            p.setEducation(pick(random, EDUCATIONS));
+            p.setOccupation(pick(random, OCCUPATIONS));
+            p.setLanguages(pick(random, LANGUAGES));
+            profiles.add(p);
+        }
+        return profiles;
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,72 @@
+package demo1.httprestclientservice.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Artificial service time of the stub backend.
+ *
+ * Spec format (stub.latency):
+ *   fixed:5                  always 5 ms
+ *   uniform:2-20             uniformly between 2 and 20 ms
+ *   exponential:10           exponentially distributed, mean 10 ms (long-ish tail)
+ *   bimodal:5,250,0.01       5 ms, but 1% of the calls take 250 ms (a GC pause / slow query)
+ */
+public abstract class LatencyDistribution {
+
+    public abstract long nextMillis();
+
+    public Duration next() {
+        return Duration.ofMillis(nextMillis());
+    }
+
+    public static LatencyDistribution parse(String spec) {
+        String[] kindAndArgs = spec.trim().split(":", 2);
+        String kind = kindAndArgs[0];
+        String args = kindAndArgs.length > 1 ? kindAndArgs[1] : "";
+        switch (kind) {
+            case "fixed": {
+                long millis = Long.parseLong(args);
+                return describe(spec, () -> millis);
+            }
+            case "uniform": {
+                String[] range = args.split("-");
+                long min = Long.parseLong(range[0]);
+                long max = Long.parseLong(range[1]);
+                return describe(spec, () -> ThreadLocalRandom.current().nextLong(min, max + 1));
+            }
+            case "exponential": {
+                double mean = Double.parseDouble(args);
+                return describe(spec, () -> Math.round(-mean * Math.log(1.0 - ThreadLocalRandom.current().nextDouble())));
+            }
+            case "bimodal": {
+                String[] parts = args.split(",");
+                long fast = Long.parseLong(parts[0]);
+                long slow = Long.parseLong(parts[1]);
+                double slowFraction = Double.parseDouble(parts[2]);
+                return describe(spec, () -> ThreadLocalRandom.current().nextDouble() < slowFraction ? slow : fast);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown latency distribution: " + spec
+                        + " (use fixed:ms, uniform:min-max, exponential:mean or bimodal:fast,slow,fraction)");
+        }
+    }
+
+    private interface MillisSupplier {
+        long next();
+    }
+
+    private static LatencyDistribution describe(String spec, MillisSupplier supplier) {
+        return new LatencyDistribution() {
+            @Override
+            public long nextMillis() {
+                return supplier.next();
+            }
+
+            @Override
+            public String toString() {
+                return spec;
+            }
+        };
+    }
+}
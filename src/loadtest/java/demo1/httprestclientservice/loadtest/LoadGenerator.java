@@ -0,0 +1,133 @@
+package demo1.httprestclientservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * OPEN-loop load generator: requests are sent on a fixed schedule (rate per second), no matter how many
+ * earlier requests are still outstanding. A closed loop (N threads, each waiting for its response) slows
+ * down exactly when the system under test does and hides the latency spikes ("coordinated omission").
+ *
+ * Latency is measured from the INTENDED send time, so if the generator itself falls behind the schedule
+ * the delay is charged to the result, not silently dropped. Values are recorded into HdrHistogram.
+ */
+public class LoadGenerator {
+
+    /**
+     * One kind of request in the mix, e.g. GET /proxy/user/{id} with weight 70.
+     */
+    public record Endpoint(String name, int weight, RequestFactory factory) {
+    }
+
+    @FunctionalInterface
+    public interface RequestFactory {
+        HttpRequest create(URI baseUri, long id);
+    }
+
+    public record Result(String name, long intendedRequests, long completed, long failed, double seconds,
+                         Map<Integer, Long> statusCounts, Histogram latencyMicros) {
+
+        public double throughput() {
+            return completed / seconds;
+        }
+    }
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final HttpClient client;
+    private final ExecutorService callbacks;
+    private final URI baseUri;
+    private final List<Endpoint> mix;
+    private final int totalWeight;
+    private final long idRange;
+
+    public LoadGenerator(URI baseUri, List<Endpoint> mix, long idRange, int callbackThreads) {
+        this.baseUri  = baseUri;
+        this.mix      = mix;
+        this.idRange  = idRange;
+        this.totalWeight = mix.stream().mapToInt(Endpoint::weight).sum();
+        this.callbacks = Executors.newFixedThreadPool(callbackThreads);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(callbacks)
+                .build();
+    }
+
+    public Result run(String name, int ratePerSecond, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failed = new LongAdder();
+        AtomicLong outstanding = new AtomicLong();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = ratePerSecond * duration.toSeconds();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            outstanding.incrementAndGet();
+            long id = 1 + ThreadLocalRandom.current().nextLong(idRange);
+            client.sendAsync(pick().factory().create(baseUri, id), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        recorder.recordValue(Math.min(MAX_TRACKABLE_MICROS,
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended)));
+                        if (error != null) {
+                            failed.increment();
+                        } else {
+                            statuses.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+
+        // give in-flight requests a moment to finish, they belong to this run
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (outstanding.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((code, count) -> statusCounts.put(code, count.sum()));
+        long completed = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        return new Result(name, total, completed, failed.sum() + outstanding.get(), seconds,
+                statusCounts, recorder.getIntervalHistogram());
+    }
+
+    public void shutdown() {
+        callbacks.shutdownNow();
+    }
+
+    private Endpoint pick() {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : mix) {
+            r -= endpoint.weight();
+            if (r < 0) {
+                return endpoint;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+}
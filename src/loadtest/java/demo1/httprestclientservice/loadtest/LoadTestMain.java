@@ -0,0 +1,163 @@
+package demo1.httprestclientservice.loadtest;
+
+import demo1.httprestclientservice.HttPrestClientServiceApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * End-to-end throughput/latency regression test that runs completely offline:
+ *
+ *   load generator  ->  HTTPrestClientService (profile "loadtest")  ->  StubBackendServer x N
+ *
+ * No Eureka: the app gets the stub instances through dservice.static-instances.
+ *
+ * Run with:  ./gradlew loadTest
+ *            ./gradlew loadTest -Ploadtest.rate=2000 -Ploadtest.duration=60 -Pstub.latency=exponential:10
+ *
+ * All knobs (system properties, forwarded by the Gradle task from -P...):
+ *   loadtest.rate        requests per second (open loop)                         default 500
+ *   loadtest.duration    measured seconds                                        default 30
+ *   loadtest.warmup      warm-up seconds, not reported (JIT, pools, caches)      default 10
+ *   loadtest.mix         weighted endpoints                                      default user:70,user-with-data:25,ping:5
+ *                        (user, user-with-data, create, ping, http-status)
+ *   loadtest.ids         user ids are drawn uniformly from 1..ids                default 10000
+ *   loadtest.report      where the report is written
+ *   stub.instances       number of stub backend instances                        default 2
+ *   stub.latency         service time of the stub, see LatencyDistribution       default uniform:2-10
+ *   stub.errorRate       share of stub responses that are a 500                  default 0.0
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        int rate              = Integer.getInteger("loadtest.rate", 500);
+        Duration duration     = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        Duration warmup       = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        String mixSpec        = System.getProperty("loadtest.mix", "user:70,user-with-data:25,ping:5");
+        long ids              = Long.getLong("loadtest.ids", 10_000);
+        String report         = System.getProperty("loadtest.report", "build/reports/loadtest/loadtest-report.txt");
+        int stubInstances     = Integer.getInteger("stub.instances", 2);
+        LatencyDistribution latency = LatencyDistribution.parse(System.getProperty("stub.latency", "uniform:2-10"));
+        double errorRate      = Double.parseDouble(System.getProperty("stub.errorRate", "0.0"));
+
+        // 1) stub backends
+        List<StubBackendServer> stubs = new ArrayList<>();
+        for (int i = 0; i < stubInstances; i++) {
+            stubs.add(new StubBackendServer("127.0.0.1", 0, latency, errorRate));
+        }
+        String staticInstances = stubs.stream()
+                .map(stub -> stub.host() + ":" + stub.port())
+                .collect(Collectors.joining(","));
+
+        // 2) the application itself, on a random port
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(HttPrestClientServiceApplication.class)
+                .profiles("loadtest")
+                .properties("server.port=0", "dservice.static-instances=" + staticInstances)
+                .run(args);
+        int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+        URI baseUri = URI.create("http://127.0.0.1:" + port);
+
+        // 3) warm-up + measured run
+        LoadGenerator generator = new LoadGenerator(baseUri, mix(mixSpec), ids, 8);
+        try {
+            generator.run("warmup", rate, warmup);
+            LoadGenerator.Result result = generator.run("measured", rate, duration);
+
+            String text = format(result, rate, mixSpec, stubInstances, latency, errorRate);
+            System.out.println(text);
+            Path reportPath = Path.of(report);
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+            Files.writeString(reportPath, text);
+        } finally {
+            generator.shutdown();
+            app.close();
+            stubs.forEach(StubBackendServer::close);
+        }
+        System.exit(0);
+    }
+
+
+    static List<LoadGenerator.Endpoint> mix(String spec) {
+        List<LoadGenerator.Endpoint> mix = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] nameAndWeight = entry.trim().split(":");
+            mix.add(new LoadGenerator.Endpoint(nameAndWeight[0], Integer.parseInt(nameAndWeight[1]),
+                    factory(nameAndWeight[0])));
+        }
+        return mix;
+    }
+
+    private static LoadGenerator.RequestFactory factory(String endpoint) {
+        switch (endpoint) {
+            case "user":
+                return (base, id) -> get(base, "/proxy/user/" + id);
+            case "user-with-data":
+                return (base, id) -> get(base, "/proxy/user-with-data/" + id);
+            case "ping":
+                return (base, id) -> get(base, "/proxy/ping");
+            case "http-status":
+                return (base, id) -> get(base, "/proxy/proxy-http-status/200");
+            case "create":
+                return (base, id) -> HttpRequest.newBuilder(base.resolve("/proxy/create-new-user"))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(newUserJson(id)))
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + endpoint);
+        }
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static String newUserJson(long id) {
+        return "{"
+                + "\"registrationDataDbDTO\":{\"username\":\"load" + id + "\",\"email\":\"load" + id + "@example.com\","
+                +   "\"password\":\"secret-password\",\"confirmRegDeadline\":\"2030-01-01T00:00:00\"},"
+                + "\"profileDataDbDTO\":{\"birthDate\":\"1990-06-15\",\"country\":\"Bulgaria\",\"maritalStatus\":\"single\","
+                +   "\"height\":1.80,\"hairColor\":\"brown\",\"eyeColor\":\"green\",\"children\":0,\"languages\":\"bg,en\"},"
+                + "\"descriptionDataDbDTO\":{\"description\":\"" + "Load test user description. ".repeat(3) + "\"}"
+                + "}";
+    }
+
+    private static String format(LoadGenerator.Result result, int rate, String mix, int stubs,
+                                 LatencyDistribution latency, double errorRate) {
+        Histogram h = result.latencyMicros();
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== HTTPrestClientService load test, ").append(LocalDateTime.now().withNano(0)).append(" ===\n");
+        sb.append(String.format("target rate      : %d req/s (open loop), mix %s%n", rate, mix));
+        sb.append(String.format("stub backend     : %d instance(s), latency %s, error rate %.3f%n", stubs, latency, errorRate));
+        sb.append(String.format("requests         : %d intended, %d completed, %d failed/timed out%n",
+                result.intendedRequests(), result.completed(), result.failed()));
+        sb.append(String.format("throughput       : %.1f req/s over %.1f s%n", result.throughput(), result.seconds()));
+        sb.append("status codes     : ").append(result.statusCounts()).append('\n');
+        sb.append(String.format("latency (ms)     : p50=%.2f  p90=%.2f  p99=%.2f  p99.9=%.2f  max=%.2f%n",
+                millis(h, 50.0), millis(h, 90.0), millis(h, 99.0), millis(h, 99.9), h.getMaxValue() / 1000.0));
+        return sb.toString();
+    }
+
+    private static double millis(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private LoadTestMain() {
+    }
+}
@@ -0,0 +1,176 @@
+package demo1.httprestclientservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * An embedded Reactor Netty server that answers the /api/v1 endpoints of HttpClientInterface the same
+ * way "backend-service" does, with a configurable service time (LatencyDistribution) and error rate.
+ *
+ * It never blocks: the artificial latency is a Mono.delay on the event loop, so a single stub can emulate
+ * thousands of concurrent slow requests without becoming the bottleneck of the load test.
+ */
+public class StubBackendServer implements AutoCloseable {
+
+    private static final String JSON = "application/json";
+
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLong ids = new AtomicLong(1_000_000);
+    private final AtomicLong requests = new AtomicLong();
+    private final DisposableServer server;
+
+    public StubBackendServer(String host, int port, LatencyDistribution latency, double errorRate) {
+        this.latency   = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create()
+                .host(host)
+                .port(port)
+                .route(routes -> routes
+                        .post("/api/v1/create-new-user", this::create)
+                        .post("/api/v1/create-new-users", this::createBatch)
+                        .get("/api/v1/user/{id}", (req, res) ->
+                                respond(res, () -> userJson(Long.parseLong(req.param("id")))))
+                        .get("/api/v1/user-with-data/{id}", (req, res) ->
+                                respond(res, () -> userWithDataJson(Long.parseLong(req.param("id")))))
+                        .get("/api/v1/http-status/{code}", this::httpStatus)
+                        .get("/api/v1/ping", (req, res) ->
+                                respond(res, () -> "{\"message\":\"pong\"}"))
+                        .post("/api/v1/upload", (req, res) ->
+                                req.receive().then(delayed(res, () -> res.status(HttpResponseStatus.OK).send()))))
+                .bindNow();
+    }
+
+    public String host() {
+        return server.host();
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+
+    private Publisher<Void> create(HttpServerRequest req, HttpServerResponse res) {
+        return req.receive().aggregate().asString()
+                .flatMap(body -> {
+                    try {
+                        ObjectNode user = (ObjectNode) mapper.readTree(body);
+                        user.put("id", ids.incrementAndGet());
+                        String json = mapper.writeValueAsString(user);
+                        return delayed(res, () -> send(res, HttpResponseStatus.OK, JSON, json));
+                    } catch (Exception e) {
+                        return send(res, HttpResponseStatus.BAD_REQUEST, JSON, "{\"error\":\"invalid body\"}");
+                    }
+                });
+    }
+
+    private Publisher<Void> createBatch(HttpServerRequest req, HttpServerResponse res) {
+        return req.receive().aggregate().asString()
+                .flatMap(body -> {
+                    try {
+                        ArrayNode users = (ArrayNode) mapper.readTree(body);
+                        users.forEach(user -> ((ObjectNode) user).put("id", ids.incrementAndGet()));
+                        String json = mapper.writeValueAsString(users);
+                        return delayed(res, () -> send(res, HttpResponseStatus.OK, JSON, json));
+                    } catch (Exception e) {
+                        return send(res, HttpResponseStatus.BAD_REQUEST, JSON, "{\"error\":\"invalid body\"}");
+                    }
+                });
+    }
+
+    private Publisher<Void> httpStatus(HttpServerRequest req, HttpServerResponse res) {
+        int code = Integer.parseInt(req.param("code"));
+        return delayed(res, () -> send(res, HttpResponseStatus.valueOf(code), "text/plain", "status " + code));
+    }
+
+    private Publisher<Void> respond(HttpServerResponse res, Supplier<String> json) {
+        return delayed(res, () -> send(res, HttpResponseStatus.OK, JSON, json.get()));
+    }
+
+    /**
+     * Applies the artificial service time, and turns a share of the calls into a 500.
+     */
+    private Mono<Void> delayed(HttpServerResponse res, Supplier<Publisher<Void>> handler) {
+        requests.incrementAndGet();
+        Mono<Void> response = ThreadLocalRandom.current().nextDouble() < errorRate
+                ? Mono.defer(() -> send(res, HttpResponseStatus.INTERNAL_SERVER_ERROR, JSON, "{\"error\":\"stub: injected error\"}"))
+                : Mono.defer(() -> Mono.from(handler.get()));
+        long millis = latency.nextMillis();
+        return millis <= 0 ? response : Mono.delay(Duration.ofMillis(millis)).then(response);
+    }
+
+    private static Mono<Void> send(HttpServerResponse res, HttpResponseStatus status, String contentType, String body) {
+        return res.status(status)
+                .header("Content-Type", contentType)
+                .sendString(Mono.just(body))
+                .then();
+    }
+
+
+    private static String userJson(long id) {
+        return "{\"id\":" + id + ",\"ts\":\"" + LocalDateTime.now().withNano(0) + "\"}";
+    }
+
+    private static String userWithDataJson(long id) {
+        return "{"
+                + "\"id\":" + id + ","
+                + "\"registrationDataDbDTO\":{"
+                +   "\"id\":" + id + ","
+                +   "\"username\":\"user" + id + "\","
+                +   "\"email\":\"user" + id + "@example.com\","
+                +   "\"password\":\"secret-password\","
+                +   "\"regDate\":\"2024-01-15T10:15:30\","
+                +   "\"confirmRegDeadline\":\"2024-01-22T10:15:30\","
+                +   "\"confirmRegDate\":\"2024-01-16T08:00:00\""
+                + "},"
+                + "\"profileDataDbDTO\":{"
+                +   "\"id\":" + id + ","
+                +   "\"lastLogin\":\"2025-05-01T12:00:00\","
+                +   "\"birthDate\":\"1990-06-15\","
+                +   "\"country\":\"Bulgaria\","
+                +   "\"region\":\"Sofia-grad\","
+                +   "\"city\":\"Sofia\","
+                +   "\"maritalStatus\":\"single\","
+                +   "\"height\":1.80,"
+                +   "\"weight\":75,"
+                +   "\"hairColor\":\"brown\","
+                +   "\"eyeColor\":\"green\","
+                +   "\"children\":0,"
+                +   "\"religion\":\"none\","
+                +   "\"smoking\":false,"
+                +   "\"drinking\":true,"
+                +   "\"education\":\"university\","
+                +   "\"occupation\":\"engineer\","
+                +   "\"languages\":\"bg,en\""
+                + "},"
+                + "\"descriptionDataDbDTO\":{"
+                +   "\"id\":" + id + ","
+                +   "\"description\":\"" + "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8) + "\""
+                + "}"
+                + "}";
+    }
+}
@@ -1,10 +1,12 @@
 package demo1.httprestclientservice.DTOs.db;
 
+import demo1.httprestclientservice.validation.GenerateFastValidator;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 
 
 
+@GenerateFastValidator   // -> UserDbDTOFastValidator, generated at compile time by the validation-processor module
 public class UserDbDTO {
 
     Long id;
@@ -1,9 +1,12 @@
 package demo1.httprestclientservice;
 
+import demo1.httprestclientservice.config.ApplicationRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 public class HttPrestClientServiceApplication {
 
     public static void main(String[] args) {
@@ -8,10 +8,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.*;
 import org.springframework.http.MediaType;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 
 @HttpExchange(url = "/api/v1", accept = MediaType.APPLICATION_JSON_VALUE)
@@ -20,6 +22,10 @@ public interface HttpClientInterface {
     @PostExchange("/create-new-user")
     ResponseEntity<UserDbDTO> create(@RequestBody UserDbDTO body);
 
+    // bulk variant of create: the response holds the created users in the order of the request
+    @PostExchange("/create-new-users")
+    ResponseEntity<List<UserDbDTO>> createBatch(@RequestBody List<UserDbDTO> body);
+
     @GetExchange("/user/{id}")
     ResponseEntity<UserDTO> getById(@PathVariable Long id,
                     @RequestHeader(name = "X-API-Version", required = false) String apiVersion);
@@ -28,6 +34,13 @@ public interface HttpClientInterface {
     ResponseEntity<UserDbDTO> getWithData(@PathVariable Long id,
                                           @RequestHeader Map<String,String> dynamicHeaders);
 
+    // same resource as raw JSON bytes, for the fields= projection (see FieldProjection);
+    // fields is only sent when the backend understands it (dservice.backend-supports-fields)
+    @GetExchange("/user-with-data/{id}")
+    ResponseEntity<byte[]> getWithDataRaw(@PathVariable Long id,
+                                          @RequestParam(name = "fields", required = false) String fields,
+                                          @RequestHeader Map<String,String> dynamicHeaders);
+
     @GetExchange("/http-status/{code}")
     ResponseEntity<String> proxyGetCustomErrorResponse(@PathVariable int code);
 
@@ -1,5 +1,7 @@
 package demo1.httprestclientservice;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
@@ -8,6 +10,8 @@ import java.util.Map;
 
 @Component
 public class LoadBalancerSmokeTest {
+    private static final Logger log = LoggerFactory.getLogger(LoadBalancerSmokeTest.class);
+
     private final HttpClientInterface client;
 
     public LoadBalancerSmokeTest(HttpClientInterface client) {
@@ -16,9 +20,9 @@ public class LoadBalancerSmokeTest {
 
     @EventListener(ApplicationReadyEvent.class)
     public void runOnce() {
-        System.out.println("→ Performing LB call at startup…");
+        log.info("→ Performing LB call at startup…");
         Map<String,String> body = client.ping();
-        System.out.println("→ Got: " + body.get("message"));
+        log.info("→ Got: {}", body.get("message"));
     }
 }
 
@@ -0,0 +1,182 @@
+package demo1.httprestclientservice.accesslog;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured, sampled access log of the /proxy/** requests (one JSON line per request, logger "proxy.access").
+ *
+ * Cost on the request thread: a sampling decision and, for the sampled requests, one slot of the
+ * AccessLogRingBuffer - no String is built, nothing is formatted, no lock is taken, no I/O. The JSON is written
+ * by a background thread, which hands it to Logback; logback-spring.xml puts an AsyncAppender (neverBlock) in
+ * front of the output as well.
+ *
+ * Sampling: every 5xx and every request slower than dservice.access-log.slow-threshold is logged, the others
+ * with dservice.access-log.sample-rate.
+ *
+ * Metrics: proxy.accesslog.records{result=written|sampled-out|dropped} (dropped: ring full), gauge
+ * proxy.accesslog.backlog
+ */
+@Component
+public class AccessLog implements SmartLifecycle {
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("proxy.access");
+
+    private static final int SAMPLE_SCALE = 1_000_000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final boolean enabled;
+    private final int sampleThreshold;          // sampled when nextInt(SAMPLE_SCALE) < this
+    private final long slowNanos;
+    private final AccessLogRingBuffer ring;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final StringBuilder line = new StringBuilder(256);      // writer thread only
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public AccessLog(DserviceClientProperties props, MeterRegistry registry) {
+        DserviceClientProperties.AccessLog settings = props.getAccessLog();
+        this.enabled = settings.isEnabled();
+        this.sampleThreshold = (int) Math.round(Math.max(0, Math.min(1, settings.getSampleRate())) * SAMPLE_SCALE);
+        this.slowNanos = settings.getSlowThreshold().toNanos();
+        this.ring = new AccessLogRingBuffer(settings.getBufferSize());
+
+        counter(registry, "written", written);
+        counter(registry, "sampled-out", sampledOut);
+        counter(registry, "dropped", dropped);
+        Gauge.builder("proxy.accesslog.backlog", ring, AccessLogRingBuffer::size).register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("proxy.accesslog.records", adder, LongAdder::sum)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled && ACCESS.isInfoEnabled();
+    }
+
+    /**
+     * Called on the request thread once the response status is known.
+     */
+    public void record(String method, String uri, int status, long durationNanos, String remoteAddress,
+                       String traceId) {
+        if (status < 500 && durationNanos < slowNanos
+                && ThreadLocalRandom.current().nextInt(SAMPLE_SCALE) >= sampleThreshold) {
+            sampledOut.increment();
+            return;
+        }
+        long seq = ring.claim();
+        if (seq < 0) {
+            dropped.increment();
+            return;
+        }
+        AccessLogRingBuffer.Record r = ring.slot(seq);
+        r.timestampMillis = System.currentTimeMillis();
+        r.method = method;
+        r.uri = uri;
+        r.status = status;
+        r.durationNanos = durationNanos;
+        r.remoteAddress = remoteAddress;
+        r.traceId = traceId;
+        ring.publish(seq);
+    }
+
+    // ---- writer thread ------------------------------------------------------------------------------------
+
+    private void runWriter() {
+        while (running) {
+            if (ring.drain(this::write) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        ring.drain(this::write);    // what is left at shutdown
+    }
+
+    private void write(AccessLogRingBuffer.Record r) {
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(r.timestampMillis)).append('"');
+        line.append(",\"method\":");
+        appendString(r.method);
+        line.append(",\"uri\":");
+        appendString(r.uri);
+        line.append(",\"status\":").append(r.status);
+        line.append(",\"durationMs\":").append(TimeUnit.NANOSECONDS.toMicros(r.durationNanos) / 1000.0);
+        line.append(",\"remote\":");
+        appendString(r.remoteAddress);
+        line.append(",\"traceId\":");
+        appendString(r.traceId);
+        line.append('}');
+        ACCESS.info(line.toString());
+        written.increment();
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    // ---- lifecycle ----------------------------------------------------------------------------------------
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "access-log-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
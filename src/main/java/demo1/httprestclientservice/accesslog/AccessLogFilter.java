@@ -0,0 +1,55 @@
+package demo1.httprestclientservice.accesslog;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Hands every /proxy/** request to the AccessLog once it is done - including the ones the deadline filter
+ * or the rate limiter answered themselves.
+ *
+ * NB! Runs right after Spring's ServerHttpObservationFilter (HIGHEST_PRECEDENCE + 1), so the trace id of
+ *     the request is already in the MDC.
+ */
+@Component
+@Order(AccessLogFilter.ORDER)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 2;
+
+    private static final String PROXY_PREFIX = "/proxy/";
+
+    private final AccessLog accessLog;
+
+    public AccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !accessLog.isEnabled() || !request.getRequestURI().startsWith(PROXY_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String traceId = MDC.get("traceId");
+        int status = 500;       // stays 500 when the chain throws
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            accessLog.record(request.getMethod(), request.getRequestURI(), status, System.nanoTime() - start,
+                    request.getRemoteAddr(), traceId);
+        }
+    }
+}
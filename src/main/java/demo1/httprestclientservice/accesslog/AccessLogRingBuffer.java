@@ -0,0 +1,111 @@
+package demo1.httprestclientservice.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer / single-consumer ring of preallocated access log records.
+ *
+ * A request thread (producer):
+ *  1. claims the next sequence with a CAS on tail - only while the ring is not full, otherwise the record is
+ *     dropped: the request thread never waits for the log writer;
+ *  2. fills the fields of the slot it claimed (plain writes, the slot objects are reused - no allocation);
+ *  3. publishes it by writing the slot's volatile sequence.
+ *
+ * The writer thread (consumer) reads slots in sequence order while they are published, and gives each one back
+ * by advancing head. No lock anywhere; the only shared writes per record are one CAS and two volatile stores.
+ */
+public class AccessLogRingBuffer {
+
+    /** One access log record. Written by exactly one producer, then read by the consumer. */
+    public static final class Record {
+        private volatile long published = -1;     // == sequence once the fields below are complete
+
+        public long timestampMillis;
+        public String method;
+        public String uri;
+        public int status;
+        public long durationNanos;
+        public String remoteAddress;
+        public String traceId;
+
+        private void clear() {
+            method = null;
+            uri = null;
+            remoteAddress = null;
+            traceId = null;
+        }
+    }
+
+    private final Record[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();   // next sequence to claim
+    private final AtomicLong head = new AtomicLong();   // next sequence to consume
+
+    public AccessLogRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two >= 2, got " + capacity);
+        }
+        this.slots = new Record[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Record();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the sequence of the claimed slot, or -1 when the ring is full (the record is to be dropped)
+     */
+    public long claim() {
+        while (true) {
+            long seq = tail.get();
+            if (seq - head.get() >= slots.length) {
+                return -1;
+            }
+            if (tail.compareAndSet(seq, seq + 1)) {
+                return seq;
+            }
+        }
+    }
+
+    /** The slot of a claimed sequence - fill it, then call publish(seq). */
+    public Record slot(long seq) {
+        return slots[(int) seq & mask];
+    }
+
+    public void publish(long seq) {
+        slots[(int) seq & mask].published = seq;
+    }
+
+    /**
+     * Hands every published record, in order, to the consumer and frees its slot. Single consumer thread only.
+     *
+     * @return how many records were consumed
+     */
+    public int drain(Consumer<Record> consumer) {
+        long next = head.get();
+        int count = 0;
+        while (true) {
+            Record record = slots[(int) next & mask];
+            if (record.published != next) {
+                break;      // not claimed yet, or claimed but not filled in yet
+            }
+            try {
+                consumer.accept(record);
+            } finally {
+                record.clear();
+                head.lazySet(++next);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public long size() {
+        return tail.get() - head.get();
+    }
+}
@@ -0,0 +1,260 @@
+package demo1.httprestclientservice.backends;
+
+import demo1.httprestclientservice.config.ApplicationBeanConfiguration;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.deadline.RequestDeadline;
+import demo1.httprestclientservice.metrics.ClientLatencyMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typed HTTP-interface clients for the downstream services configured under dservice.backends:
+ *
+ *   dservice:
+ *     backends:
+ *       orders:
+ *         service-id: "order-service"
+ *         client-interface: "com.example.OrderClient"     # an @HttpExchange interface
+ *         auth-token: "ordersToken"                       # optional, sent as "Authorization: Bearer ..."
+ *         max-connections: 20
+ *         max-concurrent-calls: 20
+ *
+ *   OrderClient orders = registry.client("orders", OrderClient.class);
+ *
+ * Every backend is isolated from the others (and from the primary backend-service client):
+ *  1. its own Netty ConnectionProvider (max-connections, bounded acquire queue) and its own event loop threads,
+ *     so a slow service cannot hold the connections or the IO threads the others need;
+ *  2. a Bulkhead (max-concurrent-calls) - the RestClient blocks the request thread, so without it a slow
+ *     service would end up owning all Tomcat threads; above the limit calls fail at once (BulkheadFullException);
+ *  3. its own CircuitBreaker (CallNotPermittedException while open), with the same rules as backend-service's:
+ *     deadlines and 4xx are not failures (see ApplicationBeanConfiguration.CALLER_ERRORS);
+ *  4. its own load balancer and policy (see BackendLoadBalancerConfiguration);
+ *  5. its own metrics: proxy.client.latency{service=<service-id>,method,outcome},
+ *     reactor.netty.connection.provider.*{name=<backend>}, proxy.backend.inflight{backend}.
+ *
+ * The RestClient is a clone() of the @LoadBalanced restClientBuilder, so load balancing, the deadline
+ * propagation, the error mapping and the message converters are the same as for backend-service - only the
+ * request factory (pool + timeouts) is replaced.
+ *
+ * NB! The shared builder carries no Authorization header - dservice.auth-token is backend-service's token and
+ *     must not reach other services. A backend that needs one sets its own auth-token.
+ *
+ * NB! The runtime settings of /actuator/clientconfig apply to the primary backend only; the values here are
+ *     read at startup.
+ */
+@Component
+public class BackendClientRegistry implements DisposableBean {
+
+    private final Map<String, Entry> backends = new LinkedHashMap<>();
+
+    private record Entry(Object client, Class<?> type, CircuitBreaker breaker, Bulkhead bulkhead,
+                         ConnectionProvider pool, LoopResources loops) {
+    }
+
+    public BackendClientRegistry(DserviceClientProperties props,
+                                 RestClient.Builder restClientBuilder,
+                                 ClientLatencyMetrics latencyMetrics,
+                                 MeterRegistry registry) {
+        for (Map.Entry<String, DserviceClientProperties.Backend> e : props.getBackends().entrySet()) {
+            backends.put(e.getKey(), create(e.getKey(), e.getValue(), restClientBuilder, latencyMetrics, registry));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when there is no such backend, or its client-interface is not {@code type}
+     */
+    public <T> T client(String backend, Class<T> type) {
+        Entry entry = entry(backend);
+        if (!type.isAssignableFrom(entry.type())) {
+            throw new IllegalArgumentException("Backend '" + backend + "' is a " + entry.type().getName()
+                    + ", not a " + type.getName());
+        }
+        return type.cast(entry.client());
+    }
+
+    public CircuitBreaker breaker(String backend) {
+        return entry(backend).breaker();
+    }
+
+    public Bulkhead bulkhead(String backend) {
+        return entry(backend).bulkhead();
+    }
+
+    private Entry entry(String backend) {
+        Entry entry = backends.get(backend);
+        if (entry == null) {
+            throw new IllegalArgumentException("No backend '" + backend + "' in dservice.backends");
+        }
+        return entry;
+    }
+
+    private static Entry create(String name, DserviceClientProperties.Backend settings,
+                                RestClient.Builder restClientBuilder, ClientLatencyMetrics latencyMetrics,
+                                MeterRegistry registry) {
+        if (settings.getServiceId() == null || settings.getClientInterface() == null) {
+            throw new IllegalStateException("dservice.backends." + name + " needs service-id and client-interface");
+        }
+        Class<?> type;
+        try {
+            type = Class.forName(settings.getClientInterface(), true, BackendClientRegistry.class.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException("dservice.backends." + name + ".client-interface not found: "
+                    + settings.getClientInterface(), ex);
+        }
+        if (!type.isInterface()) {
+            throw new IllegalStateException("dservice.backends." + name + ".client-interface must be an interface");
+        }
+
+        // 1) pool and event loop of its own
+        ConnectionProvider pool = ConnectionProvider.builder("backend-" + name)
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireMaxCount(settings.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.getPendingAcquireTimeout())
+                .metrics(true)
+                .build();
+        LoopResources loops = LoopResources.create("backend-" + name, settings.getIoThreads(), true);
+        String uriTag = settings.getServiceId();
+        HttpClient httpClient = HttpClient.create(pool)
+                .runOn(loops)
+                .metrics(true, uri -> uriTag)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                .responseTimeout(settings.getResponseTimeout())
+                .doOnRequest((request, conn) -> {
+                    // the caller's remaining budget shortens the response timeout (see DeadlinePropagationInterceptor)
+                    request.responseTimeout(RequestDeadline.responseTimeout(settings.getResponseTimeout(),
+                            request.requestHeaders().get(RequestDeadline.TIMEOUT_HEADER)));
+                });
+
+        RestClient.Builder builder = restClientBuilder.clone()
+                .requestFactory(new ReactorClientHttpRequestFactory(httpClient))
+                .baseUrl("http://" + settings.getServiceId());
+        if (settings.getAuthToken() != null) {
+            builder.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + settings.getAuthToken());
+        }
+        RestClient restClient = builder.build();
+        Object target = HttpServiceProxyFactory
+                .builderFor(RestClientAdapter.create(restClient))
+                .build()
+                .createClient(type);
+
+        // 2) + 3) bulkhead and breaker
+        Bulkhead bulkhead = Bulkhead.of("backend-" + name, BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        CircuitBreaker breaker = CircuitBreaker.of("backend-" + name, CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slidingWindowSize(20)
+                .slowCallRateThreshold(50)
+                .slowCallDurationThreshold(settings.getSlowCallDuration())
+                .permittedNumberOfCallsInHalfOpenState(5)
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                .ignoreExceptions(ApplicationBeanConfiguration.CALLER_ERRORS)     // the primary breaker's rules
+                .build());
+        Gauge.builder("proxy.backend.inflight", bulkhead,
+                        b -> settings.getMaxConcurrentCalls() - b.getMetrics().getAvailableConcurrentCalls())
+                .tag("backend", name)
+                .register(registry);
+
+        Object client = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                new IsolatingHandler(target, settings.getServiceId(), type, bulkhead, breaker, latencyMetrics));
+        return new Entry(client, type, breaker, bulkhead, pool, loops);
+    }
+
+    @Override
+    public void destroy() {
+        for (Entry entry : backends.values()) {
+            entry.pool().dispose();
+            entry.loops().dispose();
+        }
+    }
+
+
+    /**
+     * Runs every interface call inside the backend's bulkhead and breaker and times it.
+     */
+    private static final class IsolatingHandler implements InvocationHandler {
+
+        private final Object target;
+        private final Bulkhead bulkhead;
+        private final CircuitBreaker breaker;
+        private final Map<Method, ClientLatencyMetrics.OutcomeTimers> timers = new HashMap<>();
+
+        IsolatingHandler(Object target, String serviceId, Class<?> type, Bulkhead bulkhead, CircuitBreaker breaker,
+                         ClientLatencyMetrics latencyMetrics) {
+            this.target = target;
+            this.bulkhead = bulkhead;
+            this.breaker = breaker;
+            // created once: the map is read-only afterwards, the hot path does no meter lookup
+            for (Method method : type.getMethods()) {
+                if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                    timers.put(method, latencyMetrics.forMethod(serviceId, method.getName()));
+                }
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            ClientLatencyMetrics.OutcomeTimers methodTimers = timers.get(method);
+            if (methodTimers == null) {
+                // Object methods (toString, equals, hashCode)
+                return method.getDeclaringClass() == Object.class
+                        ? invokeObjectMethod(proxy, method, args)
+                        : method.invoke(target, args);
+            }
+            bulkhead.acquirePermission();                   // BulkheadFullException when the backend is saturated
+            try {
+                breaker.acquirePermission();                // CallNotPermittedException while open
+                long start = System.nanoTime();
+                boolean succeeded = false;
+                try {
+                    Object result = method.invoke(target, args);
+                    succeeded = true;
+                    breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return result;
+                } catch (InvocationTargetException ex) {
+                    breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, ex.getCause());
+                    throw ex.getCause();
+                } finally {
+                    methodTimers.record(start, succeeded);
+                }
+            } finally {
+                bulkhead.onComplete();
+            }
+        }
+
+        private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "BackendClient[" + breaker.getName() + "]";
+            };
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package demo1.httprestclientservice.batching;
+
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.deadline.RequestDeadline;
+import demo1.httprestclientservice.exceptions.ClientErrorException;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import demo1.httprestclientservice.exceptions.DownstreamServiceException;
+import demo1.httprestclientservice.exceptions.UserNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind micro-batching of POST /create-new-user.
+ *
+ * Instead of one backend call per UserDbDTO, creates are collected for at most max-delay (or until
+ * max-batch-size is reached) and sent as ONE POST /create-new-users with a JSON array. The backend answers
+ * with an array in the same order, and every waiting caller gets "its" element back.
+ *
+ *   caller 1 ──┐                                              ┌──> ResponseEntity(user 1)
+ *   caller 2 ──┼──> queue ──> flusher ──> createBatch([..]) ──┼──> ResponseEntity(user 2)
+ *   caller 3 ──┘           (size/time window)                 └──> ResponseEntity(user 3)
+ *
+ * NB! Only active with dservice.create-batching.enabled=true, and the backend must offer /create-new-users.
+ * When the queue is full the create is simply forwarded on its own, nothing is dropped.
+ *
+ * Every wait is bounded:
+ *  1. a caller waits at most max-wait for its batch, or less when its own deadline (RequestDeadline) ends
+ *     earlier - then it gets a DownstreamServiceException (503) or a DeadlineExceededException (504). A create
+ *     that has not been sent yet is left out of its batch; one already sent may still be created by the
+ *     backend, so clients should retry with an Idempotency-Key (see IdempotencyStore);
+ *  2. at most max-concurrent-batches bulk calls run, and as many more wait for a sender; beyond that the
+ *     flusher sends the batch itself, which also slows down the intake until the queue overflows into
+ *     single calls;
+ *  3. on shutdown the queue is drained one last time, and whatever is left after that fails at once.
+ *
+ * NB! A 4xx answer to the batch is not every caller's fault: the batch is then sent again one create at a time,
+ *     so only the invalid create fails (see sendOneByOne). Other failures (5xx, timeouts) fail the whole batch.
+ */
+@Component
+public class CreateUserBatcher implements DisposableBean {
+
+    private final HttpClientInterface users;
+    private final DserviceClientProperties.CreateBatching settings;
+
+    private final BlockingQueue<PendingCreate> queue;
+    private final Thread flusher;
+    private final ExecutorService senders;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+
+    public CreateUserBatcher(HttpClientInterface users, DserviceClientProperties props, MeterRegistry registry) {
+        this.users    = users;
+        this.settings = props.getCreateBatching();
+        this.batchSizes = DistributionSummary.builder("proxy.create.batch.size")
+                .description("Number of creates sent in one /create-new-users call")
+                .register(registry);
+
+        if (settings.isEnabled()) {
+            int concurrent = settings.getMaxConcurrentBatches();
+            this.queue   = new ArrayBlockingQueue<>(settings.getMaxPending());
+            this.senders = new ThreadPoolExecutor(concurrent, concurrent, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(concurrent), daemon("create-batch-sender"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.flusher = daemon("create-batch-flusher").newThread(this::flushLoop);
+            this.flusher.start();
+        } else {
+            this.queue   = null;
+            this.senders = null;
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Blocks until the batch containing this user was answered by the backend - at most max-wait, or the
+     * caller's remaining deadline if that is shorter.
+     */
+    public ResponseEntity<UserDbDTO> create(UserDbDTO user) {
+        PendingCreate pending = new PendingCreate(user);
+        if (queue == null || !running || !queue.offer(pending)) {
+            return users.create(user);   // overloaded or shutting down: plain single call
+        }
+        if (!running && queue.remove(pending)) {
+            return users.create(user);   // destroy() began between the check and the offer: nobody would flush it
+        }
+
+        long maxWaitMillis = settings.getMaxWait().toMillis();
+        long waitMillis = Math.min(maxWaitMillis, RequestDeadline.remainingMillis());
+        try {
+            pending.result.get(Math.max(0, waitMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (pending.result.cancel(false)) {     // not answered: a flush that has not sent it yet skips it
+                throw waitMillis < maxWaitMillis
+                        ? new DeadlineExceededException("Request deadline exceeded while waiting for /create-new-users")
+                        : new DownstreamServiceException("My Custom Error Response: /create-new-users did not answer within "
+                                + maxWaitMillis + " ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (pending.result.cancel(false)) {
+                throw new DownstreamServiceException("Interrupted while waiting for /create-new-users", ex);
+            }
+        } catch (ExecutionException ignored) {
+            // rethrown by join() below
+        }
+        try {
+            return pending.result.join();   // completed by now
+        } catch (CompletionException ex) {
+            // rethrow what the RestClient threw (UserNotFoundException, DownstreamServiceException, ...)
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+
+    private void flushLoop() {
+        long maxDelayNanos = settings.getMaxDelay().toNanos();
+        int maxBatchSize   = settings.getMaxBatchSize();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingCreate next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    senders.execute(() -> send(batch));
+                } catch (RejectedExecutionException busy) {
+                    send(batch);        // every sender busy and their queue full: send it from here
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<PendingCreate> all) {
+        // callers that gave up already (see create) are left out
+        List<PendingCreate> batch = new ArrayList<>(all.size());
+        for (PendingCreate pending : all) {
+            if (!pending.result.isDone()) {
+                batch.add(pending);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+        try {
+            List<UserDbDTO> bodies = new ArrayList<>(batch.size());
+            for (PendingCreate pending : batch) {
+                bodies.add(pending.user);
+            }
+            ResponseEntity<List<UserDbDTO>> response = users.createBatch(bodies);
+            List<UserDbDTO> created = response.getBody();
+            if (created == null || created.size() != batch.size()) {
+                throw new DownstreamServiceException("My Custom Error Response: /create-new-users answered "
+                        + (created == null ? "no body" : created.size() + " users") + " for " + batch.size() + " creates");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(ResponseEntity.status(response.getStatusCode()).body(created.get(i)));
+            }
+        } catch (ClientErrorException | UserNotFoundException ex) {
+            // 4xx: one bad create (or a backend without /create-new-users) rejected the whole array
+            sendOneByOne(batch);
+        } catch (RuntimeException ex) {
+            for (PendingCreate pending : batch) {
+                pending.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * The fallback after a 4xx batch: every create on its own, so each caller gets its own answer - the valid
+     * ones are created, the invalid one gets its own 4xx. Callers that gave up in the meantime are skipped.
+     */
+    private void sendOneByOne(List<PendingCreate> batch) {
+        for (PendingCreate pending : batch) {
+            if (pending.result.isDone()) {
+                continue;
+            }
+            try {
+                pending.result.complete(users.create(pending.user));
+            } catch (RuntimeException ex) {
+                pending.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;          // the flusher drains what is already queued, then stops
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        // anything still queued (the flusher timed out, or a late offer) would wait for nothing: fail it now
+        PendingCreate left;
+        while ((left = queue.poll()) != null) {
+            left.result.completeExceptionally(new DownstreamServiceException(
+                    "My Custom Error Response: shutting down, the create was not sent"));
+        }
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+
+    private static final class PendingCreate {
+        private final UserDbDTO user;
+        private final CompletableFuture<ResponseEntity<UserDbDTO>> result = new CompletableFuture<>();
+
+        private PendingCreate(UserDbDTO user) {
+            this.user = user;
+        }
+    }
+}
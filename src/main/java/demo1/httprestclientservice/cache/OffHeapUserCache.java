@@ -0,0 +1,302 @@
+package demo1.httprestclientservice.cache;
+
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, off-heap snapshot store of user records (UserRecordCodec format).
+ *
+ * 1. Memory: one direct buffer, or a memory-mapped file when a path is given, cut into slotCount slots of
+ *    slotSize bytes. The GC only sees the small id → slot index, not the records themselves.
+ * 2. Reads are lock-free: every slot has a sequence number (seqlock). The writer makes it odd, writes, makes
+ *    it even again; a reader copies the payload and retries when the sequence changed under it.
+ * 3. Writes are serialised (they only happen on a miss) and evict with the CLOCK algorithm: a slot that was
+ *    read since the hand last passed gets a second chance.
+ * 4. Entries older than ttl are treated as misses.
+ * 5. With a file the snapshot survives a restart: the index is rebuilt from the slot headers on start-up.
+ *    A file of another format version (or size) is wiped completely, payload bytes included.
+ * 6. A slot that cannot be decoded (corrupt, or not what this version wrote) is a miss and is evicted.
+ *
+ * File layout (little endian):
+ *   header  [magic int][format int][slotCount int][slotSize int] ... padded to 64 bytes
+ *   slot    [seq long][id long][writtenAtMillis long][length int][pad int][payload ...]
+ */
+public final class OffHeapUserCache implements AutoCloseable {
+
+    private static final int MAGIC = 0x55534331;            // "USC1"
+    private static final int FILE_HEADER = 64;
+    private static final int SLOT_HEADER = 32;
+    private static final int SEQ = 0, ID = 8, WRITTEN_AT = 16, LENGTH = 24;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final ByteBuffer buffer;
+    private final int slotCount;
+    private final int slotSize;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<Long, Integer> index = new ConcurrentHashMap<>();
+    private final AtomicIntegerArray referenced;
+    private int clockHand;                                   // guarded by this
+
+    private final ThreadLocal<byte[]> readScratch;
+    private final ThreadLocal<UserRecordCodec.Output> writeScratch =
+            ThreadLocal.withInitial(() -> new UserRecordCodec.Output(1024));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();     // records bigger than a slot
+
+    /**
+     * @param file      memory-mapped backing file, or null for a plain direct buffer (lost on restart)
+     * @param slotCount max number of cached users
+     * @param slotSize  bytes per slot including its 32 byte header, multiple of 8
+     * @param ttlMillis age after which an entry no longer counts as a hit
+     */
+    public OffHeapUserCache(Path file, int slotCount, int slotSize, long ttlMillis) throws IOException {
+        if (slotCount <= 0 || slotSize <= SLOT_HEADER || slotSize % 8 != 0) {
+            throw new IllegalArgumentException("slotCount must be > 0 and slotSize a multiple of 8 above " + SLOT_HEADER);
+        }
+        long capacity = FILE_HEADER + (long) slotCount * slotSize;
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("slotCount * slotSize must stay below 2 GB, was " + capacity);
+        }
+        this.slotCount = slotCount;
+        this.slotSize = slotSize;
+        this.ttlMillis = ttlMillis;
+        this.referenced = new AtomicIntegerArray(slotCount);
+        this.readScratch = ThreadLocal.withInitial(() -> new byte[slotSize - SLOT_HEADER]);
+
+        if (file == null) {
+            this.buffer = ByteBuffer.allocateDirect((int) capacity + 8).alignedSlice(8).order(ByteOrder.LITTLE_ENDIAN);
+            writeFileHeader();
+        } else {
+            this.buffer = map(file, (int) capacity);
+            if (matchesFileHeader()) {
+                rebuildIndex();
+            } else {
+                clearSlots();
+                writeFileHeader();
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return mapped;
+        }
+    }
+
+    // ───────────────────────────── read ─────────────────────────────
+
+    /**
+     * @return the cached copy (a fresh object, safe to hand out) or null on a miss / expired entry
+     */
+    public UserDbDTO get(long id) {
+        Integer slot = index.get(id);
+        if (slot != null) {
+            int base = slotBase(slot);
+            byte[] scratch = readScratch.get();
+            for (int attempt = 0; attempt < 8; attempt++) {
+                long seq = (long) LONGS.getAcquire(buffer, base + SEQ);
+                if ((seq & 1) != 0) {
+                    Thread.onSpinWait();                     // a write is in progress
+                    continue;
+                }
+                long storedId = buffer.getLong(base + ID);
+                long writtenAt = buffer.getLong(base + WRITTEN_AT);
+                int length = buffer.getInt(base + LENGTH);
+                boolean sane = length > 0 && length <= scratch.length;
+                if (sane) {
+                    buffer.get(base + SLOT_HEADER, scratch, 0, length);
+                }
+                VarHandle.acquireFence();                    // the copies above happen before the re-check
+                if ((long) LONGS.getVolatile(buffer, base + SEQ) != seq) {
+                    continue;                                // overwritten while we copied, try again
+                }
+                if (!sane || storedId != id || System.currentTimeMillis() - writtenAt > ttlMillis) {
+                    break;                                   // slot was reused for another id, or too old
+                }
+                UserDbDTO user;
+                try {
+                    user = UserRecordCodec.decode(scratch, length);
+                } catch (RuntimeException corrupt) {
+                    invalidate(id);                          // never a 500 because of a bad slot
+                    break;
+                }
+                referenced.lazySet(slot, 1);
+                hits.increment();
+                return user;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // ───────────────────────────── write ─────────────────────────────
+
+    /**
+     * Stores (or replaces) the snapshot of one user. Records that do not fit into a slot are not cached.
+     */
+    public void put(long id, UserDbDTO user) {
+        UserRecordCodec.Output encoded = UserRecordCodec.encode(user, writeScratch.get());
+        int length = encoded.length();
+        if (length > slotSize - SLOT_HEADER) {
+            rejected.increment();
+            return;
+        }
+        synchronized (this) {
+            Integer existing = index.get(id);
+            int slot = existing != null ? existing : nextVictim();
+            int base = slotBase(slot);
+
+            int previousLength = buffer.getInt(base + LENGTH);
+            long previousId = buffer.getLong(base + ID);
+            if (existing == null && previousLength > 0) {
+                index.remove(previousId, slot);
+                evictions.increment();
+            }
+
+            long seq = (long) LONGS.getVolatile(buffer, base + SEQ);
+            LONGS.setVolatile(buffer, base + SEQ, seq + 1);   // odd: readers back off
+            VarHandle.storeStoreFence();                       // ...before any payload byte changes
+            buffer.putLong(base + ID, id);
+            buffer.putLong(base + WRITTEN_AT, System.currentTimeMillis());
+            buffer.putInt(base + LENGTH, length);
+            buffer.put(base + SLOT_HEADER, encoded.array(), 0, length);
+            LONGS.setRelease(buffer, base + SEQ, seq + 2);    // even again: published
+
+            index.put(id, slot);
+            referenced.set(slot, 1);
+        }
+    }
+
+    public void invalidate(long id) {
+        synchronized (this) {
+            Integer slot = index.remove(id);
+            if (slot != null) {
+                int base = slotBase(slot);
+                long seq = (long) LONGS.getVolatile(buffer, base + SEQ);
+                LONGS.setVolatile(buffer, base + SEQ, seq + 1);
+                VarHandle.storeStoreFence();
+                buffer.putInt(base + LENGTH, 0);
+                LONGS.setRelease(buffer, base + SEQ, seq + 2);
+                referenced.set(slot, 0);
+            }
+        }
+    }
+
+    /** CLOCK: free slots are taken right away, recently read ones lose their reference bit and are skipped. */
+    private int nextVictim() {
+        while (true) {
+            int slot = clockHand;
+            clockHand = (clockHand + 1) % slotCount;
+            if (buffer.getInt(slotBase(slot) + LENGTH) == 0 || !referenced.compareAndSet(slot, 1, 0)) {
+                return slot;
+            }
+        }
+    }
+
+    // ───────────────────────────── persistence ─────────────────────────────
+
+    private boolean matchesFileHeader() {
+        return buffer.getInt(0) == MAGIC
+                && buffer.getInt(4) == UserRecordCodec.FORMAT_VERSION
+                && buffer.getInt(8) == slotCount
+                && buffer.getInt(12) == slotSize;
+    }
+
+    private void writeFileHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, UserRecordCodec.FORMAT_VERSION);
+        buffer.putInt(8, slotCount);
+        buffer.putInt(12, slotSize);
+    }
+
+    /** Zeroes every slot, payload included - an older format may hold data this version must not keep. */
+    private void clearSlots() {
+        int end = slotBase(slotCount);
+        for (int pos = FILE_HEADER; pos < end; pos += 8) {
+            buffer.putLong(pos, 0);
+        }
+    }
+
+    /** Start-up after a restart: keep the complete, unexpired slots, drop half-written ones (odd sequence). */
+    private void rebuildIndex() {
+        long now = System.currentTimeMillis();
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slotBase(slot);
+            long seq = buffer.getLong(base + SEQ);
+            int length = buffer.getInt(base + LENGTH);
+            if ((seq & 1) != 0) {
+                buffer.putLong(base + SEQ, seq + 1);
+                buffer.putInt(base + LENGTH, 0);
+            } else if (length > 0) {
+                if (length > slotSize - SLOT_HEADER || now - buffer.getLong(base + WRITTEN_AT) > ttlMillis) {
+                    buffer.putInt(base + LENGTH, 0);
+                } else {
+                    index.put(buffer.getLong(base + ID), slot);
+                }
+            }
+        }
+    }
+
+    /** Flushes a file-backed cache to disk. The buffer itself is released by the GC with this object. */
+    @Override
+    public void close() {
+        if (buffer instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+    }
+
+    private int slotBase(int slot) {
+        return FILE_HEADER + slot * slotSize;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public int capacity() {
+        return slotCount;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
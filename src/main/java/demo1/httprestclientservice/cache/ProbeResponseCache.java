@@ -0,0 +1,84 @@
+package demo1.httprestclientservice.cache;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.deadline.RequestDeadline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate caching of GET /proxy/ping and GET /proxy/proxy-http-status/{code}
+ * (see StaleWhileRevalidateCache): health probes and monitors poll them many times per second, with this
+ * they cost the backend about one call per dservice.probe-cache.fresh-for instead of one per probe.
+ *
+ * The background refreshes run on one daemon thread of their own - never on a request thread, and never
+ * bound by a caller's deadline. A miss is loaded on the caller's thread, but without its deadline as well
+ * (RequestDeadline.withoutDeadline): the outcome is cached and shared, so one caller's short
+ * X-Request-Timeout-Ms must not become a cached 504 for everybody.
+ *
+ * Metrics: proxy.probe.cache.requests{endpoint, result=fresh|stale|miss}, proxy.probe.cache.refreshes{endpoint}
+ */
+@Component
+public class ProbeResponseCache implements DisposableBean {
+
+    private static final String PING_KEY = "ping";
+
+    private final boolean enabled;
+    private final ThreadPoolExecutor refresher;
+    private final StaleWhileRevalidateCache<String, Map<String, String>> ping;
+    private final StaleWhileRevalidateCache<Integer, ResponseEntity<String>> status;
+
+    public ProbeResponseCache(DserviceClientProperties props, MeterRegistry registry) {
+        DserviceClientProperties.ProbeCache settings = props.getProbeCache();
+        this.enabled = settings.isEnabled();
+        // one refresh per key at a time -> the queue never holds more than the number of keys
+        this.refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.getMaxEntries() + 1),
+                r -> {
+                    Thread t = new Thread(r, "probe-cache-refresh");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        long fresh = settings.getFreshFor().toNanos();
+        long stale = settings.getStaleFor().toNanos();
+        this.ping = new StaleWhileRevalidateCache<>(fresh, stale, 1, refresher);
+        this.status = new StaleWhileRevalidateCache<>(fresh, stale, settings.getMaxEntries(), refresher);
+
+        register(registry, "ping", ping);
+        register(registry, "proxy-http-status", status);
+    }
+
+    public Map<String, String> ping(Supplier<Map<String, String>> loader) {
+        return enabled ? ping.get(PING_KEY, () -> RequestDeadline.withoutDeadline(loader)) : loader.get();
+    }
+
+    public ResponseEntity<String> status(int code, Supplier<ResponseEntity<String>> loader) {
+        return enabled ? status.get(code, () -> RequestDeadline.withoutDeadline(loader)) : loader.get();
+    }
+
+    private static void register(MeterRegistry registry, String endpoint, StaleWhileRevalidateCache<?, ?> cache) {
+        for (StaleWhileRevalidateCache.Result result : StaleWhileRevalidateCache.Result.values()) {
+            FunctionCounter.builder("proxy.probe.cache.requests", cache, c -> c.count(result))
+                    .tag("endpoint", endpoint)
+                    .tag("result", result.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("proxy.probe.cache.refreshes", cache, StaleWhileRevalidateCache::refreshes)
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,174 @@
+package demo1.httprestclientservice.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A small stale-while-revalidate cache for cheap, idempotent, very frequently polled calls (ping, health-style
+ * endpoints). Per key, with age = time since the value was loaded:
+ *
+ *   age < freshFor                    -> the cached value, no backend call                       (FRESH)
+ *   age < freshFor + staleFor         -> the cached value at once, plus ONE background refresh    (STALE)
+ *   older / not cached                -> loaded on the caller's thread; concurrent callers of the  (MISS)
+ *                                        same key wait for that one load instead of making their own
+ *
+ * So however many probes arrive, the backend sees at most about one call per key per freshFor.
+ *
+ * The outcome is cached, not only the value: a RuntimeException thrown by the loader is rethrown to every
+ * caller until the entry is refreshed. A refresh replaces the entry with whatever it gets - a backend that went
+ * down is reported after one refresh, we do not keep serving its last good answer.
+ *
+ * At most maxEntries keys are kept; new keys above that are loaded but not cached.
+ */
+public class StaleWhileRevalidateCache<K, V> {
+
+    public enum Result { FRESH, STALE, MISS }
+
+    private static final class Entry<V> {
+        final V value;
+        final RuntimeException failure;
+        final long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(V value, RuntimeException failure, long loadedAt) {
+            this.value = value;
+            this.failure = failure;
+            this.loadedAt = loadedAt;
+        }
+
+        V valueOrThrow() {
+            if (failure != null) {
+                throw failure;
+            }
+            return value;
+        }
+    }
+
+    private final long freshNanos;
+    private final long staleNanos;
+    private final int maxEntries;
+    private final Executor refresher;
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<K, CompletableFuture<Entry<V>>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder fresh = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public StaleWhileRevalidateCache(long freshNanos, long staleNanos, int maxEntries, Executor refresher) {
+        this(freshNanos, staleNanos, maxEntries, refresher, System::nanoTime);
+    }
+
+    StaleWhileRevalidateCache(long freshNanos, long staleNanos, int maxEntries, Executor refresher,
+                              LongSupplier clock) {
+        if (freshNanos < 0 || staleNanos < 0 || maxEntries < 1) {
+            throw new IllegalArgumentException("freshNanos, staleNanos must be >= 0 and maxEntries >= 1");
+        }
+        this.freshNanos = freshNanos;
+        this.staleNanos = staleNanos;
+        this.maxEntries = maxEntries;
+        this.refresher = refresher;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cached value of the key, or loader's value (see the class comment for when loader is called)
+     * @throws RuntimeException what the loader threw (now, or when the cached outcome was loaded)
+     */
+    public V get(K key, Supplier<V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            long age = clock.getAsLong() - entry.loadedAt;
+            if (age < freshNanos) {
+                fresh.increment();
+                return entry.valueOrThrow();
+            }
+            if (age < freshNanos + staleNanos) {
+                stale.increment();
+                if (entry.refreshing.compareAndSet(false, true)) {
+                    refreshInBackground(key, entry, loader);
+                }
+                return entry.valueOrThrow();
+            }
+        }
+        misses.increment();
+        return load(key, loader).valueOrThrow();
+    }
+
+    /**
+     * Loads on the calling thread; a concurrent call for the same key joins this load.
+     */
+    private Entry<V> load(K key, Supplier<V> loader) {
+        CompletableFuture<Entry<V>> mine = new CompletableFuture<>();
+        CompletableFuture<Entry<V>> running = loading.putIfAbsent(key, mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            Entry<V> loaded = call(loader);
+            store(key, loaded);
+            mine.complete(loaded);
+            return loaded;
+        } catch (Error error) {
+            mine.completeExceptionally(error);
+            throw error;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    private void refreshInBackground(K key, Entry<V> current, Supplier<V> loader) {
+        try {
+            refresher.execute(() -> {
+                try {
+                    refreshes.increment();
+                    store(key, call(loader));
+                } finally {
+                    current.refreshing.set(false);    // only matters if the store was skipped
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            current.refreshing.set(false);            // a later caller tries again
+        }
+    }
+
+    private Entry<V> call(Supplier<V> loader) {
+        try {
+            return new Entry<>(loader.get(), null, clock.getAsLong());
+        } catch (RuntimeException ex) {
+            return new Entry<>(null, ex, clock.getAsLong());
+        }
+    }
+
+    private void store(K key, Entry<V> entry) {
+        if (entries.size() < maxEntries || entries.containsKey(key)) {
+            entries.put(key, entry);
+        }
+    }
+
+    public long count(Result result) {
+        return switch (result) {
+            case FRESH -> fresh.sum();
+            case STALE -> stale.sum();
+            case MISS -> misses.sum();
+        };
+    }
+
+    public long refreshes() {
+        return refreshes.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,317 @@
+package demo1.httprestclientservice.cache;
+
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Compact binary layout of a UserDbDTO graph, used by OffHeapUserCache.
+ *
+ * Much smaller than the object graph (and than JSON): every (sub-)record starts with a varint bit mask
+ * of the fields that are present, followed only by those values:
+ *   Long / Integer      zig-zag varint
+ *   String              varint length + UTF-8 bytes
+ *   LocalDate           zig-zag varint epoch day
+ *   LocalDateTime       zig-zag varint epoch second (UTC) + varint nanos
+ *   BigDecimal          zig-zag varint scale + varint length + unscaled two's-complement bytes
+ *   enums               one byte ordinal
+ *   Boolean             only bits in the mask (present + value)
+ *
+ * The password of the registration data is never written: the cache lives in direct memory and optionally in a
+ * mapped file on disk, neither is a place for credentials. A cached user therefore always has password == null
+ * (bit 3 of the registration mask stays reserved for it).
+ *
+ * NB! The order of the fields IS the format. Appending fields is fine, re-ordering or removing needs a new
+ * FORMAT_VERSION (old cache files are then simply ignored at startup).
+ */
+public final class UserRecordCodec {
+
+    static final int FORMAT_VERSION = 2;      // 2: without the password
+
+    private static final HairColor[] HAIR_COLORS = HairColor.values();
+    private static final EyeColor[] EYE_COLORS = EyeColor.values();
+    private static final MaritalStatus[] MARITAL_STATUSES = MaritalStatus.values();
+
+    private UserRecordCodec() {
+    }
+
+    // ───────────────────────────── encode ─────────────────────────────
+
+    /**
+     * Encodes into out (growing it if needed) and returns the number of bytes written.
+     */
+    public static Output encode(UserDbDTO user, Output out) {
+        out.reset();
+        out.writeByte(FORMAT_VERSION);
+        RegistrationDataDbDTO reg = user.getRegistrationDataDbDTO();
+        ProfileDataDbDTO profile  = user.getProfileDataDbDTO();
+        DescriptionDataDbDTO desc = user.getDescriptionDataDbDTO();
+        out.writeVarLong(mask(user.getId(), reg, profile, desc));
+        if (user.getId() != null) out.writeZigZag(user.getId());
+
+        if (reg != null) {
+            out.writeVarLong(mask(reg.getId(), reg.getUsername(), reg.getEmail(), null,
+                    reg.getRegDate(), reg.getConfirmRegDeadline(), reg.getConfirmRegDate()));
+            if (reg.getId() != null) out.writeZigZag(reg.getId());
+            if (reg.getUsername() != null) out.writeString(reg.getUsername());
+            if (reg.getEmail() != null) out.writeString(reg.getEmail());
+            if (reg.getRegDate() != null) out.writeDateTime(reg.getRegDate());
+            if (reg.getConfirmRegDeadline() != null) out.writeDateTime(reg.getConfirmRegDeadline());
+            if (reg.getConfirmRegDate() != null) out.writeDateTime(reg.getConfirmRegDate());
+        }
+
+        if (profile != null) {
+            long mask = mask(profile.getId(), profile.getLastLogin(), profile.getBirthDate(), profile.getCountry(),
+                    profile.getRegion(), profile.getCity(), profile.getMaritalStatus(), profile.getHeight(),
+                    profile.getWeight(), profile.getHairColor(), profile.getEyeColor(), profile.getChildren(),
+                    profile.getReligion(), profile.getSmoking(), profile.getDrinking(), profile.getEducation(),
+                    profile.getOccupation(), profile.getLanguages());
+            // the Boolean values travel in the mask: bit 18 = smoking, bit 19 = drinking
+            if (Boolean.TRUE.equals(profile.getSmoking())) mask |= 1L << 18;
+            if (Boolean.TRUE.equals(profile.getDrinking())) mask |= 1L << 19;
+            out.writeVarLong(mask);
+            if (profile.getId() != null) out.writeZigZag(profile.getId());
+            if (profile.getLastLogin() != null) out.writeDateTime(profile.getLastLogin());
+            if (profile.getBirthDate() != null) out.writeZigZag(profile.getBirthDate().toEpochDay());
+            if (profile.getCountry() != null) out.writeString(profile.getCountry());
+            if (profile.getRegion() != null) out.writeString(profile.getRegion());
+            if (profile.getCity() != null) out.writeString(profile.getCity());
+            if (profile.getMaritalStatus() != null) out.writeByte(profile.getMaritalStatus().ordinal());
+            if (profile.getHeight() != null) out.writeDecimal(profile.getHeight());
+            if (profile.getWeight() != null) out.writeDecimal(profile.getWeight());
+            if (profile.getHairColor() != null) out.writeByte(profile.getHairColor().ordinal());
+            if (profile.getEyeColor() != null) out.writeByte(profile.getEyeColor().ordinal());
+            if (profile.getChildren() != null) out.writeZigZag(profile.getChildren());
+            if (profile.getReligion() != null) out.writeString(profile.getReligion());
+            if (profile.getEducation() != null) out.writeString(profile.getEducation());
+            if (profile.getOccupation() != null) out.writeString(profile.getOccupation());
+            if (profile.getLanguages() != null) out.writeString(profile.getLanguages());
+        }
+
+        if (desc != null) {
+            out.writeVarLong(mask(desc.getId(), desc.getDescription()));
+            if (desc.getId() != null) out.writeZigZag(desc.getId());
+            if (desc.getDescription() != null) out.writeString(desc.getDescription());
+        }
+        return out;
+    }
+
+    private static long mask(Object... fields) {
+        long mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    // ───────────────────────────── decode ─────────────────────────────
+
+    public static UserDbDTO decode(byte[] bytes, int length) {
+        Input in = new Input(bytes, length);
+        if (in.readByte() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported user record format");
+        }
+        UserDbDTO user = new UserDbDTO();
+        long mask = in.readVarLong();
+        if (has(mask, 0)) user.setId(in.readZigZag());
+
+        if (has(mask, 1)) {
+            RegistrationDataDbDTO reg = new RegistrationDataDbDTO();
+            long m = in.readVarLong();
+            if (has(m, 0)) reg.setId(in.readZigZag());
+            if (has(m, 1)) reg.setUsername(in.readString());
+            if (has(m, 2)) reg.setEmail(in.readString());
+            if (has(m, 3)) reg.setPassword(in.readString());
+            if (has(m, 4)) reg.setRegDate(in.readDateTime());
+            if (has(m, 5)) reg.setConfirmRegDeadline(in.readDateTime());
+            if (has(m, 6)) reg.setConfirmRegDate(in.readDateTime());
+            user.setRegistrationDataDbDTO(reg);
+        }
+
+        if (has(mask, 2)) {
+            ProfileDataDbDTO profile = new ProfileDataDbDTO();
+            long m = in.readVarLong();
+            if (has(m, 0)) profile.setId(in.readZigZag());
+            if (has(m, 1)) profile.setLastLogin(in.readDateTime());
+            if (has(m, 2)) profile.setBirthDate(LocalDate.ofEpochDay(in.readZigZag()));
+            if (has(m, 3)) profile.setCountry(in.readString());
+            if (has(m, 4)) profile.setRegion(in.readString());
+            if (has(m, 5)) profile.setCity(in.readString());
+            if (has(m, 6)) profile.setMaritalStatus(MARITAL_STATUSES[in.readByte()]);
+            if (has(m, 7)) profile.setHeight(in.readDecimal());
+            if (has(m, 8)) profile.setWeight(in.readDecimal());
+            if (has(m, 9)) profile.setHairColor(HAIR_COLORS[in.readByte()]);
+            if (has(m, 10)) profile.setEyeColor(EYE_COLORS[in.readByte()]);
+            if (has(m, 11)) profile.setChildren((int) in.readZigZag());
+            if (has(m, 12)) profile.setReligion(in.readString());
+            if (has(m, 13)) profile.setSmoking(has(m, 18));
+            if (has(m, 14)) profile.setDrinking(has(m, 19));
+            if (has(m, 15)) profile.setEducation(in.readString());
+            if (has(m, 16)) profile.setOccupation(in.readString());
+            if (has(m, 17)) profile.setLanguages(in.readString());
+            user.setProfileDataDbDTO(profile);
+        }
+
+        if (has(mask, 3)) {
+            DescriptionDataDbDTO desc = new DescriptionDataDbDTO();
+            long m = in.readVarLong();
+            if (has(m, 0)) desc.setId(in.readZigZag());
+            if (has(m, 1)) desc.setDescription(in.readString());
+            user.setDescriptionDataDbDTO(desc);
+        }
+        return user;
+    }
+
+    private static boolean has(long mask, int bit) {
+        return (mask & (1L << bit)) != 0;
+    }
+
+
+    /**
+     * A reusable, growable output buffer - keep one per thread, encoding then allocates nothing but the
+     * UTF-8 bytes of the strings.
+     */
+    public static final class Output {
+        private byte[] buf;
+        private int pos;
+
+        public Output(int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        public byte[] array() {
+            return buf;
+        }
+
+        public int length() {
+            return pos;
+        }
+
+        void reset() {
+            pos = 0;
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeDateTime(LocalDateTime value) {
+            writeZigZag(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarLong(value.getNano());
+        }
+
+        void writeDecimal(BigDecimal value) {
+            writeZigZag(value.scale());
+            writeBytes(value.unscaledValue().toByteArray());
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buf;
+        private final int limit;
+        private int pos;
+
+        private Input(byte[] buf, int limit) {
+            this.buf = buf;
+            this.limit = limit;
+        }
+
+        int readByte() {
+            if (pos >= limit) {
+                throw new IllegalArgumentException("Truncated user record");
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in user record");
+        }
+
+        long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > limit - pos) {
+                throw new IllegalArgumentException("Truncated user record");
+            }
+            return (int) length;
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        LocalDateTime readDateTime() {
+            long epochSecond = readZigZag();
+            int nanos = (int) readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+        }
+
+        BigDecimal readDecimal() {
+            int scale = (int) readZigZag();
+            int length = readLength();
+            BigInteger unscaled = new BigInteger(buf, pos, length);
+            pos += length;
+            return new BigDecimal(unscaled, scale);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package demo1.httprestclientservice.cache;
+
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Read-through snapshot cache in front of GET /user-with-data/{id} (see OffHeapUserCache for the storage).
+ *
+ * Hits are answered from off-heap memory in microseconds, without a backend round trip. A miss is forwarded
+ * and the 2xx body is stored. With dservice.user-cache.file set the snapshot survives restarts, so a fresh
+ * instance starts warm.
+ *
+ * The key is the id only: requests with Authorization, Cookie or X-API-Version bypass the cache (see
+ * UserProxyController), and the stored record never contains the password (see UserRecordCodec).
+ *
+ * Metrics: proxy.user.cache.requests{result=hit|miss}, proxy.user.cache.evictions, proxy.user.cache.rejected
+ * (record bigger than a slot) and the gauge proxy.user.cache.size.
+ */
+@Component
+public class UserSnapshotCache implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSnapshotCache.class);
+
+    private final boolean enabled;
+    private final OffHeapUserCache cache;
+
+    public UserSnapshotCache(DserviceClientProperties props, MeterRegistry registry) throws IOException {
+        DserviceClientProperties.UserCache settings = props.getUserCache();
+        this.enabled = settings.isEnabled();
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        Path file = StringUtils.hasText(settings.getFile()) ? Path.of(settings.getFile()) : null;
+        this.cache = new OffHeapUserCache(file, settings.getMaxEntries(), settings.getSlotSize(),
+                settings.getTtl().toMillis());
+        log.info("User snapshot cache: {} slots x {} bytes, {} entries restored{}", cache.capacity(),
+                settings.getSlotSize(), cache.size(), file != null ? " from " + file : "");
+
+        counter(registry, "proxy.user.cache.requests", "result", "hit", OffHeapUserCache::hits);
+        counter(registry, "proxy.user.cache.requests", "result", "miss", OffHeapUserCache::misses);
+        counter(registry, "proxy.user.cache.evictions", null, null, OffHeapUserCache::evictions);
+        counter(registry, "proxy.user.cache.rejected", null, null, OffHeapUserCache::rejected);
+        Gauge.builder("proxy.user.cache.size", cache, OffHeapUserCache::size).register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String tag, String value,
+                         ToDoubleFunction<OffHeapUserCache> f) {
+        FunctionCounter.Builder<OffHeapUserCache> builder = FunctionCounter.builder(name, cache, f);
+        if (tag != null) {
+            builder.tag(tag, value);
+        }
+        builder.register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public UserDbDTO get(long id) {
+        return enabled ? cache.get(id) : null;
+    }
+
+    public void put(long id, UserDbDTO user) {
+        if (enabled && user != null) {
+            cache.put(id, user);
+        }
+    }
+
+    public void invalidate(long id) {
+        if (enabled) {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+}
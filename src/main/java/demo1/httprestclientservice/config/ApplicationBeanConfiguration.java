@@ -6,10 +6,20 @@ import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.converters.IndexedHttpMessageConverter;
+import demo1.httprestclientservice.deadline.DeadlinePropagationInterceptor;
+import demo1.httprestclientservice.deadline.RequestDeadline;
 import demo1.httprestclientservice.exceptions.ClientErrorException;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
 import demo1.httprestclientservice.exceptions.DownstreamServiceException;
 import demo1.httprestclientservice.exceptions.UnauthorizedException;
 import demo1.httprestclientservice.exceptions.UserNotFoundException;
+import demo1.httprestclientservice.grpc.GrpcChannelHolder;
+import demo1.httprestclientservice.grpc.GrpcHttpClientInterface;
+import demo1.httprestclientservice.json.ProfileAttributesModule;
+import demo1.httprestclientservice.metrics.ClientLatencyMetrics;
+import demo1.httprestclientservice.metrics.InstrumentedHttpClientInterface;
+import demo1.httprestclientservice.tracing.ClientPhaseObservations;
 import io.micrometer.core.instrument.Metrics;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.stream.ChunkedWriteHandler;
@@ -23,6 +33,7 @@ import org.springframework.context.annotation.Configuration;
 
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.FormHttpMessageConverter;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
@@ -32,18 +43,21 @@ import org.springframework.web.client.RestClient;                // RestClient i
 import org.springframework.web.client.support.RestClientAdapter;  // ← correct import
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 import reactor.core.publisher.Flux;
+import reactor.netty.Connection;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.util.List;
 import java.util.TimeZone;
-import java.util.UUID;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 
 
 
@@ -81,16 +95,30 @@ public class ApplicationBeanConfiguration {
      */
     @Bean
     @LoadBalanced
-    RestClient.Builder restClientBuilder(MeterRegistry registry) {
+    RestClient.Builder restClientBuilder(MeterRegistry registry,
+                                         ObservationRegistry observationRegistry,
+                                         ClientPhaseObservations phaseObservations,
+                                         DeadlinePropagationInterceptor deadlineInterceptor,
+                                         ClientRuntimeSettings runtime) {
         // Register Reactor Netty's metrics with Micrometer
         Metrics.addRegistry(registry);
+        // ...and its observations (hostname resolution / connect / tls handshake spans) with the tracing setup
+        reactor.netty.Metrics.observationRegistry(observationRegistry);
 
         // 1) Build your Reactor Netty HttpClient
         //  Also add metrics enabled
-        HttpClient reactorClient = HttpClient.create()
+        String uriTag = props.getServiceId();
+        // A named pool with metrics: reactor.netty.connection.provider.* incl. the time requests wait for a connection
+        ConnectionProvider pool = ConnectionProvider.builder(props.getServiceId())
+                .metrics(true)
+                .build();
+        HttpClient reactorClient = HttpClient.create(pool)
                 // Enable Micrometer metrics for HTTP client (record connection/request metrics)
-                .metrics(true, conn ->
-                        props.getServiceId() + "-" + Function.identity().apply(conn))  // record metrics tagged by service ID
+                // NB! The function maps the request URI to the "uri" tag. Do NOT derive the tag from the URI itself:
+                //     every distinct path (/user/1, /user/2, ...) would become a new time series, and building the
+                //     String costs an allocation per request. One precomputed tag per service is enough, the
+                //     per-method / per-instance latency is recorded by ClientLatencyMetrics.
+                .metrics(true, uri -> uriTag)
                 // 2 seconds to establish TCP connection
                 /**
                  * This is the maximum time (in milliseconds) allowed for the TCP handshake to complete when opening a socket to the remote server.
@@ -103,7 +131,7 @@ public class ApplicationBeanConfiguration {
                  * Concretely, once the request is sent, if more than 5 s elapse without receiving any bytes at the TCP level, the client will raise a ReadTimeoutException.
                  * Internally, Reactor Netty installs its own ReadTimeoutHandler for you when you call responseTimeout(...), and removes it when the full response is received.
                  */
-                .responseTimeout(Duration.ofSeconds(5))
+                .responseTimeout(props.getTimeouts().getResponse())
                 // 5 seconds read or write inactivity timeout
                 /**
                  *          Read timeout (new ReadTimeoutHandler(5)):
@@ -121,10 +149,12 @@ public class ApplicationBeanConfiguration {
                     // 2) Add your custom chunked writer for large uploads
                     conn.addHandlerLast("chunkedWriter", new ChunkedWriteHandler());
 
-                    // 3) Re‐install your read/write timeouts
-                    conn.addHandlerLast(new ReadTimeoutHandler(5));
-                    conn.addHandlerLast(new WriteTimeoutHandler(5));
-                });
+                    // 3) the read/write timeouts are installed per request, see applyTimeouts
+                })
+                .doOnRequest((request, conn) -> applyTimeouts(request, conn, runtime.current()));
+
+        // acquire / ttfb / body spans per request (see ClientPhaseObservations)
+        reactorClient = phaseObservations.instrument(reactorClient);
 
         // 2) Wrap that in the Reactor-Netty RequestFactory
         ReactorClientHttpRequestFactory factory =
@@ -137,26 +167,32 @@ public class ApplicationBeanConfiguration {
         clientMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         clientMapper.setPropertyNamingStrategy(PropertyNamingStrategies.LOWER_CAMEL_CASE);
         clientMapper.registerModule(new JavaTimeModule());
+        if (props.getJsonInterning().isEnabled()) {
+            // country, city, languages ... become shared instances, enums are matched without creating a String
+            clientMapper.registerModule(new ProfileAttributesModule(
+                    props.getJsonInterning().getTableSize(), props.getJsonInterning().getMaxLength()));
+        }
         DateFormat df = new SimpleDateFormat("MM|dd|yyyy HH~mm~ss");
         df.setTimeZone(TimeZone.getTimeZone("UTC"));
         clientMapper.setDateFormat(df);
 
 
-        // 5) Tell RestClient to use it, and register a defaultRequest
-        //    hook that adds headers before every request.
-        //  Tell RestClient to use the *new* ObjectMapper, and register your default headers and error‐handling
+        // NB! Request bodies are written by Jackson straight into the byte[] InterceptingClientHttpRequest keeps for
+        //     the interceptors below (the load balancer's is always there), and that byte[] is what goes to Netty.
+        //     Serializing into a pooled buffer first would only add a copy.
+        MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter(clientMapper);
+
+        // 5) Tell RestClient to use it
+        //  Tell RestClient to use the *new* ObjectMapper, and register your error‐handling
         return RestClient.builder()
                 .requestFactory(factory)
-                // Add an X-Correlation-ID (new UUID each time) and an Authorization header
-                .defaultRequest(spec -> {
-                    // Dynamic Correlation ID per request
-                    String correlationId = UUID.randomUUID().toString();
-                    spec.header("X-Correlation-ID", correlationId);
-
-                    // Static or fetched Auth token (replace with real retrieval)
-                    String token = props.getAuthToken();  // assume you have this in props
-                    spec.header("Authorization", "Bearer " + token);
-                })
+                // One client span per call. The tracing bridge propagates the trace as a W3C "traceparent" header,
+                // which replaces the X-Correlation-ID (a new random UUID per call) we used to send.
+                .observationRegistry(observationRegistry)
+                // fail fast when the caller's deadline is used up, forward the remaining budget otherwise
+                .requestInterceptor(deadlineInterceptor)
+                // NB! No Authorization header here: dservice.auth-token is backend-service's token, and this builder
+                //     is also cloned for every dservice.backends client. userHttpInterface adds it to its own clone.
                 // b) map 4xx & 5xx status to custom exceptions
                 // b) map 4xx & 5xx status to custom exceptions
                 .defaultStatusHandler(
@@ -186,17 +222,23 @@ public class ApplicationBeanConfiguration {
                         }
                 )
                 // Replace JSON converters with one using your private mapper
+                // NB! Jackson used to be registered twice (before and after String) - only the first one ever
+                //     answered, the second one was just probed on every call.
                 .messageConverters(converters -> {
                     converters.clear();
-                    converters.add(new MappingJackson2HttpMessageConverter(clientMapper));
-                    // 1) text/plain and text/*+json as raw Strings
-                    converters.add(new StringHttpMessageConverter());
-                    // 2) JSON → POJOs
-                    converters.add(new MappingJackson2HttpMessageConverter(clientMapper));
-                    // File streaming
-                    converters.add(new ResourceHttpMessageConverter());
-                    // Form data / multipart
-                    converters.add(new FormHttpMessageConverter());;
+                    converters.add(new IndexedHttpMessageConverter(List.of(
+                            // raw JSON bytes for getWithDataRaw (fields= projection), must come before Jackson
+                            new ByteArrayHttpMessageConverter(),
+                            // JSON → POJOs
+                            jsonConverter,
+                            // text/plain and text/*+json as raw Strings
+                            new StringHttpMessageConverter(),
+                            // File streaming
+                            new ResourceHttpMessageConverter(),
+                            // Form data / multipart
+                            new FormHttpMessageConverter()),
+                            // which delegate handles which (type, media type): resolved once, here
+                            HttpClientInterface.class));
                 })
                 ;
     }
@@ -204,24 +246,63 @@ public class ApplicationBeanConfiguration {
 
 
     /**
-     * No changes here — this builds your HTTP-interface proxy
-     * on top of the RestClient.
+     * This builds your HTTP-interface proxy on top of the RestClient,
+     * and wraps it so that every call is timed per method (see ClientLatencyMetrics).
+     *
+     * With dservice.transport: grpc the hot calls go over gRPC instead (see GrpcHttpClientInterface) and only
+     * the calls without an RPC use the proxy - same interface, same timers, same exceptions.
      */
     @Bean
-    HttpClientInterface userHttpInterface(RestClient.Builder builder) {
+    HttpClientInterface userHttpInterface(RestClient.Builder builder, ClientLatencyMetrics latencyMetrics,
+                                          GrpcChannelHolder grpcChannel, ClientRuntimeSettings runtime) {
         String target = "http://" + props.getServiceId();
 
-        RestClient restClient = builder
+        // a clone: the shared builder stays without base URL and token (see BackendClientRegistry)
+        RestClient restClient = builder.clone()
                 .baseUrl(target)
+                // Add an Authorization header
+                .defaultRequest(spec -> {
+                    // Static or fetched Auth token (replace with real retrieval)
+                    String token = runtime.current().authToken();  // from props, can be changed at runtime
+                    spec.header("Authorization", "Bearer " + token);
+                })
                 .build();
 
-        return HttpServiceProxyFactory
+        HttpClientInterface proxy = HttpServiceProxyFactory
                 .builderFor(RestClientAdapter.create(restClient))
                 .build()
                 .createClient(HttpClientInterface.class);
+
+        if ("grpc".equalsIgnoreCase(props.getTransport())) {
+            proxy = new GrpcHttpClientInterface(grpcChannel.channel(), proxy, props.getGrpc().getDeadline());
+        } else if (!"http".equalsIgnoreCase(props.getTransport())) {
+            throw new IllegalStateException("dservice.transport must be http or grpc, not " + props.getTransport());
+        }
+
+        return new InstrumentedHttpClientInterface(proxy, latencyMetrics);
     }
 
 
+    /**
+     * Timeouts of one backend request, with the current runtime settings:
+     *  1. the read/write inactivity handlers are (re)installed on every request. Reactor Netty removes the
+     *     handlers added to a pooled connection when it goes back to the pool, so installing them once per
+     *     connection would leave every reused connection without them; doing it per request also means a
+     *     /actuator/clientconfig change applies to the next request - the pool itself is never rebuilt;
+     *  2. the caller's remaining budget (set as X-Request-Timeout-Ms by DeadlinePropagationInterceptor)
+     *     shortens the response timeout of this one request - never lengthens it.
+     */
+    static void applyTimeouts(HttpClientRequest request, Connection conn, ClientRuntimeSettings.Settings settings) {
+        conn.removeHandler("readTimeout");
+        conn.removeHandler("writeTimeout");
+        conn.addHandlerLast("readTimeout",
+                new ReadTimeoutHandler(settings.readTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        conn.addHandlerLast("writeTimeout",
+                new WriteTimeoutHandler(settings.writeTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        request.responseTimeout(RequestDeadline.responseTimeout(settings.responseTimeout(),
+                request.requestHeaders().get(RequestDeadline.TIMEOUT_HEADER)));
+    }
+
     /**
      * Resilience4j CircuitBreakerConfig:
      * trips if >50% failures in last 20 calls, marks slow calls >2s,
@@ -237,9 +318,24 @@ public class ApplicationBeanConfiguration {
                 .slowCallDurationThreshold(Duration.ofSeconds(2))
                 .permittedNumberOfCallsInHalfOpenState(5)
                 .waitDurationInOpenState(Duration.ofSeconds(30))
+                .ignoreExceptions(CALLER_ERRORS)
                 .build();
     }
 
+    /**
+     * What a backend breaker does NOT count as a failure - the same for backend-service and for every
+     * dservice.backends client (see BackendClientRegistry):
+     *  1. DeadlineExceededException: a caller that gave us too little time says nothing about the backend's health;
+     *  2. the 4xx answers (404, 401, other 4xx): the backend is up and answered, the request was wrong.
+     *     Counting them would let a burst of lookups of missing users open the breaker for everybody.
+     */
+    @SuppressWarnings("unchecked")
+    public static final Class<? extends Throwable>[] CALLER_ERRORS = new Class[] {
+            DeadlineExceededException.class,
+            UserNotFoundException.class,
+            UnauthorizedException.class,
+            ClientErrorException.class};
+
     /**
      * Create a CircuitBreaker named "backendService" using the above config.
      */
@@ -0,0 +1,43 @@
+package demo1.httprestclientservice.config;
+
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+
+/**
+ * Hints for Spring AOT processing (./gradlew processAot) and for everything built on top of it
+ * (-Dspring.aot.enabled=true on the JVM, CDS training runs, native images).
+ *
+ * AOT can see bean definitions, but it can NOT see what happens inside our @Bean methods:
+ *  1. HttpServiceProxyFactory.createClient(HttpClientInterface.class) creates a JDK proxy at runtime,
+ *     which implements our interface plus Spring's SpringProxy/Advised/DecoratingProxy.
+ *  2. Jackson (de)serializes the DTOs reflectively - getters, setters, default constructors.
+ *  3. DserviceClientProperties is bound by the Binder through its setters (incl. nested types).
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // 1) the HTTP-interface proxy
+        hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(HttpClientInterface.class));
+
+        // 2) request/response bodies of HttpClientInterface
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                UserDTO.class,
+                UserDbDTO.class,
+                RegistrationDataDbDTO.class,
+                ProfileDataDbDTO.class,
+                DescriptionDataDbDTO.class);
+
+        // 3) @ConfigurationProperties binding of the "dservice:" namespace
+        BindableRuntimeHintsRegistrar.forTypes(DserviceClientProperties.class).registerHints(hints, classLoader);
+    }
+}
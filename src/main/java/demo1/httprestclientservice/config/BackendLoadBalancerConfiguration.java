@@ -0,0 +1,69 @@
+package demo1.httprestclientservice.config;
+
+import demo1.httprestclientservice.loadbalancer.OutlierDetector;
+import demo1.httprestclientservice.loadbalancer.OutlierEjectingServiceInstanceListSupplier;
+import demo1.httprestclientservice.metrics.ClientLatencyMetrics;
+import demo1.httprestclientservice.metrics.InstanceTimersServiceInstanceListSupplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.RandomLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Load balancer of every service that has no configuration of its own, i.e. the dservice.backends: entries
+ * (registered as the default configuration by LoadBalancerClientsConfiguration). Spring Cloud creates one child
+ * context per service name, so each backend gets its own instance list and its own policy from its Backend settings.
+ *
+ * NB! Deliberately NOT a @Configuration: it must only exist in those child contexts. The default configuration
+ *     is registered in backend-service's context as well - the conditions leave MyLoadBalancerConfig's beans
+ *     in charge there.
+ */
+public class BackendLoadBalancerConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceInstanceListSupplier backendServiceInstanceListSupplier(
+            ConfigurableApplicationContext context,
+            DserviceClientProperties props,
+            OutlierDetector outlierDetector,
+            ClientLatencyMetrics latencyMetrics
+    ) {
+        // same chain as MyLoadBalancerConfig: discovery (or fixed list) -> instance timers -> outlier ejection -> zone preference
+        String serviceId = context.getEnvironment().getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        DserviceClientProperties.Backend backend = props.findBackend(serviceId);
+        ServiceInstanceListSupplierBuilder builder = ServiceInstanceListSupplier.builder();
+        if (backend == null || backend.getStaticInstances().isEmpty()) {
+            builder.withDiscoveryClient();
+        } else {
+            builder.withBase(MyLoadBalancerConfig.staticInstances(serviceId, backend.getStaticInstances()));
+        }
+        return builder
+                .with((ctx, delegate) -> new InstanceTimersServiceInstanceListSupplier(delegate, latencyMetrics))
+                .with((ctx, delegate) -> new OutlierEjectingServiceInstanceListSupplier(delegate, outlierDetector))
+                .withZonePreference()
+                .build(context);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactorLoadBalancer<ServiceInstance> backendLoadBalancer(
+            ConfigurableApplicationContext context,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            DserviceClientProperties props
+    ) {
+        String serviceId = context.getEnvironment().getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        DserviceClientProperties.Backend backend = props.findBackend(serviceId);
+        ObjectProvider<ServiceInstanceListSupplier> suppliers = loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        if (backend != null && "random".equalsIgnoreCase(backend.getLoadBalancing())) {
+            return new RandomLoadBalancer(suppliers, serviceId);
+        }
+        return new RoundRobinLoadBalancer(suppliers, serviceId);
+    }
+}
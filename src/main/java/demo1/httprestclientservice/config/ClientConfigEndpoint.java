@@ -0,0 +1,76 @@
+package demo1.httprestclientservice.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET  /actuator/clientconfig  -> the active runtime client settings (see ClientRuntimeSettings)
+ * POST /actuator/clientconfig  -> changes some of them, e.g. {"responseTimeout":"2s","failureRateThreshold":30}
+ *                                 (durations as "500ms" / "2s" / "PT2S"; missing fields keep their value)
+ *
+ * NB! Not exposed over http by default: the POST is unauthenticated and can replace the backend token. Add
+ * "clientconfig" to management.endpoints.web.exposure.include only on an operator-only management port.
+ */
+@Component
+@Endpoint(id = "clientconfig")
+public class ClientConfigEndpoint {
+
+    private final ClientRuntimeSettings settings;
+
+    public ClientConfigEndpoint(ClientRuntimeSettings settings) {
+        this.settings = settings;
+    }
+
+    @ReadOperation
+    public Map<String, Object> clientConfig() {
+        return describe(settings.current());
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Nullable Duration responseTimeout,
+                                      @Nullable Duration readTimeout,
+                                      @Nullable Duration writeTimeout,
+                                      @Nullable String authToken,
+                                      @Nullable Double perCallerPermitsPerSecond,
+                                      @Nullable Integer perCallerBurst,
+                                      @Nullable Float failureRateThreshold,
+                                      @Nullable Float slowCallRateThreshold,
+                                      @Nullable Duration slowCallDuration,
+                                      @Nullable Duration waitDurationInOpenState) {
+        try {
+            return describe(settings.update(new ClientRuntimeSettings.Changes(
+                    responseTimeout, readTimeout, writeTimeout, authToken,
+                    perCallerPermitsPerSecond, perCallerBurst,
+                    failureRateThreshold, slowCallRateThreshold, slowCallDuration, waitDurationInOpenState)));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());   // -> 400
+        }
+    }
+
+    private static Map<String, Object> describe(ClientRuntimeSettings.Settings s) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", s.version());
+        result.put("responseTimeout", s.responseTimeout().toString());
+        result.put("readTimeout", s.readTimeout().toString());
+        result.put("writeTimeout", s.writeTimeout().toString());
+        result.put("authToken", s.authToken() == null ? null : "******");   // never echo the secret
+        result.put("perCallerPermitsPerSecond", s.perCallerPermitsPerSecond());
+        result.put("perCallerBurst", s.perCallerBurst());
+        CircuitBreakerConfig breaker = s.breaker().getCircuitBreakerConfig();
+        result.put("breakerState", s.breaker().getState().name());
+        result.put("failureRateThreshold", breaker.getFailureRateThreshold());
+        result.put("slowCallRateThreshold", breaker.getSlowCallRateThreshold());
+        result.put("slowCallDuration", breaker.getSlowCallDurationThreshold().toString());
+        result.put("waitDurationInOpenState", breaker.getWaitIntervalFunctionInOpenState().apply(1) + "ms");
+        return result;
+    }
+}
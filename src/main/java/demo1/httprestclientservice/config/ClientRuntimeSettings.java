@@ -0,0 +1,152 @@
+package demo1.httprestclientservice.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The client settings that can be changed while the application runs (see ClientConfigEndpoint):
+ * timeouts, auth token, per-caller rate limit and the circuit breaker thresholds.
+ *
+ * All of them live in ONE immutable Settings object behind an AtomicReference, so a change is applied
+ * atomically - a request sees either all old or all new values, never a mix - and reading them on the
+ * hot path is a single volatile read. Nothing is rebuilt: the Netty connection pool, its warm connections
+ * and the RestClient stay as they are, they just read current() on every request:
+ *  - responseTimeout: per request (HttpClientRequest.responseTimeout),
+ *  - readTimeout / writeTimeout: the handlers of a pooled connection are replaced on its next request,
+ *  - authToken: the defaultRequest hook of the backend-service RestClient (see userHttpInterface),
+ *  - rate limit: RateLimitingFilter starts new per-caller buckets when it changes,
+ *  - breaker thresholds: a CircuitBreaker is immutable, so a new one is created with the same name. An open
+ *    breaker stays open.
+ *
+ * NB! The connect timeout and the pool size are not here - they belong to the ConnectionProvider and would
+ *     need a new pool.
+ *
+ * Metric: proxy.client.config.version (1 at startup, +1 per change)
+ */
+@Component
+public class ClientRuntimeSettings {
+
+    public record Settings(long version,
+                           Duration responseTimeout,
+                           Duration readTimeout,
+                           Duration writeTimeout,
+                           String authToken,
+                           double perCallerPermitsPerSecond,
+                           int perCallerBurst,
+                           CircuitBreaker breaker) {
+    }
+
+    /**
+     * One change request; null means "keep the current value".
+     */
+    public record Changes(Duration responseTimeout,
+                          Duration readTimeout,
+                          Duration writeTimeout,
+                          String authToken,
+                          Double perCallerPermitsPerSecond,
+                          Integer perCallerBurst,
+                          Float failureRateThreshold,
+                          Float slowCallRateThreshold,
+                          Duration slowCallDuration,
+                          Duration waitDurationInOpenState) {
+
+        boolean touchesBreaker() {
+            return failureRateThreshold != null || slowCallRateThreshold != null
+                    || slowCallDuration != null || waitDurationInOpenState != null;
+        }
+    }
+
+    private final AtomicReference<Settings> current;
+
+    public ClientRuntimeSettings(DserviceClientProperties props, CircuitBreaker backendServiceCircuitBreaker,
+                                 MeterRegistry registry) {
+        DserviceClientProperties.Timeouts timeouts = props.getTimeouts();
+        DserviceClientProperties.RateLimit.Limit perCaller = props.getRateLimit().getPerCaller();
+        this.current = new AtomicReference<>(new Settings(1,
+                timeouts.getResponse(), timeouts.getRead(), timeouts.getWrite(),
+                props.getAuthToken(),
+                perCaller.getPermitsPerSecond(), perCaller.getBurst(),
+                backendServiceCircuitBreaker));
+
+        Gauge.builder("proxy.client.config.version", current, ref -> ref.get().version())
+                .description("Version of the active runtime client settings")
+                .register(registry);
+    }
+
+    public Settings current() {
+        return current.get();
+    }
+
+    public CircuitBreaker breaker() {
+        return current.get().breaker();
+    }
+
+    /**
+     * Applies the non-null values of the change and returns the new settings.
+     *
+     * @throws IllegalArgumentException when a value is out of range - nothing is changed then
+     */
+    public synchronized Settings update(Changes changes) {
+        Settings old = current.get();
+
+        Duration responseTimeout = positive("responseTimeout", changes.responseTimeout(), old.responseTimeout());
+        Duration readTimeout = positive("readTimeout", changes.readTimeout(), old.readTimeout());
+        Duration writeTimeout = positive("writeTimeout", changes.writeTimeout(), old.writeTimeout());
+        String authToken = changes.authToken() != null ? changes.authToken() : old.authToken();
+        double permitsPerSecond = changes.perCallerPermitsPerSecond() != null
+                ? changes.perCallerPermitsPerSecond() : old.perCallerPermitsPerSecond();
+        int burst = changes.perCallerBurst() != null ? changes.perCallerBurst() : old.perCallerBurst();
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate limit permitsPerSecond must be > 0 and burst >= 1");
+        }
+
+        CircuitBreaker breaker = old.breaker();
+        if (changes.touchesBreaker()) {
+            breaker = reconfigure(old.breaker(), changes);
+        }
+
+        Settings next = new Settings(old.version() + 1, responseTimeout, readTimeout, writeTimeout, authToken,
+                permitsPerSecond, burst, breaker);
+        current.set(next);
+        return next;
+    }
+
+    private static CircuitBreaker reconfigure(CircuitBreaker old, Changes changes) {
+        CircuitBreakerConfig.Builder config = CircuitBreakerConfig.from(old.getCircuitBreakerConfig());
+        // the builder validates the values itself (IllegalArgumentException)
+        if (changes.failureRateThreshold() != null) {
+            config.failureRateThreshold(changes.failureRateThreshold());
+        }
+        if (changes.slowCallRateThreshold() != null) {
+            config.slowCallRateThreshold(changes.slowCallRateThreshold());
+        }
+        if (changes.slowCallDuration() != null) {
+            config.slowCallDurationThreshold(changes.slowCallDuration());
+        }
+        if (changes.waitDurationInOpenState() != null) {
+            config.waitDurationInOpenState(changes.waitDurationInOpenState());
+        }
+        CircuitBreaker next = CircuitBreaker.of(old.getName(), config.build());
+        if (old.getState() == CircuitBreaker.State.OPEN) {
+            // new thresholds must not close a breaker that protects a failing backend right now
+            next.transitionToOpenState();
+        }
+        return next;
+    }
+
+    private static Duration positive(String name, Duration value, Duration fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        if (value.isNegative() || value.isZero()) {
+            throw new IllegalArgumentException(name + " must be > 0");
+        }
+        return value;
+    }
+}
@@ -1,8 +1,16 @@
 package demo1.httprestclientservice.config;
 
+import demo1.httprestclientservice.shedding.Priority;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(prefix = "dservice")
 public class DserviceClientProperties
@@ -18,6 +26,62 @@ public class DserviceClientProperties
 
     private String authToken;   // takes its value from authToken: "superSecretToken" in application.yml
 
+    /**
+     * Fixed "host:port" list for service-id. When it is not empty the load balancer uses exactly these
+     * instances instead of asking Eureka (used e.g. by the load-test harness against the local stub backend).
+     */
+    private List<String> staticInstances = new ArrayList<>();
+
+    private RateLimit rateLimit = new RateLimit();   // takes its values from rate-limit: in application.yml
+
+    private CreateBatching createBatching = new CreateBatching();   // takes its values from create-batching:
+
+    private Idempotency idempotency = new Idempotency();            // takes its values from idempotency:
+
+    private UserCache userCache = new UserCache();                  // takes its values from user-cache:
+
+    /**
+     * Check the Jakarta constraints of create-new-user bodies locally (UserDbDTOFastValidator) and answer 400
+     * without calling the backend when they are violated.
+     */
+    private boolean validateBeforeForwarding = true;
+
+    private JsonInterning jsonInterning = new JsonInterning();      // takes its values from json-interning:
+
+    /**
+     * Whether the backend understands GET /user-with-data/{id}?fields=... itself. If not, the proxy applies
+     * the projection to the full response (see FieldProjection).
+     */
+    private boolean backendSupportsFields = false;
+
+    private OutlierDetection outlierDetection = new OutlierDetection();   // takes its values from outlier-detection:
+
+    private LoadBalancing loadBalancing = new LoadBalancing();      // takes its values from load-balancing:
+
+    private Deadline deadline = new Deadline();     // takes its values from deadline:
+
+    private Timeouts timeouts = new Timeouts();     // takes its values from timeouts: (startup values, see ClientRuntimeSettings)
+
+    /**
+     * Further downstream services, by name. Each one gets its own connection pool, event loop, breaker, bulkhead
+     * and load balancer (see BackendClientRegistry). service-id above stays the primary backend.
+     */
+    private Map<String, Backend> backends = new LinkedHashMap<>();
+
+    private ProbeCache probeCache = new ProbeCache();    // takes its values from probe-cache:
+
+    private AccessLog accessLog = new AccessLog();       // takes its values from access-log:
+
+    /**
+     * How HttpClientInterface reaches service-id: "http" (JSON over the load-balanced RestClient) or "grpc"
+     * (protobuf over HTTP/2, see GrpcHttpClientInterface and the grpc: block).
+     */
+    private String transport = "http";
+
+    private Grpc grpc = new Grpc();     // takes its values from grpc: (only used with transport: grpc)
+
+    private LoadShedding loadShedding = new LoadShedding();     // takes its values from load-shedding:
+
     // (Optional) If you later want more settings, you can add them here:
     // private int timeoutMs;
     // private String apiKey;
@@ -53,4 +117,1011 @@ public class DserviceClientProperties
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
     }
+
+    public List<String> getStaticInstances() {
+        return staticInstances;
+    }
+
+    public void setStaticInstances(List<String> staticInstances) {
+        this.staticInstances = staticInstances;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public CreateBatching getCreateBatching() {
+        return createBatching;
+    }
+
+    public void setCreateBatching(CreateBatching createBatching) {
+        this.createBatching = createBatching;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public void setIdempotency(Idempotency idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    public boolean isValidateBeforeForwarding() {
+        return validateBeforeForwarding;
+    }
+
+    public void setValidateBeforeForwarding(boolean validateBeforeForwarding) {
+        this.validateBeforeForwarding = validateBeforeForwarding;
+    }
+
+    public boolean isBackendSupportsFields() {
+        return backendSupportsFields;
+    }
+
+    public void setBackendSupportsFields(boolean backendSupportsFields) {
+        this.backendSupportsFields = backendSupportsFields;
+    }
+
+    public LoadBalancing getLoadBalancing() {
+        return loadBalancing;
+    }
+
+    public void setLoadBalancing(LoadBalancing loadBalancing) {
+        this.loadBalancing = loadBalancing;
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Timeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public Map<String, Backend> getBackends() {
+        return backends;
+    }
+
+    public void setBackends(Map<String, Backend> backends) {
+        this.backends = backends;
+    }
+
+    public ProbeCache getProbeCache() {
+        return probeCache;
+    }
+
+    public void setProbeCache(ProbeCache probeCache) {
+        this.probeCache = probeCache;
+    }
+
+    public AccessLog getAccessLog() {
+        return accessLog;
+    }
+
+    public void setAccessLog(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public Grpc getGrpc() {
+        return grpc;
+    }
+
+    public void setGrpc(Grpc grpc) {
+        this.grpc = grpc;
+    }
+
+    public LoadShedding getLoadShedding() {
+        return loadShedding;
+    }
+
+    public void setLoadShedding(LoadShedding loadShedding) {
+        this.loadShedding = loadShedding;
+    }
+
+    /**
+     * @return the entry of backends: with this service-id, or null
+     */
+    public Backend findBackend(String serviceId) {
+        for (Backend backend : backends.values()) {
+            if (backend.getServiceId() != null && backend.getServiceId().equals(serviceId)) {
+                return backend;
+            }
+        }
+        return null;
+    }
+
+    public OutlierDetection getOutlierDetection() {
+        return outlierDetection;
+    }
+
+    public void setOutlierDetection(OutlierDetection outlierDetection) {
+        this.outlierDetection = outlierDetection;
+    }
+
+    public JsonInterning getJsonInterning() {
+        return jsonInterning;
+    }
+
+    public void setJsonInterning(JsonInterning jsonInterning) {
+        this.jsonInterning = jsonInterning;
+    }
+
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    public void setUserCache(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
+
+    /**
+     * Inbound rate limiting of /proxy/** (see RateLimitingFilter).
+     */
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        private String apiKeyHeader = "X-API-Key";   // callers without it are limited by their remote address
+
+        private int maxTrackedCallers = 100_000;     // for API keys and for addresses each; CLOCK-evicted above that
+
+        private Limit perCaller = new Limit(50, 100);
+
+        private Map<String, Limit> routes = new LinkedHashMap<>();   // key = first path segment after /proxy/
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getApiKeyHeader() {
+            return apiKeyHeader;
+        }
+
+        public void setApiKeyHeader(String apiKeyHeader) {
+            this.apiKeyHeader = apiKeyHeader;
+        }
+
+        public int getMaxTrackedCallers() {
+            return maxTrackedCallers;
+        }
+
+        public void setMaxTrackedCallers(int maxTrackedCallers) {
+            this.maxTrackedCallers = maxTrackedCallers;
+        }
+
+        public Limit getPerCaller() {
+            return perCaller;
+        }
+
+        public void setPerCaller(Limit perCaller) {
+            this.perCaller = perCaller;
+        }
+
+        public Map<String, Limit> getRoutes() {
+            return routes;
+        }
+
+        public void setRoutes(Map<String, Limit> routes) {
+            this.routes = routes;
+        }
+
+        public static class Limit {
+
+            private double permitsPerSecond;   // sustained rate
+
+            private int burst;                 // how many requests may arrive at once
+
+            public Limit() {
+            }
+
+            public Limit(double permitsPerSecond, int burst) {
+                this.permitsPerSecond = permitsPerSecond;
+                this.burst = burst;
+            }
+
+            public double getPermitsPerSecond() {
+                return permitsPerSecond;
+            }
+
+            public void setPermitsPerSecond(double permitsPerSecond) {
+                this.permitsPerSecond = permitsPerSecond;
+            }
+
+            public int getBurst() {
+                return burst;
+            }
+
+            public void setBurst(int burst) {
+                this.burst = burst;
+            }
+        }
+    }
+
+
+    /**
+     * Micro-batching of create-new-user into /create-new-users (see CreateUserBatcher).
+     */
+    public static class CreateBatching {
+
+        private boolean enabled = false;
+
+        private int maxBatchSize = 50;                       // flush as soon as this many creates are waiting
+
+        private Duration maxDelay = Duration.ofMillis(5);    // ...or when the oldest one waited this long
+
+        private int maxPending = 10_000;                     // queue bound, above it creates go out one by one
+
+        private int maxConcurrentBatches = 4;                // bulk calls in flight at the same time
+
+        private Duration maxWait = Duration.ofSeconds(10);   // a caller waits at most this long for its batch
+                                                             // (or less, when its own deadline ends earlier)
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+
+        public int getMaxConcurrentBatches() {
+            return maxConcurrentBatches;
+        }
+
+        public void setMaxConcurrentBatches(int maxConcurrentBatches) {
+            this.maxConcurrentBatches = maxConcurrentBatches;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+
+    /**
+     * Idempotency-Key deduplication of create-new-user (see IdempotencyStore).
+     */
+    public static class Idempotency {
+
+        private boolean enabled = true;
+
+        private int maxEntries = 100_000;              // bounded: the oldest completed keys are evicted first
+
+        private Duration ttl = Duration.ofHours(24);   // how long a key is remembered
+
+        private Duration maxWait = Duration.ofSeconds(10);   // a duplicate waits this long for the first request at most
+
+        private String persistenceFile;                // optional JSON-lines journal, survives restarts
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public String getPersistenceFile() {
+            return persistenceFile;
+        }
+
+        public void setPersistenceFile(String persistenceFile) {
+            this.persistenceFile = persistenceFile;
+        }
+    }
+
+
+    /**
+     * Off-heap snapshot cache of GET /user-with-data/{id} (see UserSnapshotCache).
+     */
+    public static class UserCache {
+
+        private boolean enabled = false;
+
+        private int maxEntries = 16_384;              // number of slots, each one user
+
+        private int slotSize = 2048;                  // bytes per slot (multiple of 8), bigger records are not cached
+
+        private Duration ttl = Duration.ofSeconds(30); // a snapshot older than this is a miss
+
+        private String file;                          // optional memory-mapped file, survives restarts
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getSlotSize() {
+            return slotSize;
+        }
+
+        public void setSlotSize(int slotSize) {
+            this.slotSize = slotSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+    }
+
+
+    /**
+     * Canonical Strings / constant-time enums when the client mapper reads profiles (see ProfileAttributesModule).
+     */
+    public static class JsonInterning {
+
+        private boolean enabled = true;
+
+        private int tableSize = 1024;     // slots per profile attribute (country, city, ...), the table never grows
+
+        private int maxLength = 64;       // longer values are not canonicalized
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTableSize() {
+            return tableSize;
+        }
+
+        public void setTableSize(int tableSize) {
+            this.tableSize = tableSize;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+        }
+    }
+
+
+    /**
+     * How backend-service instances are picked (see MyLoadBalancerConfig).
+     */
+    public static class LoadBalancing {
+
+        /**
+         * round-robin      Spring Cloud's RoundRobinLoadBalancer
+         * consistent-hash  same user id -> same instance, with bounded-load spillover (UserAffinityLoadBalancer)
+         */
+        private String policy = "round-robin";
+
+        private double loadFactor = 1.25;   // consistent-hash: max in-flight per instance = loadFactor x average
+
+        public String getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(String policy) {
+            this.policy = policy;
+        }
+
+        public double getLoadFactor() {
+            return loadFactor;
+        }
+
+        public void setLoadFactor(double loadFactor) {
+            this.loadFactor = loadFactor;
+        }
+    }
+
+
+    /**
+     * Passive outlier detection: instances that keep failing or are much slower than the others are taken
+     * out of the load balancer for a while (see OutlierDetector).
+     */
+    public static class OutlierDetection {
+
+        private boolean enabled = true;
+
+        private int consecutiveErrors = 5;                        // 5xx / timeouts / connect errors in a row
+
+        private double latencyFactor = 3.0;                       // average latency above factor x median of the others...
+
+        private Duration minOutlierLatency = Duration.ofMillis(500);   // ...and above this absolute floor
+
+        private int minRequests = 20;                             // before an instance's latency is judged
+
+        private Duration baseEjectionTime = Duration.ofSeconds(30);   // doubled on every repeated ejection
+
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+        private int maxEjectionPercent = 50;                      // never eject more than this share of instances
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConsecutiveErrors() {
+            return consecutiveErrors;
+        }
+
+        public void setConsecutiveErrors(int consecutiveErrors) {
+            this.consecutiveErrors = consecutiveErrors;
+        }
+
+        public double getLatencyFactor() {
+            return latencyFactor;
+        }
+
+        public void setLatencyFactor(double latencyFactor) {
+            this.latencyFactor = latencyFactor;
+        }
+
+        public Duration getMinOutlierLatency() {
+            return minOutlierLatency;
+        }
+
+        public void setMinOutlierLatency(Duration minOutlierLatency) {
+            this.minOutlierLatency = minOutlierLatency;
+        }
+
+        public int getMinRequests() {
+            return minRequests;
+        }
+
+        public void setMinRequests(int minRequests) {
+            this.minRequests = minRequests;
+        }
+
+        public Duration getBaseEjectionTime() {
+            return baseEjectionTime;
+        }
+
+        public void setBaseEjectionTime(Duration baseEjectionTime) {
+            this.baseEjectionTime = baseEjectionTime;
+        }
+
+        public Duration getMaxEjectionTime() {
+            return maxEjectionTime;
+        }
+
+        public void setMaxEjectionTime(Duration maxEjectionTime) {
+            this.maxEjectionTime = maxEjectionTime;
+        }
+
+        public int getMaxEjectionPercent() {
+            return maxEjectionPercent;
+        }
+
+        public void setMaxEjectionPercent(int maxEjectionPercent) {
+            this.maxEjectionPercent = maxEjectionPercent;
+        }
+    }
+
+    /**
+     * Deadline propagation: the caller's X-Request-Timeout-Ms / X-Request-Deadline bounds every backend call
+     * made for it (see DeadlineFilter, DeadlinePropagationInterceptor).
+     */
+    public static class Deadline {
+        private boolean enabled = false;
+        private Duration maxBudget = Duration.ofSeconds(30);    // a caller cannot ask for more than this
+        private Duration minBudget = Duration.ofMillis(10);     // less left than this -> 504 without calling the backend
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getMaxBudget() {
+            return maxBudget;
+        }
+
+        public void setMaxBudget(Duration maxBudget) {
+            this.maxBudget = maxBudget;
+        }
+
+        public Duration getMinBudget() {
+            return minBudget;
+        }
+
+        public void setMinBudget(Duration minBudget) {
+            this.minBudget = minBudget;
+        }
+    }
+
+    /**
+     * Timeouts of the backend calls at startup; they can be changed at runtime via /actuator/clientconfig.
+     */
+    public static class Timeouts {
+        private Duration response = Duration.ofSeconds(5);  // max time for the full HTTP response
+        private Duration read = Duration.ofSeconds(5);      // max read inactivity on the connection
+        private Duration write = Duration.ofSeconds(5);     // max write inactivity on the connection
+
+        public Duration getResponse() {
+            return response;
+        }
+
+        public void setResponse(Duration response) {
+            this.response = response;
+        }
+
+        public Duration getRead() {
+            return read;
+        }
+
+        public void setRead(Duration read) {
+            this.read = read;
+        }
+
+        public Duration getWrite() {
+            return write;
+        }
+
+        public void setWrite(Duration write) {
+            this.write = write;
+        }
+    }
+
+    /**
+     * One downstream service of the backends: map.
+     */
+    public static class Backend {
+        private String serviceId;                                    // name in Eureka (or of the static-instances below)
+        private String clientInterface;                              // fully qualified name of its @HttpExchange interface
+        private String authToken;                                    // "Authorization: Bearer <token>", none when unset
+        private List<String> staticInstances = new ArrayList<>();    // host:port list instead of Eureka, like dservice.static-instances
+        private String loadBalancing = "round-robin";                // round-robin | random
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 100;                    // callers waiting for a connection, more are rejected
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        private int ioThreads = 2;                                   // event loop threads of its own
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private int maxConcurrentCalls = 50;                         // bulkhead: request threads inside this backend at the same time
+        private float failureRateThreshold = 50;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        public void setServiceId(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        public String getClientInterface() {
+            return clientInterface;
+        }
+
+        public void setClientInterface(String clientInterface) {
+            this.clientInterface = clientInterface;
+        }
+
+        public String getAuthToken() {
+            return authToken;
+        }
+
+        public void setAuthToken(String authToken) {
+            this.authToken = authToken;
+        }
+
+        public List<String> getStaticInstances() {
+            return staticInstances;
+        }
+
+        public void setStaticInstances(List<String> staticInstances) {
+            this.staticInstances = staticInstances;
+        }
+
+        public String getLoadBalancing() {
+            return loadBalancing;
+        }
+
+        public void setLoadBalancing(String loadBalancing) {
+            this.loadBalancing = loadBalancing;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+    }
+
+    /**
+     * Stale-while-revalidate caching of /proxy/ping and /proxy/proxy-http-status/{code} (see ProbeResponseCache).
+     */
+    public static class ProbeCache {
+        private boolean enabled = false;
+        private Duration freshFor = Duration.ofSeconds(1);      // answered from the cache, no backend call
+        private Duration staleFor = Duration.ofSeconds(10);     // answered from the cache + one background refresh
+        private int maxEntries = 64;                            // distinct status codes kept
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getFreshFor() {
+            return freshFor;
+        }
+
+        public void setFreshFor(Duration freshFor) {
+            this.freshFor = freshFor;
+        }
+
+        public Duration getStaleFor() {
+            return staleFor;
+        }
+
+        public void setStaleFor(Duration staleFor) {
+            this.staleFor = staleFor;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Sampled JSON access log of /proxy/** (see demo1.httprestclientservice.accesslog.AccessLog).
+     */
+    public static class AccessLog {
+        private boolean enabled = false;
+        private double sampleRate = 0.01;                       // share of the normal requests that is logged
+        private Duration slowThreshold = Duration.ofMillis(500); // slower requests (and every 5xx) are always logged
+        private int bufferSize = 8192;                          // ring slots (power of two), full ring -> dropped
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+
+    /**
+     * The gRPC channel of transport: grpc.
+     *
+     * target is a gRPC target string: "dns:///backend-service:9090" resolves all A records and spreads the calls
+     * over them with load-balancing-policy (a headless Kubernetes service works that way); "localhost:9090" is a
+     * single address. NB! The Spring Cloud load balancer (Eureka, outlier detection) is NOT involved on this
+     * transport - gRPC does its own name resolution and balancing per channel.
+     */
+    public static class Grpc {
+        private String target = "dns:///localhost:9090";
+        private boolean plaintext = true;                       // false -> TLS with the JVM trust store
+        private Duration deadline = Duration.ofSeconds(5);      // per call, shortened by the caller's deadline (see RequestDeadline)
+        private int maxInboundMessageSize = 4 * 1024 * 1024;    // large createBatch responses
+        private String loadBalancingPolicy = "round_robin";     // or "pick_first"
+
+        public String getTarget() {
+            return target;
+        }
+
+        public void setTarget(String target) {
+            this.target = target;
+        }
+
+        public boolean isPlaintext() {
+            return plaintext;
+        }
+
+        public void setPlaintext(boolean plaintext) {
+            this.plaintext = plaintext;
+        }
+
+        public Duration getDeadline() {
+            return deadline;
+        }
+
+        public void setDeadline(Duration deadline) {
+            this.deadline = deadline;
+        }
+
+        public int getMaxInboundMessageSize() {
+            return maxInboundMessageSize;
+        }
+
+        public void setMaxInboundMessageSize(int maxInboundMessageSize) {
+            this.maxInboundMessageSize = maxInboundMessageSize;
+        }
+
+        public String getLoadBalancingPolicy() {
+            return loadBalancingPolicy;
+        }
+
+        public void setLoadBalancingPolicy(String loadBalancingPolicy) {
+            this.loadBalancingPolicy = loadBalancingPolicy;
+        }
+    }
+
+    /**
+     * Admission control of /proxy/** under overload (see LoadSheddingFilter / LoadShedder).
+     *
+     * routes maps the first path segment after /proxy/ to a priority (critical, normal, sheddable), all other
+     * routes get default-priority. max-queue-age is how long a request of that priority may wait for a slot
+     * before it is answered with 503.
+     */
+    public static class LoadShedding {
+        private boolean enabled = false;
+        private int maxInFlight = 150;              // requests running at once
+        private int reservedForCritical = 15;       // ...of which only critical requests may use the last ones
+        private int maxQueued = 30;                 // waiting requests, all priorities together - they wait on a
+                                                    // Tomcat thread too: in-flight + queued < server.tomcat.threads.max
+        private Priority defaultPriority = Priority.NORMAL;
+        private Map<String, Priority> routes = new LinkedHashMap<>();
+        private Map<Priority, Duration> maxQueueAge = new EnumMap<>(Map.of(
+                Priority.CRITICAL, Duration.ofMillis(500),
+                Priority.NORMAL, Duration.ofMillis(200),
+                Priority.SHEDDABLE, Duration.ofMillis(50)));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public int getReservedForCritical() {
+            return reservedForCritical;
+        }
+
+        public void setReservedForCritical(int reservedForCritical) {
+            this.reservedForCritical = reservedForCritical;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public Priority getDefaultPriority() {
+            return defaultPriority;
+        }
+
+        public void setDefaultPriority(Priority defaultPriority) {
+            this.defaultPriority = defaultPriority;
+        }
+
+        public Map<String, Priority> getRoutes() {
+            return routes;
+        }
+
+        public void setRoutes(Map<String, Priority> routes) {
+            this.routes = routes;
+        }
+
+        public Map<Priority, Duration> getMaxQueueAge() {
+            return maxQueueAge;
+        }
+
+        public void setMaxQueueAge(Map<Priority, Duration> maxQueueAge) {
+            this.maxQueueAge = maxQueueAge;
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package demo1.httprestclientservice.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tells Spring Cloud which load balancer configuration each service name gets. Spring Cloud creates one child
+ * context per service name and registers the classes below in it:
+ *  - backend-service              -> MyLoadBalancerConfig
+ *  - every other service (dservice.backends) -> BackendLoadBalancerConfiguration
+ *
+ * NB! Only this class is component-scanned. The two configurations themselves are NOT @Configuration classes,
+ *     otherwise their beans would also be created in the application context (with no service name).
+ */
+@Configuration
+@LoadBalancerClient(name = "backend-service", configuration = MyLoadBalancerConfig.class)
+@LoadBalancerClients(defaultConfiguration = BackendLoadBalancerConfiguration.class)
+public class LoadBalancerClientsConfiguration {
+}
@@ -1,29 +1,97 @@
 package demo1.httprestclientservice.config;
 
-import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import demo1.httprestclientservice.loadbalancer.InFlightRequests;
+import demo1.httprestclientservice.loadbalancer.OutlierDetector;
+import demo1.httprestclientservice.loadbalancer.OutlierEjectingServiceInstanceListSupplier;
+import demo1.httprestclientservice.metrics.ClientLatencyMetrics;
+import demo1.httprestclientservice.metrics.InstanceTimersServiceInstanceListSupplier;
+import demo1.httprestclientservice.loadbalancer.UserAffinityLoadBalancer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
 import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
-@Configuration
-@LoadBalancerClient(name = "backend-service", configuration = MyLoadBalancerConfig.class)
+import java.util.List;
+
+/**
+ * Load balancer of backend-service (registered by LoadBalancerClientsConfiguration).
+ *
+ * NB! Deliberately NOT a @Configuration: it must only exist in backend-service's child context. If it were
+ *     component-scanned, backendServiceLoadBalancer would also be built in the application context - with no
+ *     service name and a second set of counters.
+ */
 public class MyLoadBalancerConfig
 {
     // the bean above goes here
 
     @Bean
     public ServiceInstanceListSupplier zonePreferenceServiceInstanceListSupplier(
-            ConfigurableApplicationContext context
+            ConfigurableApplicationContext context,
+            DserviceClientProperties props,
+            OutlierDetector outlierDetector,
+            ClientLatencyMetrics latencyMetrics
     ) {
         // this builder will:
         //  1. ask your DiscoveryClient for instances,
-        //  2. extract the "zone" (from eureka.instance.metadata-map.zone or spring.cloud.loadbalancer.zone),
-        //  3. filter to only same-zone instances (falling back to all if none match)
-        return ServiceInstanceListSupplier.builder()
-                .withDiscoveryClient()
+        //     (or, when dservice.static-instances is set, use exactly that fixed list - no Eureka involved)
+        //  2. drop the latency timers of the instances that are gone (see ClientLatencyMetrics),
+        //  3. drop the instances the OutlierDetector has ejected (5xx/timeouts in a row, latency outliers),
+        //  4. extract the "zone" (from eureka.instance.metadata-map.zone or spring.cloud.loadbalancer.zone),
+        //  5. filter to only same-zone instances (falling back to all if none match)
+        ServiceInstanceListSupplierBuilder builder = ServiceInstanceListSupplier.builder();
+        if (props.getStaticInstances().isEmpty()) {
+            builder.withDiscoveryClient();
+        } else {
+            builder.withBase(staticInstances(props.getServiceId(), props.getStaticInstances()));
+        }
+        return builder
+                .with((ctx, delegate) -> new InstanceTimersServiceInstanceListSupplier(delegate, latencyMetrics))
+                .with((ctx, delegate) -> new OutlierEjectingServiceInstanceListSupplier(delegate, outlierDetector))
                 .withZonePreference()
                 .build(context);
     }
-}
 
+    /**
+     * Which instance of the list above gets the call: round-robin (Spring Cloud's default), or consistent-hash
+     * on the user id so repeated reads of a user hit the instance that already has it cached.
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> backendServiceLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            DserviceClientProperties props,
+            InFlightRequests inFlightRequests,
+            MeterRegistry meterRegistry
+    ) {
+        String name = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        ObjectProvider<ServiceInstanceListSupplier> suppliers = loadBalancerClientFactory.getLazyProvider(name, ServiceInstanceListSupplier.class);
+        if ("consistent-hash".equalsIgnoreCase(props.getLoadBalancing().getPolicy())) {
+            return new UserAffinityLoadBalancer(suppliers, inFlightRequests,
+                    props.getLoadBalancing().getLoadFactor(), meterRegistry);
+        }
+        return new RoundRobinLoadBalancer(suppliers, name);
+    }
+
+    static ServiceInstanceListSupplier staticInstances(String serviceId, List<String> hostPorts) {
+        ServiceInstance[] instances = new ServiceInstance[hostPorts.size()];
+        for (int i = 0; i < instances.length; i++) {
+            String hostPort = hostPorts.get(i).trim();
+            int colon = hostPort.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("dservice.static-instances must be host:port, got: " + hostPort);
+            }
+            instances[i] = new DefaultServiceInstance(serviceId + "-" + hostPort, serviceId,
+                    hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1)), false);
+        }
+        return ServiceInstanceListSuppliers.from(serviceId, instances);
+    }
+}
@@ -2,17 +2,34 @@ package demo1.httprestclientservice.controllers;
 
 import demo1.httprestclientservice.DTOs.db.UserDTO;
 import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTOFastValidator;
 import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.batching.CreateUserBatcher;
+import demo1.httprestclientservice.cache.ProbeResponseCache;
+import demo1.httprestclientservice.cache.UserSnapshotCache;
+import demo1.httprestclientservice.config.ClientRuntimeSettings;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.exceptions.InvalidFieldsParameterException;
+import demo1.httprestclientservice.exceptions.InvalidUserPayloadException;
+import demo1.httprestclientservice.idempotency.IdempotencyStore;
+import demo1.httprestclientservice.json.FieldProjection;
+import demo1.httprestclientservice.validation.FieldViolation;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -20,19 +37,63 @@ import java.util.function.Supplier;
 @RequestMapping("/proxy")       // <— choose any prefix you like
 public class UserProxyController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserProxyController.class);
+
+    // headers that may change the backend's answer per caller: such requests bypass the user snapshot cache
+    private static final String[] PER_CALLER_HEADERS = {HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE, "X-API-Version"};
+
     private final HttpClientInterface users;
-    private io.github.resilience4j.circuitbreaker.CircuitBreaker breaker;
+    private final ClientRuntimeSettings runtime;     // holds the current circuit breaker
+    private final CreateUserBatcher createBatcher;
+    private final IdempotencyStore idempotencyStore;
+    private final UserSnapshotCache userCache;
+    private final ProbeResponseCache probeCache;
+    private final boolean validateBeforeForwarding;
+    private final boolean backendSupportsFields;
 
 
 
     public UserProxyController(HttpClientInterface users,
-                               io.github.resilience4j.circuitbreaker.CircuitBreaker breaker) {
+                               ClientRuntimeSettings runtime,
+                               CreateUserBatcher createBatcher,
+                               IdempotencyStore idempotencyStore,
+                               UserSnapshotCache userCache,
+                               ProbeResponseCache probeCache,
+                               DserviceClientProperties props) {
         this.users = users;
-        this.breaker = breaker;
+        this.runtime = runtime;
+        this.createBatcher = createBatcher;
+        this.idempotencyStore = idempotencyStore;
+        this.userCache = userCache;
+        this.probeCache = probeCache;
+        this.validateBeforeForwarding = props.isValidateBeforeForwarding();
+        this.backendSupportsFields = props.isBackendSupportsFields();
     }
 
     @PostMapping("/create-new-user")
-    public ResponseEntity<UserDbDTO> create(@RequestBody UserDbDTO body) {
+    public ResponseEntity<UserDbDTO> create(
+            @RequestBody UserDbDTO body,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
+        if (validateBeforeForwarding) {
+            // generated at compile time from the Jakarta constraints: no reflection, no backend round trip
+            List<FieldViolation> violations = UserDbDTOFastValidator.validate(body);
+            if (!violations.isEmpty()) {
+                throw new InvalidUserPayloadException(violations);
+            }
+        }
+        if (idempotencyKey != null && idempotencyStore.isEnabled()) {
+            // a retry with the same key gets the stored response, the backend is called only once
+            return idempotencyStore.execute(idempotencyStore.callerOf(request), idempotencyKey, body,
+                    () -> forwardCreate(body));
+        }
+        return forwardCreate(body);
+    }
+
+    private ResponseEntity<UserDbDTO> forwardCreate(UserDbDTO body) {
+        if (createBatcher.isEnabled()) {
+            return createBatcher.create(body);   // joins the next /create-new-users bulk call
+        }
         return users.create(body);   // simply forward
     }
 
@@ -49,11 +110,11 @@ public class UserProxyController {
             @PathVariable Long id,
             @RequestHeader(value = "X-API-Version", required = false) String ver) {
 
-        System.out.println("printing getById, id=" + id + ", apiVersion=" + ver);
+        log.debug("getById id={} apiVersion={}", id, ver);     // the access log has the request itself
 
         // Decorate the supplier with the circuit breaker
         Supplier<ResponseEntity<UserDTO>> decorated =
-                CircuitBreaker.decorateSupplier(breaker, () -> users.getById(id, ver));
+                CircuitBreaker.decorateSupplier(runtime.breaker(), () -> users.getById(id, ver));
 
         try {
             // Execute the call (or immediately throw CallNotPermittedException if open)
@@ -70,23 +131,84 @@ public class UserProxyController {
 
     @GetMapping("/user-with-data/{id}")
     public ResponseEntity<UserDbDTO> getWithData(@PathVariable Long id,
-                                                 @RequestHeader Map<String,String> headers) {
-        System.out.println("printing getWithData");
+                                                 @RequestHeader Map<String,String> headers,
+                                                 @RequestHeader(value = "Cache-Control", required = false) String cacheControl) {
+        log.debug("getWithData id={}", id);
+        // NB! The snapshot is keyed by the id only, so it may only hold what every caller gets for that id.
+        // A request with credentials or a pinned API version can get a different answer from the backend -
+        // it neither reads nor fills the snapshot.
+        boolean cacheable = userCache.isEnabled() && isSharedView(headers);
+        if (cacheable) {
+            // "Cache-Control: no-cache" skips the snapshot but still refreshes it
+            boolean noCache = "no-cache".equalsIgnoreCase(cacheControl);
+            UserDbDTO cached = noCache ? null : userCache.get(id);
+            if (cached != null) {
+                return ResponseEntity.ok(cached);
+            }
+        }
         ResponseEntity<UserDbDTO> userWithData = users.getWithData(id, headers);
+        if (cacheable && userWithData.getStatusCode().is2xxSuccessful()) {
+            // a hit has no password (see UserRecordCodec) - the miss must answer the same
+            withoutPassword(userWithData.getBody());
+            userCache.put(id, userWithData.getBody());
+        }
         return userWithData;
     }
 
+    private static void withoutPassword(UserDbDTO user) {
+        if (user != null && user.getRegistrationDataDbDTO() != null) {
+            user.getRegistrationDataDbDTO().setPassword(null);
+        }
+    }
+
+    private static boolean isSharedView(Map<String, String> headers) {
+        for (String name : headers.keySet()) {
+            for (String perCaller : PER_CALLER_HEADERS) {
+                if (perCaller.equalsIgnoreCase(name)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Partial response: GET /proxy/user-with-data/7?fields=id,registrationDataDbDTO.username,profileDataDbDTO.city
+     * The backend's JSON is never bound to UserDbDTO - either the backend projects it itself, or it is
+     * streamed through FieldProjection and only the requested subtrees are emitted.
+     */
+    @GetMapping(value = "/user-with-data/{id}", params = "fields")
+    public ResponseEntity<byte[]> getWithDataFields(@PathVariable Long id,
+                                                    @RequestParam String fields,
+                                                    @RequestHeader Map<String,String> headers) throws IOException {
+        FieldProjection projection;
+        try {
+            projection = FieldProjection.parse(fields);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidFieldsParameterException(ex.getMessage(), ex);
+        }
+        ResponseEntity<byte[]> raw = users.getWithDataRaw(id,
+                backendSupportsFields ? projection.toQueryValue() : null, headers);
+        byte[] body = raw.getBody();
+        if (!backendSupportsFields && body != null && raw.getStatusCode().is2xxSuccessful()) {
+            body = projection.apply(body);
+        }
+        return ResponseEntity.status(raw.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/proxy-http-status/{code}")
     public ResponseEntity<String> getCustomErrorResponse(@PathVariable int code) {
-        System.out.println("getting getCustomErrorResponse");
-        ResponseEntity<String> responseEntity = users.proxyGetCustomErrorResponse(code);
+        log.debug("getCustomErrorResponse code={}", code);
+        ResponseEntity<String> responseEntity =
+                probeCache.status(code, () -> users.proxyGetCustomErrorResponse(code));
         return responseEntity;
     }
 
     @GetMapping("/ping")
     public Map<String, String> getPing() {
-        System.out.println("pinging");
-        Map<String, String> ping = users.ping();
+        Map<String, String> ping = probeCache.ping(users::ping);   // probes share one backend call (see ProbeResponseCache)
         return ping;
     }
 
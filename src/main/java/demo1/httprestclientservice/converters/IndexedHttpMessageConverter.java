@@ -0,0 +1,270 @@
+package demo1.httprestclientservice.converters;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The client's converter list behind ONE converter that remembers which delegate handles which
+ * (body type, media type) pair.
+ *
+ * RestClient asks its converters one after the other - canRead/canWrite of each until one says yes - on every
+ * call, and Jackson's canRead/canWrite are not free (type construction, canSerialize/canDeserialize lookups,
+ * media type comparisons). Here the list is scanned once per pair, in the same order and with the same
+ * questions RestClient would ask, and the answer is kept:
+ *
+ *   Type -> [(media type, delegate), ...]     (a handful of media types per type, compared by type/subtype)
+ *
+ * The pairs of the given HTTP interfaces (their return and @RequestBody types with application/json) are
+ * resolved at startup, so the first calls do not pay either.
+ *
+ * NB! The answer is cached per type and media type only (not per context class and not per media type
+ *     parameter): our bodies are concrete types and none of the delegates looks at the charset to decide.
+ * NB! At most MAX_TYPES types are cached, further ones are resolved by the linear scan every time.
+ */
+public class IndexedHttpMessageConverter implements GenericHttpMessageConverter<Object> {
+
+    static final int MAX_TYPES = 256;
+
+    private static final HttpMessageConverter<?> NONE = new NoConverter();
+
+    private record Choice(@Nullable MediaType mediaType, HttpMessageConverter<?> converter) {
+    }
+
+    private final HttpMessageConverter<?>[] delegates;
+    private final List<MediaType> supportedMediaTypes;
+    private final ConcurrentMap<Type, Choice[]> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Type, Choice[]> writers = new ConcurrentHashMap<>();
+
+    public IndexedHttpMessageConverter(List<HttpMessageConverter<?>> delegates, Class<?>... clientInterfaces) {
+        this.delegates = delegates.toArray(new HttpMessageConverter<?>[0]);
+        Set<MediaType> mediaTypes = new LinkedHashSet<>();
+        for (HttpMessageConverter<?> delegate : delegates) {
+            mediaTypes.addAll(delegate.getSupportedMediaTypes());
+        }
+        this.supportedMediaTypes = List.copyOf(mediaTypes);
+        for (Class<?> clientInterface : clientInterfaces) {
+            prepare(clientInterface);
+        }
+    }
+
+    /**
+     * Resolves the JSON pairs of every method of an @HttpExchange interface up front.
+     */
+    private void prepare(Class<?> clientInterface) {
+        for (Method method : clientInterface.getMethods()) {
+            Type returned = bodyType(method.getGenericReturnType());
+            if (returned != void.class && returned != Void.class) {
+                reader(returned, MediaType.APPLICATION_JSON);
+            }
+            for (Parameter parameter : method.getParameters()) {
+                if (parameter.isAnnotationPresent(RequestBody.class)) {
+                    writer(parameter.getParameterizedType(), MediaType.APPLICATION_JSON);
+                    writer(parameter.getParameterizedType(), null);
+                }
+            }
+        }
+    }
+
+    /** ResponseEntity<T> / HttpEntity<T> -> T */
+    private static Type bodyType(Type type) {
+        ResolvableType resolvable = ResolvableType.forType(type);
+        Class<?> raw = resolvable.resolve();
+        if (raw != null && (raw == ResponseEntity.class || raw == HttpEntity.class)) {
+            return resolvable.getGeneric(0).getType();
+        }
+        return type;
+    }
+
+    // ---- lookup ---------------------------------------------------------------------------------------------
+
+    private HttpMessageConverter<?> reader(Type type, @Nullable MediaType mediaType) {
+        return lookup(readers, type, mediaType, true);
+    }
+
+    private HttpMessageConverter<?> writer(Type type, @Nullable MediaType mediaType) {
+        return lookup(writers, type, mediaType, false);
+    }
+
+    private HttpMessageConverter<?> lookup(ConcurrentMap<Type, Choice[]> index, Type type,
+                                           @Nullable MediaType mediaType, boolean read) {
+        Choice[] choices = index.get(type);
+        if (choices != null) {
+            for (Choice choice : choices) {
+                if (sameMediaType(choice.mediaType(), mediaType)) {
+                    return choice.converter();
+                }
+            }
+        }
+        HttpMessageConverter<?> converter = scan(type, mediaType, read);
+        if (choices != null || index.size() < MAX_TYPES) {
+            // copy-on-write: readers never see a half-built array
+            index.compute(type, (t, current) -> {
+                Choice[] next = current == null ? new Choice[1] : Arrays.copyOf(current, current.length + 1);
+                next[next.length - 1] = new Choice(mediaType, converter);
+                return next;
+            });
+        }
+        return converter;
+    }
+
+    private static boolean sameMediaType(@Nullable MediaType cached, @Nullable MediaType requested) {
+        if (cached == null || requested == null) {
+            return cached == requested;
+        }
+        return cached.equalsTypeAndSubtype(requested);
+    }
+
+    /**
+     * The question RestClient asks, delegate by delegate (DefaultRestClient.readWithMessageConverters /
+     * writeWithMessageConverters).
+     */
+    private HttpMessageConverter<?> scan(Type type, @Nullable MediaType mediaType, boolean read) {
+        Class<?> raw = ResolvableType.forType(type).toClass();
+        for (HttpMessageConverter<?> delegate : delegates) {
+            boolean can;
+            if (delegate instanceof GenericHttpMessageConverter<?> generic) {
+                can = read ? generic.canRead(type, null, mediaType) : generic.canWrite(type, raw, mediaType);
+            } else {
+                can = read ? delegate.canRead(raw, mediaType) : delegate.canWrite(raw, mediaType);
+            }
+            if (can) {
+                return delegate;
+            }
+        }
+        return NONE;
+    }
+
+    // ---- GenericHttpMessageConverter ------------------------------------------------------------------------
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return reader(type, mediaType) != NONE;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return reader(clazz, mediaType) != NONE;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return writer(type != null ? type : clazz, mediaType) != NONE;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return writer(clazz, mediaType) != NONE;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return supportedMediaTypes;
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        HttpMessageConverter<?> converter = reader(type, inputMessage.getHeaders().getContentType());
+        if (converter instanceof GenericHttpMessageConverter<?> generic) {
+            return generic.read(type, contextClass, inputMessage);
+        }
+        return readRaw(converter, ResolvableType.forType(type).toClass(), inputMessage);
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public void write(Object body, @Nullable Type type, @Nullable MediaType contentType,
+                      HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        Type bodyType = type != null ? type : body.getClass();
+        HttpMessageConverter<?> converter = writer(bodyType, contentType);
+        if (converter instanceof GenericHttpMessageConverter<?> generic) {
+            writeGeneric(generic, body, bodyType, contentType, outputMessage);
+        } else {
+            writeRaw(converter, body, contentType, outputMessage);
+        }
+    }
+
+    @Override
+    public void write(Object body, @Nullable MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        write(body, null, contentType, outputMessage);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object readRaw(HttpMessageConverter<?> converter, Class<?> clazz, HttpInputMessage input)
+            throws IOException {
+        return ((HttpMessageConverter<Object>) converter).read((Class<Object>) clazz, input);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeGeneric(GenericHttpMessageConverter<?> converter, Object body, Type type,
+                                     @Nullable MediaType contentType, HttpOutputMessage output) throws IOException {
+        ((GenericHttpMessageConverter<Object>) converter).write(body, type, contentType, output);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeRaw(HttpMessageConverter<?> converter, Object body, @Nullable MediaType contentType,
+                                 HttpOutputMessage output) throws IOException {
+        ((HttpMessageConverter<Object>) converter).write(body, contentType, output);
+    }
+
+    public List<HttpMessageConverter<?>> getDelegates() {
+        return List.of(delegates);
+    }
+
+    /**
+     * "No delegate can do it" marker - also cached, a type nobody can read is not scanned again either.
+     */
+    private static final class NoConverter implements HttpMessageConverter<Object> {
+        @Override
+        public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        public List<MediaType> getSupportedMediaTypes() {
+            return List.of();
+        }
+
+        @Override
+        public Object read(Class<?> clazz, HttpInputMessage inputMessage) {
+            throw new HttpMessageNotReadableException("No converter for " + clazz.getName(), inputMessage);
+        }
+
+        @Override
+        public void write(Object o, @Nullable MediaType contentType, HttpOutputMessage outputMessage) {
+            throw new HttpMessageNotWritableException("No converter for " + o.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package demo1.httprestclientservice.deadline;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes the caller's deadline from the request and makes it the deadline of everything we do for it.
+ *
+ *   X-Request-Timeout-Ms: 800            budget relative to arrival (preferred: no clock skew)
+ *   X-Request-Deadline:   1718000000000  absolute, epoch milliseconds
+ *
+ * The budget is capped at dservice.deadline.max-budget. A request whose deadline has already passed on
+ * arrival is answered with 504 right away. Runs before the rate limiter, so it does not spend a permit.
+ *
+ * Metrics: proxy.deadline.exceeded{stage=inbound} (see DeadlinePropagationInterceptor for the other stages)
+ */
+@Component
+@Order(DeadlineFilter.ORDER)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 5;
+
+    private static final String PROXY_PREFIX = "/proxy/";
+
+    private final DserviceClientProperties.Deadline settings;
+    private final Counter exceededOnArrival;
+
+    public DeadlineFilter(DserviceClientProperties props, MeterRegistry registry) {
+        this.settings = props.getDeadline();
+        this.exceededOnArrival = Counter.builder("proxy.deadline.exceeded").tag("stage", "inbound").register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !settings.isEnabled() || !request.getRequestURI().startsWith(PROXY_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        long budgetMillis = budgetMillis(request);
+        if (budgetMillis == Long.MAX_VALUE) {
+            chain.doFilter(request, response);          // no deadline given, the static timeouts apply
+            return;
+        }
+        if (budgetMillis <= 0) {
+            exceededOnArrival.increment();
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"deadline exceeded before the request was processed\"}");
+            return;
+        }
+        budgetMillis = Math.min(budgetMillis, settings.getMaxBudget().toMillis());
+
+        RequestDeadline.set(now + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    /** @return the budget in ms, Long.MAX_VALUE when the request carries none (or an unparsable one) */
+    private static long budgetMillis(HttpServletRequest request) {
+        String timeout = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (timeout != null) {
+            return RequestDeadline.parseMillis(timeout);
+        }
+        String deadline = request.getHeader(RequestDeadline.DEADLINE_HEADER);
+        if (deadline != null) {
+            try {
+                return Long.parseLong(deadline.trim()) - System.currentTimeMillis();
+            } catch (NumberFormatException ignored) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,67 @@
+package demo1.httprestclientservice.deadline;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Applies the inbound deadline (RequestDeadline) to each backend call:
+ *  1. no budget left (less than dservice.deadline.min-budget) -> DeadlineExceededException (504) without
+ *     calling the backend - nobody would wait for the answer anyway;
+ *  2. otherwise the remaining budget is sent as X-Request-Timeout-Ms, so the backend can stop in time too,
+ *     and the Reactor Netty client uses it as this request's response timeout (see restClientBuilder);
+ *  3. a call that fails after the deadline passed is reported as DeadlineExceededException as well.
+ *
+ * NB! getWithData / getWithDataRaw forward the caller's headers, so X-Request-Timeout-Ms / X-Request-Deadline
+ * may already be on the request with whatever the caller sent. They are always removed first (even with the
+ * deadline disabled): the only budget header that leaves this service is the one set here.
+ *
+ * Metrics: proxy.deadline.exceeded{stage=before-call|during-call}
+ */
+@Component
+public class DeadlinePropagationInterceptor implements ClientHttpRequestInterceptor {
+
+    private final DserviceClientProperties.Deadline settings;
+    private final Counter exceededBeforeCall;
+    private final Counter exceededDuringCall;
+
+    public DeadlinePropagationInterceptor(DserviceClientProperties props, MeterRegistry registry) {
+        this.settings = props.getDeadline();
+        this.exceededBeforeCall = Counter.builder("proxy.deadline.exceeded").tag("stage", "before-call").register(registry);
+        this.exceededDuringCall = Counter.builder("proxy.deadline.exceeded").tag("stage", "during-call").register(registry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().remove(RequestDeadline.TIMEOUT_HEADER);
+        request.getHeaders().remove(RequestDeadline.DEADLINE_HEADER);
+        if (!settings.isEnabled() || !RequestDeadline.isSet()) {
+            return execution.execute(request, body);
+        }
+        long remaining = RequestDeadline.remainingMillis();
+        if (remaining < settings.getMinBudget().toMillis()) {
+            exceededBeforeCall.increment();
+            throw new DeadlineExceededException("Deadline exceeded before calling " + request.getURI().getPath()
+                    + " (" + remaining + " ms left)");
+        }
+        request.getHeaders().set(RequestDeadline.TIMEOUT_HEADER, Long.toString(remaining));
+        try {
+            return execution.execute(request, body);
+        } catch (IOException ex) {
+            if (RequestDeadline.remainingMillis() <= 0) {
+                exceededDuringCall.increment();
+                throw new DeadlineExceededException("Deadline exceeded while calling " + request.getURI().getPath(), ex);
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package demo1.httprestclientservice.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The deadline of the inbound request being handled on this thread (System.nanoTime() based), set by
+ * DeadlineFilter and read by DeadlinePropagationInterceptor for every backend call made on the same thread.
+ *
+ * NB! Calls handed to other threads (the create batcher's sender pool) do not see it and keep the static timeouts.
+ */
+public final class RequestDeadline {
+
+    /** Relative budget in milliseconds - what we accept and what we forward downstream. */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    /** Absolute deadline in epoch milliseconds - accepted inbound, converted to a budget on arrival. */
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    static void set(long deadlineNanos) {
+        CURRENT.set(new long[] {deadlineNanos});
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static boolean isSet() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * @return the remaining budget in milliseconds (negative when already exceeded), or Long.MAX_VALUE when
+     *         the caller gave no deadline
+     */
+    public static long remainingMillis() {
+        long[] deadline = CURRENT.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline[0] - System.nanoTime());
+    }
+
+    /**
+     * Runs work as if the inbound request had no deadline, i.e. with the static timeouts only - for work whose
+     * result is shared with other callers (see ProbeResponseCache), which must not fail because this one caller
+     * was in a hurry. The deadline is back in place afterwards.
+     */
+    public static <T> T withoutDeadline(Supplier<T> work) {
+        long[] deadline = CURRENT.get();
+        if (deadline == null) {
+            return work.get();
+        }
+        CURRENT.remove();
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(deadline);
+        }
+    }
+
+    /**
+     * @return the milliseconds of a X-Request-Timeout-Ms value, or Long.MAX_VALUE when it is missing or not a
+     *         number (too large for a long included) - such a value is treated as "no deadline", never as an error
+     */
+    public static long parseMillis(String value) {
+        if (value == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ignored) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * The response timeout of one backend request: the configured one, shortened (never lengthened) by the
+     * X-Request-Timeout-Ms value DeadlinePropagationInterceptor put on the request. Used by the Reactor Netty
+     * doOnRequest hooks, i.e. on the event loop - so it must not throw, whatever the header holds.
+     */
+    public static Duration responseTimeout(Duration configured, String timeoutHeader) {
+        long budget = parseMillis(timeoutHeader);
+        if (budget == Long.MAX_VALUE) {
+            return configured;
+        }
+        return Duration.ofMillis(Math.max(1, Math.min(budget, configured.toMillis())));
+    }
+}
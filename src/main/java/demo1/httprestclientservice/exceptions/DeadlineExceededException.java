@@ -0,0 +1,24 @@
+package demo1.httprestclientservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the caller's deadline (X-Request-Timeout-Ms / X-Request-Deadline) has run out before or
+ * during a backend call - created by the proxy itself, so the status comes from @ResponseStatus: 504.
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException() {
+        super();
+    }
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    public DeadlineExceededException(Throwable cause) {
+        super(cause);
+    }
+}
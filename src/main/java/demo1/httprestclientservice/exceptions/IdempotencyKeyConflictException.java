@@ -0,0 +1,26 @@
+package demo1.httprestclientservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an Idempotency-Key is reused with a different request body.
+ *
+ * Unlike the exceptions mapped from backend responses, this one is created by the proxy itself,
+ * so the status comes from @ResponseStatus: 422 Unprocessable Entity.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException() {
+        super();
+    }
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+    public IdempotencyKeyConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    public IdempotencyKeyConflictException(Throwable cause) {
+        super(cause);
+    }
+}
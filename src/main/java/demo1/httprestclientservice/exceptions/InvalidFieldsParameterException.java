@@ -0,0 +1,24 @@
+package demo1.httprestclientservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the fields= projection parameter cannot be parsed - created by the proxy itself,
+ * so the status comes from @ResponseStatus: 400 Bad Request.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFieldsParameterException extends RuntimeException {
+    public InvalidFieldsParameterException() {
+        super();
+    }
+    public InvalidFieldsParameterException(String message) {
+        super(message);
+    }
+    public InvalidFieldsParameterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    public InvalidFieldsParameterException(Throwable cause) {
+        super(cause);
+    }
+}
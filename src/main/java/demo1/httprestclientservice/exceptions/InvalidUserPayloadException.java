@@ -0,0 +1,43 @@
+package demo1.httprestclientservice.exceptions;
+
+import demo1.httprestclientservice.validation.FieldViolation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * Thrown when a request body violates its Jakarta constraints (checked by the generated *FastValidator
+ * before anything is forwarded): 400 Bad Request. InvalidUserPayloadExceptionHandler writes the violations
+ * into the response body, @ResponseStatus keeps the status if the exception ever bypasses it.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidUserPayloadException extends RuntimeException {
+
+    private final List<FieldViolation> violations;
+
+    public InvalidUserPayloadException() {
+        super();
+        this.violations = List.of();
+    }
+    public InvalidUserPayloadException(String message) {
+        super(message);
+        this.violations = List.of();
+    }
+    public InvalidUserPayloadException(String message, Throwable cause) {
+        super(message, cause);
+        this.violations = List.of();
+    }
+    public InvalidUserPayloadException(Throwable cause) {
+        super(cause);
+        this.violations = List.of();
+    }
+    public InvalidUserPayloadException(List<FieldViolation> violations) {
+        super("Invalid user payload: " + violations);
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<FieldViolation> getViolations() {
+        return violations;
+    }
+}
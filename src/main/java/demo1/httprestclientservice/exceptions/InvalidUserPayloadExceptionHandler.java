@@ -0,0 +1,32 @@
+package demo1.httprestclientservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers InvalidUserPayloadException with 400 and the violated constraints, so the caller can fix its body:
+ *   {"error":"Bad Request","message":"Invalid user payload","violations":[{"field":"...","message":"..."}]}
+ *
+ * NB! @ResponseStatus alone would go through Spring Boot's /error page, which drops the exception's data
+ * (and its message, unless server.error.include-message is set).
+ */
+@RestControllerAdvice
+public class InvalidUserPayloadExceptionHandler {
+
+    @ExceptionHandler(InvalidUserPayloadException.class)
+    public ResponseEntity<Map<String, Object>> invalidUserPayload(InvalidUserPayloadException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());
+        body.put("message", "Invalid user payload");
+        body.put("violations", e.getViolations());     // FieldViolation is a record: {"field":..,"message":..}
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,94 @@
+package demo1.httprestclientservice.grpc;
+
+import demo1.httprestclientservice.config.ClientRuntimeSettings;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the gRPC channel to backend-service (dservice.grpc), created on first use - with transport: http nothing
+ * is opened at all.
+ *
+ * One ManagedChannel is enough: it multiplexes all calls over HTTP/2 connections to the resolved addresses
+ * (one per address with round_robin), so there is no connection pool to size as on the HTTP transport.
+ *
+ * Every call carries the same "authorization: Bearer <token>" as the RestClient, with the token read per call
+ * from ClientRuntimeSettings (so a token changed through /actuator/clientconfig is used at once).
+ */
+@Component
+public class GrpcChannelHolder implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcChannelHolder.class);
+
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final DserviceClientProperties.Grpc config;
+    private final ClientRuntimeSettings runtime;
+
+    private ManagedChannel channel;     // guarded by this
+
+    public GrpcChannelHolder(DserviceClientProperties props, ClientRuntimeSettings runtime) {
+        this.config = props.getGrpc();
+        this.runtime = runtime;
+    }
+
+    /**
+     * @return the channel with the auth interceptor, opened on the first call
+     */
+    public synchronized Channel channel() {
+        if (channel == null) {
+            ManagedChannelBuilder<?> builder = ManagedChannelBuilder.forTarget(config.getTarget())
+                    .defaultLoadBalancingPolicy(config.getLoadBalancingPolicy())
+                    .maxInboundMessageSize(config.getMaxInboundMessageSize());
+            if (config.isPlaintext()) {
+                builder.usePlaintext();
+            } else {
+                builder.useTransportSecurity();
+            }
+            channel = builder.build();
+            log.info("gRPC channel to {} ({}, {})", config.getTarget(),
+                    config.isPlaintext() ? "plaintext" : "TLS", config.getLoadBalancingPolicy());
+        }
+        return ClientInterceptors.intercept(channel, new AuthInterceptor());
+    }
+
+    @Override
+    public synchronized void destroy() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdown();
+            if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                channel.shutdownNow();
+            }
+        }
+    }
+
+    private final class AuthInterceptor implements ClientInterceptor {
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                   CallOptions callOptions, Channel next) {
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    headers.put(AUTHORIZATION, "Bearer " + runtime.current().authToken());
+                    super.start(responseListener, headers);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package demo1.httprestclientservice.grpc;
+
+import demo1.httprestclientservice.DTOs.db.UserDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.deadline.RequestDeadline;
+import demo1.httprestclientservice.exceptions.ClientErrorException;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import demo1.httprestclientservice.exceptions.DownstreamServiceException;
+import demo1.httprestclientservice.exceptions.UnauthorizedException;
+import demo1.httprestclientservice.exceptions.UserNotFoundException;
+import demo1.httprestclientservice.grpc.proto.GetByIdRequest;
+import demo1.httprestclientservice.grpc.proto.GetWithDataRequest;
+import demo1.httprestclientservice.grpc.proto.PingRequest;
+import demo1.httprestclientservice.grpc.proto.UserServiceGrpc;
+import io.grpc.Channel;
+import io.grpc.StatusRuntimeException;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpClientInterface over gRPC (dservice.transport: grpc): the same contract as the HttpServiceProxyFactory
+ * proxy, so the controller, the batcher, the caches and InstrumentedHttpClientInterface do not know which
+ * transport is in use.
+ *
+ * 1. create / createBatch / getById / getWithData / ping - the hot calls - are UserService RPCs with protobuf
+ *    bodies (src/main/proto/user_service.proto), mapped by UserProtoMapper;
+ * 2. getWithDataRaw, proxyGetCustomErrorResponse and uploadFile have no RPC (raw JSON for the fields= projection,
+ *    an HTTP status echo, a byte stream) and go to the http delegate - the normal load-balanced RestClient proxy;
+ * 3. every call gets a gRPC deadline: dservice.grpc.deadline, or less when the inbound request has less left
+ *    (see RequestDeadline) - the server sees it as grpc-timeout, like X-Request-Timeout-Ms on HTTP;
+ * 4. a failed call throws the same exceptions as defaultStatusHandler does for HTTP (see toException), so
+ *    the error mapping and the circuit breaker behave the same on both transports.
+ */
+public class GrpcHttpClientInterface implements HttpClientInterface {
+
+    private final UserServiceGrpc.UserServiceBlockingStub stub;
+    private final HttpClientInterface http;
+    private final long deadlineMillis;
+
+    public GrpcHttpClientInterface(Channel channel, HttpClientInterface http, Duration deadline) {
+        this.stub = UserServiceGrpc.newBlockingStub(channel);
+        this.http = http;
+        this.deadlineMillis = deadline.toMillis();
+    }
+
+    @Override
+    public ResponseEntity<UserDbDTO> create(UserDbDTO body) {
+        long budget = budget();
+        try {
+            return ResponseEntity.ok(UserProtoMapper.fromProto(stub(budget).create(UserProtoMapper.toProto(body))));
+        } catch (StatusRuntimeException e) {
+            throw toException(e, budget < deadlineMillis);
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<UserDbDTO>> createBatch(List<UserDbDTO> body) {
+        long budget = budget();
+        try {
+            return ResponseEntity.ok(UserProtoMapper.fromProto(stub(budget).createBatch(UserProtoMapper.toProto(body))));
+        } catch (StatusRuntimeException e) {
+            throw toException(e, budget < deadlineMillis);
+        }
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> getById(Long id, String apiVersion) {
+        GetByIdRequest.Builder request = GetByIdRequest.newBuilder().setId(id);
+        if (apiVersion != null) {
+            request.setApiVersion(apiVersion);
+        }
+        long budget = budget();
+        try {
+            return ResponseEntity.ok(UserProtoMapper.fromProto(stub(budget).getById(request.build())));
+        } catch (StatusRuntimeException e) {
+            throw toException(e, budget < deadlineMillis);
+        }
+    }
+
+    @Override
+    public ResponseEntity<UserDbDTO> getWithData(Long id, Map<String, String> dynamicHeaders) {
+        GetWithDataRequest request = GetWithDataRequest.newBuilder()
+                .setId(id)
+                .putAllHeaders(dynamicHeaders)
+                .build();
+        long budget = budget();
+        try {
+            return ResponseEntity.ok(UserProtoMapper.fromProto(stub(budget).getWithData(request)));
+        } catch (StatusRuntimeException e) {
+            throw toException(e, budget < deadlineMillis);
+        }
+    }
+
+    @Override
+    public ResponseEntity<byte[]> getWithDataRaw(Long id, String fields, Map<String, String> dynamicHeaders) {
+        return http.getWithDataRaw(id, fields, dynamicHeaders);
+    }
+
+    @Override
+    public ResponseEntity<String> proxyGetCustomErrorResponse(int code) {
+        return http.proxyGetCustomErrorResponse(code);
+    }
+
+    @Override
+    public Map<String, String> ping() {
+        long budget = budget();
+        try {
+            return stub(budget).ping(PingRequest.getDefaultInstance()).getValuesMap();
+        } catch (StatusRuntimeException e) {
+            throw toException(e, budget < deadlineMillis);
+        }
+    }
+
+    @Override
+    public ResponseEntity<Void> uploadFile(Resource file) {
+        return http.uploadFile(file);
+    }
+
+    /**
+     * The caller's remaining budget (Long.MAX_VALUE without a deadline) - read once per call, so the stub's
+     * deadline and the error mapping agree on which limit applied.
+     */
+    private static long budget() {
+        long remaining = RequestDeadline.remainingMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded before calling backend-service");
+        }
+        return remaining;
+    }
+
+    /**
+     * The stub with this call's deadline (stubs are immutable, withDeadlineAfter is a cheap copy).
+     */
+    private UserServiceGrpc.UserServiceBlockingStub stub(long budget) {
+        return stub.withDeadlineAfter(Math.min(deadlineMillis, budget), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * gRPC status -> the exceptions defaultStatusHandler throws for the corresponding HTTP status.
+     *
+     * NB! DEADLINE_EXCEEDED is the caller's problem (DeadlineExceededException, 504, ignored by the breaker)
+     * only when the caller's remaining budget was the shorter limit. When dservice.grpc.deadline ran out first,
+     * the backend was too slow - that is a DownstreamServiceException and counts as a breaker failure, like a
+     * response timeout on HTTP.
+     */
+    static RuntimeException toException(StatusRuntimeException e, boolean callerBudgetWasTheLimit) {
+        String code = e.getStatus().getCode().name();
+        return switch (e.getStatus().getCode()) {
+            case NOT_FOUND -> new UserNotFoundException("My Custom Error Response: User not found (" + code + ")", e);
+            case UNAUTHENTICATED, PERMISSION_DENIED ->
+                    new UnauthorizedException("My Custom Error Response: Unauthorized (" + code + ")", e);
+            case INVALID_ARGUMENT, FAILED_PRECONDITION, OUT_OF_RANGE, ALREADY_EXISTS ->
+                    new ClientErrorException("My Custom Error Response: Client error: " + code, e);
+            case DEADLINE_EXCEEDED -> callerBudgetWasTheLimit
+                    ? new DeadlineExceededException("backend-service did not answer within the request deadline", e)
+                    : new DownstreamServiceException("My Custom Error Response: backend-service did not answer within "
+                            + "dservice.grpc.deadline (" + code + ")", e);
+            default -> new DownstreamServiceException("My Custom Error Response: Server error: " + code, e);
+        };
+    }
+}
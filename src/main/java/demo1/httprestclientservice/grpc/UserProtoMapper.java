@@ -0,0 +1,210 @@
+package demo1.httprestclientservice.grpc;
+
+import com.google.protobuf.ByteString;
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+import demo1.httprestclientservice.grpc.proto.DateTime;
+import demo1.httprestclientservice.grpc.proto.Decimal;
+import demo1.httprestclientservice.grpc.proto.Description;
+import demo1.httprestclientservice.grpc.proto.Profile;
+import demo1.httprestclientservice.grpc.proto.Registration;
+import demo1.httprestclientservice.grpc.proto.User;
+import demo1.httprestclientservice.grpc.proto.UserRecord;
+import demo1.httprestclientservice.grpc.proto.UserRecordList;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO <-> protobuf message mapping of src/main/proto/user_service.proto, both directions (the client sends what
+ * the server maps back, and LocalUserServiceServer uses the same class).
+ *
+ * null handling: a null DTO value is an absent proto field (has*() == false), a null enum is *_UNSPECIFIED.
+ * The proto enums list the Java constants in the same order starting at 1, so the mapping is ordinal + 1
+ * over the precomputed values() arrays - no name lookups per call.
+ */
+public final class UserProtoMapper {
+
+    private static final HairColor[] HAIR_COLORS = HairColor.values();
+    private static final EyeColor[] EYE_COLORS = EyeColor.values();
+    private static final MaritalStatus[] MARITAL_STATUSES = MaritalStatus.values();
+
+    private UserProtoMapper() {
+    }
+
+    // ───────────────────────────── DTO -> proto ─────────────────────────────
+
+    public static UserRecord toProto(UserDbDTO user) {
+        UserRecord.Builder b = UserRecord.newBuilder();
+        if (user.getId() != null) b.setId(user.getId());
+
+        RegistrationDataDbDTO reg = user.getRegistrationDataDbDTO();
+        if (reg != null) {
+            Registration.Builder r = Registration.newBuilder();
+            if (reg.getId() != null) r.setId(reg.getId());
+            if (reg.getUsername() != null) r.setUsername(reg.getUsername());
+            if (reg.getEmail() != null) r.setEmail(reg.getEmail());
+            if (reg.getPassword() != null) r.setPassword(reg.getPassword());
+            if (reg.getRegDate() != null) r.setRegDate(toProto(reg.getRegDate()));
+            if (reg.getConfirmRegDeadline() != null) r.setConfirmRegDeadline(toProto(reg.getConfirmRegDeadline()));
+            if (reg.getConfirmRegDate() != null) r.setConfirmRegDate(toProto(reg.getConfirmRegDate()));
+            b.setRegistration(r);
+        }
+
+        ProfileDataDbDTO profile = user.getProfileDataDbDTO();
+        if (profile != null) {
+            Profile.Builder p = Profile.newBuilder();
+            if (profile.getId() != null) p.setId(profile.getId());
+            if (profile.getLastLogin() != null) p.setLastLogin(toProto(profile.getLastLogin()));
+            if (profile.getBirthDate() != null) p.setBirthDateEpochDay(profile.getBirthDate().toEpochDay());
+            if (profile.getCountry() != null) p.setCountry(profile.getCountry());
+            if (profile.getRegion() != null) p.setRegion(profile.getRegion());
+            if (profile.getCity() != null) p.setCity(profile.getCity());
+            if (profile.getMaritalStatus() != null) p.setMaritalStatusValue(profile.getMaritalStatus().ordinal() + 1);
+            if (profile.getHeight() != null) p.setHeight(toProto(profile.getHeight()));
+            if (profile.getWeight() != null) p.setWeight(toProto(profile.getWeight()));
+            if (profile.getHairColor() != null) p.setHairColorValue(profile.getHairColor().ordinal() + 1);
+            if (profile.getEyeColor() != null) p.setEyeColorValue(profile.getEyeColor().ordinal() + 1);
+            if (profile.getChildren() != null) p.setChildren(profile.getChildren());
+            if (profile.getReligion() != null) p.setReligion(profile.getReligion());
+            if (profile.getSmoking() != null) p.setSmoking(profile.getSmoking());
+            if (profile.getDrinking() != null) p.setDrinking(profile.getDrinking());
+            if (profile.getEducation() != null) p.setEducation(profile.getEducation());
+            if (profile.getOccupation() != null) p.setOccupation(profile.getOccupation());
+            if (profile.getLanguages() != null) p.setLanguages(profile.getLanguages());
+            b.setProfile(p);
+        }
+
+        DescriptionDataDbDTO desc = user.getDescriptionDataDbDTO();
+        if (desc != null) {
+            Description.Builder d = Description.newBuilder();
+            if (desc.getId() != null) d.setId(desc.getId());
+            if (desc.getDescription() != null) d.setDescription(desc.getDescription());
+            b.setDescription(d);
+        }
+        return b.build();
+    }
+
+    public static UserRecordList toProto(List<UserDbDTO> users) {
+        UserRecordList.Builder b = UserRecordList.newBuilder();
+        for (UserDbDTO user : users) {
+            b.addUsers(toProto(user));
+        }
+        return b.build();
+    }
+
+    public static User toProto(UserDTO user) {
+        User.Builder b = User.newBuilder();
+        if (user.getId() != null) b.setId(user.getId());
+        if (user.getTs() != null) b.setTs(toProto(user.getTs()));
+        return b.build();
+    }
+
+    static DateTime toProto(LocalDateTime value) {
+        return DateTime.newBuilder()
+                .setEpochSecond(value.toEpochSecond(ZoneOffset.UTC))
+                .setNano(value.getNano())
+                .build();
+    }
+
+    static Decimal toProto(BigDecimal value) {
+        return Decimal.newBuilder()
+                .setScale(value.scale())
+                .setUnscaled(ByteString.copyFrom(value.unscaledValue().toByteArray()))
+                .build();
+    }
+
+    // ───────────────────────────── proto -> DTO ─────────────────────────────
+
+    public static UserDbDTO fromProto(UserRecord record) {
+        UserDbDTO user = new UserDbDTO();
+        if (record.hasId()) user.setId(record.getId());
+
+        if (record.hasRegistration()) {
+            Registration r = record.getRegistration();
+            RegistrationDataDbDTO reg = new RegistrationDataDbDTO();
+            if (r.hasId()) reg.setId(r.getId());
+            if (r.hasUsername()) reg.setUsername(r.getUsername());
+            if (r.hasEmail()) reg.setEmail(r.getEmail());
+            if (r.hasPassword()) reg.setPassword(r.getPassword());
+            if (r.hasRegDate()) reg.setRegDate(fromProto(r.getRegDate()));
+            if (r.hasConfirmRegDeadline()) reg.setConfirmRegDeadline(fromProto(r.getConfirmRegDeadline()));
+            if (r.hasConfirmRegDate()) reg.setConfirmRegDate(fromProto(r.getConfirmRegDate()));
+            user.setRegistrationDataDbDTO(reg);
+        }
+
+        if (record.hasProfile()) {
+            Profile p = record.getProfile();
+            ProfileDataDbDTO profile = new ProfileDataDbDTO();
+            if (p.hasId()) profile.setId(p.getId());
+            if (p.hasLastLogin()) profile.setLastLogin(fromProto(p.getLastLogin()));
+            if (p.hasBirthDateEpochDay()) profile.setBirthDate(LocalDate.ofEpochDay(p.getBirthDateEpochDay()));
+            if (p.hasCountry()) profile.setCountry(p.getCountry());
+            if (p.hasRegion()) profile.setRegion(p.getRegion());
+            if (p.hasCity()) profile.setCity(p.getCity());
+            profile.setMaritalStatus(byNumber(MARITAL_STATUSES, p.getMaritalStatusValue()));
+            if (p.hasHeight()) profile.setHeight(fromProto(p.getHeight()));
+            if (p.hasWeight()) profile.setWeight(fromProto(p.getWeight()));
+            profile.setHairColor(byNumber(HAIR_COLORS, p.getHairColorValue()));
+            profile.setEyeColor(byNumber(EYE_COLORS, p.getEyeColorValue()));
+            if (p.hasChildren()) profile.setChildren(p.getChildren());
+            if (p.hasReligion()) profile.setReligion(p.getReligion());
+            if (p.hasSmoking()) profile.setSmoking(p.getSmoking());
+            if (p.hasDrinking()) profile.setDrinking(p.getDrinking());
+            if (p.hasEducation()) profile.setEducation(p.getEducation());
+            if (p.hasOccupation()) profile.setOccupation(p.getOccupation());
+            if (p.hasLanguages()) profile.setLanguages(p.getLanguages());
+            user.setProfileDataDbDTO(profile);
+        }
+
+        if (record.hasDescription()) {
+            Description d = record.getDescription();
+            DescriptionDataDbDTO desc = new DescriptionDataDbDTO();
+            if (d.hasId()) desc.setId(d.getId());
+            if (d.hasDescription()) desc.setDescription(d.getDescription());
+            user.setDescriptionDataDbDTO(desc);
+        }
+        return user;
+    }
+
+    public static List<UserDbDTO> fromProto(UserRecordList list) {
+        List<UserDbDTO> users = new ArrayList<>(list.getUsersCount());
+        for (UserRecord record : list.getUsersList()) {
+            users.add(fromProto(record));
+        }
+        return users;
+    }
+
+    public static UserDTO fromProto(User proto) {
+        UserDTO user = new UserDTO();
+        if (proto.hasId()) user.setId(proto.getId());
+        if (proto.hasTs()) user.setTs(fromProto(proto.getTs()));
+        return user;
+    }
+
+    static LocalDateTime fromProto(DateTime value) {
+        return LocalDateTime.ofEpochSecond(value.getEpochSecond(), value.getNano(), ZoneOffset.UTC);
+    }
+
+    static BigDecimal fromProto(Decimal value) {
+        return new BigDecimal(new BigInteger(value.getUnscaled().toByteArray()), value.getScale());
+    }
+
+    /**
+     * 0 (UNSPECIFIED) and numbers this build does not know (a newer schema on the other side) are null.
+     */
+    private static <E> E byNumber(E[] values, int number) {
+        return number > 0 && number <= values.length ? values[number - 1] : null;
+    }
+}
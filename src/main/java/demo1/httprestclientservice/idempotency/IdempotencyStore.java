@@ -0,0 +1,372 @@
+package demo1.httprestclientservice.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.deadline.RequestDeadline;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import demo1.httprestclientservice.exceptions.DownstreamServiceException;
+import demo1.httprestclientservice.exceptions.IdempotencyKeyConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Idempotency-Key handling for POST /proxy/create-new-user.
+ *
+ *  - first request with a key  -> forwarded, the response is stored under the key
+ *  - same key again (a retry)  -> the stored response is returned, the backend is not called
+ *  - same key, CONCURRENTLY    -> the duplicates wait for the first one and get its response (coalescing),
+ *                                 at most max-wait or their own deadline; if the first one fails, one of them
+ *                                 is forwarded in its place
+ *  - same key, different body  -> 422, that is a client bug and not a retry
+ *  - the call failed           -> nothing is stored, a retry is forwarded again
+ *
+ * Keys are scoped to the caller (principal, else the API key header of rate-limit:, else the remote address):
+ * the same Idempotency-Key from another caller is a different key - a guessed or reused key never replays
+ * somebody else's stored user. The caller is kept only as a hash, also in the journal.
+ *
+ * The store is a bounded ConcurrentHashMap: entries expire after ttl, and above max-entries the oldest
+ * completed ones are evicted (in-flight entries are not in the eviction queue at all, so they never block it). With persistence-file set, every stored response is also appended (off the
+ * request thread) to a JSON-lines file, which is loaded and compacted at startup - retries that arrive
+ * after a restart are still deduplicated.
+ */
+@Component
+public class IdempotencyStore implements DisposableBean {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final DserviceClientProperties.Idempotency settings;
+    private final String apiKeyHeader;
+    private final ObjectMapper mapper;
+    private final long ttlMillis;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();   // completed entries only
+
+    private final ExecutorService persistence;
+    private final BufferedWriter journal;
+
+    private final Counter forwarded;
+    private final Counter replayed;
+    private final Counter conflicts;
+
+    public IdempotencyStore(DserviceClientProperties props, ObjectMapper mapper, MeterRegistry registry) throws IOException {
+        this.settings  = props.getIdempotency();
+        this.apiKeyHeader = props.getRateLimit().getApiKeyHeader();
+        this.mapper    = mapper;
+        this.ttlMillis = settings.getTtl().toMillis();
+        this.forwarded = counter(registry, "forwarded");
+        this.replayed  = counter(registry, "replayed");
+        this.conflicts = counter(registry, "conflict");
+
+        if (settings.isEnabled() && StringUtils.hasText(settings.getPersistenceFile())) {
+            Path file = Path.of(settings.getPersistenceFile());
+            load(file);
+            this.journal = compact(file);
+            this.persistence = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "idempotency-journal");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.journal = null;
+            this.persistence = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * @return who sent the request, as far as the idempotency keys are concerned
+     */
+    public String callerOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (StringUtils.hasText(apiKey)) {
+            return "api-key:" + apiKey;
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    public ResponseEntity<UserDbDTO> execute(String caller, String idempotencyKey, UserDbDTO body,
+                                             Supplier<ResponseEntity<UserDbDTO>> call) {
+        String key = scopedKey(caller, idempotencyKey);
+        long fingerprint = fingerprint(body);
+        // a duplicate waits for the first request, but never longer than its own deadline or max-wait
+        long maxWaitMillis = settings.getMaxWait().toMillis();
+        long waitMillis = Math.max(0, Math.min(maxWaitMillis, RequestDeadline.remainingMillis()));
+        long waitUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry fresh = new Entry(key, fingerprint, now);
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                return executeAsOwner(fresh, call);
+            }
+            if (existing.isExpired(now, ttlMillis)) {
+                if (entries.replace(key, existing, fresh)) {
+                    return executeAsOwner(fresh, call);
+                }
+                continue;   // somebody else replaced it first, look again
+            }
+            if (existing.fingerprint != fingerprint) {
+                conflicts.increment();
+                throw new IdempotencyKeyConflictException(
+                        "Idempotency-Key '" + idempotencyKey + "' was already used with a different request body");
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.result.get(Math.max(0, waitUntilNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException ownerFailed) {
+                // nothing was stored and the key is free again: forward this request itself (the owner's error
+                // - its deadline, say - is not ours)
+                continue;
+            } catch (TimeoutException ex) {
+                throw waitMillis < maxWaitMillis
+                        ? new DeadlineExceededException("Request deadline exceeded while waiting for the request with"
+                                + " the same Idempotency-Key")
+                        : new DownstreamServiceException("My Custom Error Response: the request with the same"
+                                + " Idempotency-Key did not finish within " + maxWaitMillis + " ms");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new DownstreamServiceException("Interrupted while waiting for the request with the same"
+                        + " Idempotency-Key", ex);
+            }
+            replayed.increment();
+            return ResponseEntity.status(stored.status)
+                    .header(REPLAYED_HEADER, "true")
+                    .body(stored.body);
+        }
+    }
+
+    private ResponseEntity<UserDbDTO> executeAsOwner(Entry entry, Supplier<ResponseEntity<UserDbDTO>> call) {
+        forwarded.increment();
+        ResponseEntity<UserDbDTO> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            // not stored: the next retry must reach the backend again
+            entries.remove(entry.key, entry);
+            entry.result.completeExceptionally(ex);
+            throw ex;
+        }
+        StoredResponse stored = new StoredResponse(response.getStatusCode().value(), response.getBody());
+        entry.result.complete(stored);
+        insertionOrder.add(entry);     // only now: a failed call leaves nothing behind
+        if (journal != null) {
+            persistence.execute(() -> append(entry, stored));
+        }
+        evictIfNeeded();
+        return response;
+    }
+
+    private void evictIfNeeded() {
+        long now = System.currentTimeMillis();
+        while (entries.size() > settings.getMaxEntries()) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;   // only in-flight keys left - never drop a key somebody may be waiting on
+            }
+            entries.remove(oldest.key, oldest);
+        }
+        // drop expired heads as well, so memory is given back even without pressure
+        Entry head;
+        while ((head = insertionOrder.peek()) != null && head.isExpired(now, ttlMillis)) {
+            insertionOrder.poll();
+            entries.remove(head.key, head);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * "<sha-256 of the caller, 128 bits>:<Idempotency-Key>" - the caller (an API key, maybe) is never stored as is.
+     */
+    private static String scopedKey(String caller, String idempotencyKey) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(caller.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16) + ":" + idempotencyKey;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+
+    private long fingerprint(UserDbDTO body) {
+        try {
+            CRC32C crc = new CRC32C();
+            crc.update(mapper.writeValueAsBytes(body));
+            return crc.getValue();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot fingerprint request body", e);
+        }
+    }
+
+
+    // ───────────── optional file persistence (JSON lines) ─────────────
+
+    private void load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Entry> loaded = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JsonNode node = mapper.readTree(line);
+                Entry entry = new Entry(node.get("key").asText(), node.get("fingerprint").asLong(), node.get("createdAt").asLong());
+                if (entry.isExpired(now, ttlMillis)) {
+                    continue;
+                }
+                UserDbDTO body = node.hasNonNull("body") ? mapper.treeToValue(node.get("body"), UserDbDTO.class) : null;
+                entry.result.complete(new StoredResponse(node.get("status").asInt(), body));
+                loaded.remove(entry.key);
+                loaded.put(entry.key, entry);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skipping unreadable idempotency journal line in {}", file, e);
+            }
+        }
+        loaded.values().forEach(entry -> {
+            entries.put(entry.key, entry);
+            insertionOrder.add(entry);
+        });
+        log.info("Loaded {} idempotency keys from {}", loaded.size(), file);
+    }
+
+    /**
+     * Rewrites the journal with only the live entries, and keeps it open for appending.
+     */
+    private BufferedWriter compact(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Entry entry : insertionOrder) {
+                writer.write(toJson(entry, entry.result.join()));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private void append(Entry entry, StoredResponse stored) {
+        try {
+            journal.write(toJson(entry, stored));
+            journal.newLine();
+            journal.flush();
+        } catch (IOException e) {
+            log.warn("Could not persist idempotency key {}", entry.key, e);
+        }
+    }
+
+    private String toJson(Entry entry, StoredResponse stored) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("key", entry.key);
+        node.put("fingerprint", entry.fingerprint);
+        node.put("createdAt", entry.createdAtMillis);
+        node.put("status", stored.status);
+        node.set("body", mapper.valueToTree(stored.body));
+        try {
+            return mapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (persistence != null) {
+            persistence.shutdown();
+            persistence.awaitTermination(5, TimeUnit.SECONDS);
+            journal.close();
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("proxy.idempotency.requests")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+
+    private static final class Entry {
+        private final String key;
+        private final long fingerprint;
+        private final long createdAtMillis;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        private Entry(String key, long fingerprint, long createdAtMillis) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        private boolean isExpired(long nowMillis, long ttlMillis) {
+            return nowMillis - createdAtMillis > ttlMillis;
+        }
+    }
+
+    private static final class StoredResponse {
+        private final int status;
+        private final UserDbDTO body;
+
+        private StoredResponse(int status, UserDbDTO body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
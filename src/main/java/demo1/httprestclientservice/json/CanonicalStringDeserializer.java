@@ -0,0 +1,37 @@
+package demo1.httprestclientservice.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+
+/**
+ * String property deserializer that returns the canonical instance from a StringCanonicalizer.
+ * Anything but a plain JSON string (numbers, booleans ...) is handled exactly like Jackson's own StringDeserializer.
+ */
+public class CanonicalStringDeserializer extends StdScalarDeserializer<String> {
+
+    private final StringCanonicalizer table;
+
+    public CanonicalStringDeserializer(StringCanonicalizer table) {
+        super(String.class);
+        this.table = table;
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_STRING)) {
+            // the parser's own buffer - no String is created unless the value is new
+            return table.canonicalize(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        }
+        return StringDeserializer.instance.deserialize(p, ctxt);
+    }
+
+    @Override
+    public boolean isCachable() {
+        return true;
+    }
+}
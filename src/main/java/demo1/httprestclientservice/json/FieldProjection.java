@@ -0,0 +1,110 @@
+package demo1.httprestclientservice.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A parsed fields= parameter, e.g. "id,registrationDataDbDTO.username,profileDataDbDTO.city".
+ *
+ * apply() streams the backend's JSON through a FilteringParserDelegate straight into a generator:
+ * excluded subtrees (like the 500 character description) are skipped by the tokenizer, nothing is
+ * bound to DTOs, and only the selected properties - with the objects on their path - are written.
+ */
+public final class FieldProjection {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Node root = new Node();
+    private final String normalized;
+
+    private FieldProjection(String fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String path : fields.split(",")) {
+            String trimmed = path.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (String segment : trimmed.split("\\.", -1)) {
+                if (segment.isEmpty()) {
+                    throw new IllegalArgumentException("Empty path segment in fields: '" + trimmed + "'");
+                }
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            node.all = true;
+            sb.append(sb.length() == 0 ? "" : ",").append(trimmed);
+        }
+        if (root.children.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one property");
+        }
+        this.normalized = sb.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException for an empty list or an empty path segment ("a..b")
+     */
+    public static FieldProjection parse(String fields) {
+        return new FieldProjection(fields);
+    }
+
+    /** The projection as a fields= value, e.g. to forward it to a backend that supports it. */
+    public String toQueryValue() {
+        return normalized;
+    }
+
+    public byte[] apply(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(json.length, 4096));
+        boolean empty = true;
+        try (JsonParser parser = new FilteringParserDelegate(JSON.createParser(json), new PathFilter(root),
+                     TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+             JsonGenerator generator = JSON.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+                empty = false;
+            }
+        }
+        return empty ? new byte[] {'{', '}'} : out.toByteArray();
+    }
+
+
+    private static final class Node {
+        final Map<String, Node> children = new LinkedHashMap<>();
+        boolean all;                          // the whole subtree below this property is selected
+    }
+
+    /** One filter per level of the path tree; arrays are passed through to their elements. */
+    private static final class PathFilter extends TokenFilter {
+        private final Node node;
+
+        PathFilter(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            Node child = node.children.get(name);
+            if (child == null) {
+                return null;
+            }
+            return child.all ? TokenFilter.INCLUDE_ALL : new PathFilter(child);
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return this;
+        }
+
+        @Override
+        protected boolean _includeScalar() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package demo1.httprestclientservice.json;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Jackson module for the client mapper: the low-cardinality attributes of ProfileDataDbDTO are deserialized
+ * into shared, canonical String instances (one bounded StringCanonicalizer per field), and our enums are
+ * looked up in constant time straight from the parser buffer (ValueEnumDeserializer).
+ *
+ * Millions of profiles with the same few hundred countries / cities / languages then hold references to
+ * the same few hundred Strings, instead of one copy each.
+ */
+public class ProfileAttributesModule extends SimpleModule {
+
+    /** The ProfileDataDbDTO properties that repeat a small vocabulary. */
+    public static final Set<String> CANONICAL_PROPERTIES =
+            Set.of("country", "region", "city", "religion", "education", "occupation", "languages");
+
+    private final Map<String, StringCanonicalizer> tables = new LinkedHashMap<>();
+
+    public ProfileAttributesModule(int tableSize, int maxLength) {
+        super("ProfileAttributesModule");
+        for (String property : CANONICAL_PROPERTIES) {
+            tables.put(property, new StringCanonicalizer(tableSize, maxLength));
+        }
+
+        addDeserializer(HairColor.class, new ValueEnumDeserializer<>(HairColor.class, HairColor::getValue));
+        addDeserializer(EyeColor.class, new ValueEnumDeserializer<>(EyeColor.class, EyeColor::getValue));
+        addDeserializer(MaritalStatus.class, new ValueEnumDeserializer<>(MaritalStatus.class, MaritalStatus::getValue));
+
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                                                         BeanDeserializerBuilder builder) {
+                if (beanDesc.getBeanClass() != ProfileDataDbDTO.class) {
+                    return builder;
+                }
+                List<SettableBeanProperty> replacements = new ArrayList<>();
+                for (Iterator<SettableBeanProperty> it = builder.getProperties(); it.hasNext(); ) {
+                    SettableBeanProperty property = it.next();
+                    StringCanonicalizer table = tables.get(property.getName());
+                    if (table != null && property.getType().hasRawClass(String.class)) {
+                        replacements.add(property.withValueDeserializer(new CanonicalStringDeserializer(table)));
+                    }
+                }
+                replacements.forEach(property -> builder.addOrReplaceProperty(property, true));
+                return builder;
+            }
+        });
+    }
+
+    public StringCanonicalizer table(String property) {
+        return tables.get(property);
+    }
+}
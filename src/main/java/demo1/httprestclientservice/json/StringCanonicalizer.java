@@ -0,0 +1,81 @@
+package demo1.httprestclientservice.json;
+
+/**
+ * Bounded table of canonical String instances for low-cardinality values ("Bulgaria", "Sofia", "en,bg" ...).
+ *
+ * Lookup works directly on the parser's char buffer, so a value that is already in the table costs neither
+ * a String nor a char[] - and every record shares the same instance.
+ *
+ * The table never grows: it is a fixed power-of-two array with two probe slots per hash. A new value that
+ * finds both slots taken replaces the first one, so a high-cardinality field just degrades to "new String
+ * per value" instead of leaking memory. Unsynchronised on purpose: String is immutable, a lost update only
+ * means one extra copy.
+ */
+public final class StringCanonicalizer {
+
+    private final String[] table;
+    private final int mask;
+    private final int maxLength;
+
+    /**
+     * @param capacity  number of slots, rounded up to a power of two
+     * @param maxLength longer values are never canonicalized (they are unlikely to repeat)
+     */
+    public StringCanonicalizer(int capacity, int maxLength) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.table = new String[size];
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    public String canonicalize(char[] chars, int offset, int length) {
+        if (length > maxLength) {
+            return new String(chars, offset, length);
+        }
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + chars[offset + i];          // same as String.hashCode()
+        }
+        int slot = (h ^ (h >>> 16)) & mask;
+        int second = (slot + 1) & mask;
+
+        String candidate = table[slot];
+        if (candidate != null && matches(candidate, chars, offset, length)) {
+            return candidate;
+        }
+        String other = table[second];
+        if (other != null && matches(other, chars, offset, length)) {
+            return other;
+        }
+        String value = new String(chars, offset, length);
+        table[candidate == null || other != null ? slot : second] = value;
+        return value;
+    }
+
+    public String canonicalize(String value) {
+        return value == null ? null : canonicalize(value.toCharArray(), 0, value.length());
+    }
+
+    private static boolean matches(String candidate, char[] chars, int offset, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Number of values currently held (for tests and diagnostics, O(capacity)). */
+    public int size() {
+        int size = 0;
+        for (String s : table) {
+            if (s != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+}
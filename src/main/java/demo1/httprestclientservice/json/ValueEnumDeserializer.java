@@ -0,0 +1,86 @@
+package demo1.httprestclientservice.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Enum deserializer for our @JsonValue enums (HairColor "brown", MaritalStatus "single" ...).
+ *
+ * The constants are put into a small open-addressing table keyed by their JSON value; a lookup hashes the
+ * parser's char buffer and compares in place - constant time, and unlike the default enum deserializer
+ * it does not create a String for every value it reads. Numbers are taken as the ordinal, like Jackson does
+ * by default.
+ */
+public class ValueEnumDeserializer<E extends Enum<E>> extends StdScalarDeserializer<E> {
+
+    private final E[] constants;
+    private final String accepted;               // for the error message: "[brown, red, ...]"
+    private final char[][] keys;
+    private final E[] values;
+    private final int mask;
+
+    public ValueEnumDeserializer(Class<E> type, Function<E, String> jsonValue) {
+        super(type);
+        this.constants = type.getEnumConstants();
+        this.accepted = Arrays.stream(constants).map(jsonValue).toList().toString();
+        int size = Integer.highestOneBit(Math.max(2, constants.length * 4 - 1)) << 1;   // load factor <= 0.25
+        this.keys = new char[size][];
+        this.values = Arrays.copyOf(constants, size);
+        Arrays.fill(values, null);
+        this.mask = size - 1;
+        for (E constant : constants) {
+            char[] key = jsonValue.apply(constant).toCharArray();
+            int slot = hash(key, 0, key.length) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = constant;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_STRING)) {
+            char[] chars = p.getTextCharacters();
+            int offset = p.getTextOffset();
+            int length = p.getTextLength();
+            for (int slot = hash(chars, offset, length) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (Arrays.equals(keys[slot], 0, keys[slot].length, chars, offset, offset + length)) {
+                    return values[slot];
+                }
+            }
+            return (E) ctxt.handleWeirdStringValue(_valueClass, p.getText(),
+                    "not one of the values accepted for Enum class: %s", accepted);
+        }
+        if (p.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+            int index = p.getIntValue();
+            if (index >= 0 && index < constants.length) {
+                return constants[index];
+            }
+            return (E) ctxt.handleWeirdNumberValue(_valueClass, index,
+                    "index value outside legal index range [0..%s]", constants.length - 1);
+        }
+        return (E) ctxt.handleUnexpectedToken(_valueClass, p);
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + chars[offset + i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public boolean isCachable() {
+        return true;
+    }
+}
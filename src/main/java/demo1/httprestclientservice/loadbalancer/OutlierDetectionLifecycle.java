@@ -0,0 +1,59 @@
+package demo1.httprestclientservice.loadbalancer;
+
+import demo1.httprestclientservice.metrics.InstanceLatencyLoadBalancerLifecycle;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the outcome and latency of every load-balanced call to the OutlierDetector.
+ * Same "succeeded" rule as the per-instance metrics: a 5xx or a failed exchange (timeouts, connect errors)
+ * counts as an error.
+ */
+@Component
+public class OutlierDetectionLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final OutlierDetector detector;
+
+    public OutlierDetectionLifecycle(OutlierDetector detector) {
+        this.detector = detector;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        // nothing to do before an instance is chosen
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        // usually already set by InstanceLatencyLoadBalancerLifecycle
+        if (request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() == 0) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (!detector.isEnabled()
+                || completionContext.status() == CompletionContext.Status.DISCARD
+                || completionContext.getLoadBalancerResponse() == null
+                || !completionContext.getLoadBalancerResponse().hasServer()) {
+            return;
+        }
+        Object context = completionContext.getLoadBalancerRequest().getContext();
+        long latency = context instanceof TimedRequestContext timed && timed.getRequestStartTime() != 0
+                ? System.nanoTime() - timed.getRequestStartTime()
+                : 0;
+        detector.record(completionContext.getLoadBalancerResponse().getServer(), latency,
+                InstanceLatencyLoadBalancerLifecycle.succeeded(completionContext));
+    }
+}
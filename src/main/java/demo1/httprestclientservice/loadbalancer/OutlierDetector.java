@@ -0,0 +1,310 @@
+package demo1.httprestclientservice.loadbalancer;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Passive outlier detection for backend-service instances, fed with the client's own results
+ * (OutlierDetectionLifecycle) and applied when the load balancer lists instances
+ * (OutlierEjectingServiceInstanceListSupplier).
+ *
+ * An instance is ejected when
+ *  1. consecutive-errors calls in a row failed (5xx, read/write timeout, connect error), or
+ *  2. its average latency (EWMA) is above latency-factor x the median of the other instances and above
+ *     min-outlier-latency, after at least min-requests calls.
+ *
+ * Ejection lasts base-ejection-time x 2^(n-1) for the n-th ejection in a row (capped at max-ejection-time);
+ * an instance that stays healthy for max-ejection-time starts at n = 1 again. At most max-ejection-percent
+ * of the instances are ejected at the same time, and if the filter would leave nothing, nothing is filtered.
+ *
+ * One detector serves backend-service and every dservice.backends service, but each service id has a state of
+ * its own: the instances, the latency median and max-ejection-percent are per service, so an address shared by
+ * two services (or a slow service next to a fast one) never affects the other. An instance that is no longer in
+ * its service's list is forgotten on the next filter().
+ *
+ * Metrics: proxy.loadbalancer.ejections{reason=errors|latency}, gauge proxy.loadbalancer.ejected
+ */
+@Component
+public class OutlierDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(OutlierDetector.class);
+
+    private static final double EWMA_ALPHA = 0.1;
+
+    private final DserviceClientProperties.OutlierDetection settings;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, ServiceState> services = new ConcurrentHashMap<>();
+
+    private final Counter ejectedForErrors;
+    private final Counter ejectedForLatency;
+
+    @Autowired
+    public OutlierDetector(DserviceClientProperties props, MeterRegistry registry) {
+        this(props.getOutlierDetection(), registry, System::nanoTime);
+    }
+
+    OutlierDetector(DserviceClientProperties.OutlierDetection settings, MeterRegistry registry, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.ejectedForErrors = Counter.builder("proxy.loadbalancer.ejections").tag("reason", "errors").register(registry);
+        this.ejectedForLatency = Counter.builder("proxy.loadbalancer.ejections").tag("reason", "latency").register(registry);
+        Gauge.builder("proxy.loadbalancer.ejected", this, OutlierDetector::ejectedCount).register(registry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    // ───────────────────────────── load balancer side ─────────────────────────────
+
+    /**
+     * @return the instances that are not ejected right now - or all of them, if none would be left
+     */
+    public List<ServiceInstance> filter(List<ServiceInstance> candidates) {
+        if (!settings.isEnabled() || candidates.isEmpty()) {
+            return candidates;
+        }
+        ServiceState service = service(candidates.get(0));
+        service.knownInstances = candidates.size();
+        service.forgetAllBut(candidates);
+        if (service.instances.isEmpty()) {
+            return candidates;
+        }
+        long now = nanoClock.getAsLong();
+        List<ServiceInstance> healthy = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            InstanceState state = service.instances.get(key(candidates.get(i)));
+            boolean ejected = state != null && state.isEjected(now);
+            if (ejected && healthy == null) {
+                healthy = new ArrayList<>(candidates.subList(0, i));
+            } else if (!ejected && healthy != null) {
+                healthy.add(candidates.get(i));
+            }
+        }
+        if (healthy == null) {
+            return candidates;
+        }
+        return healthy.isEmpty() ? candidates : healthy;    // fail open: better a bad instance than none
+    }
+
+    // ───────────────────────────── client side ─────────────────────────────
+
+    public void record(ServiceInstance instance, long latencyNanos, boolean success) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        ServiceState service = service(instance);
+        InstanceState state = service.instances.computeIfAbsent(key(instance),
+                key -> new InstanceState(key, instance.getHost(), instance.getPort()));
+        long now = nanoClock.getAsLong();
+        String reason;
+        synchronized (state) {
+            state.requests++;
+            state.latencyEwmaNanos = state.requests == 1
+                    ? latencyNanos
+                    : state.latencyEwmaNanos + EWMA_ALPHA * (latencyNanos - state.latencyEwmaNanos);
+            state.consecutiveErrors = success ? 0 : state.consecutiveErrors + 1;
+            if (state.isEjected(now)) {
+                return;                                    // calls already in flight when it was ejected
+            }
+            if (state.consecutiveErrors >= settings.getConsecutiveErrors()) {
+                reason = "errors";
+            } else if (isLatencyOutlier(service, state)) {
+                reason = "latency";
+            } else {
+                return;
+            }
+        }
+        tryEject(service, state, now, reason);
+    }
+
+    private boolean isLatencyOutlier(ServiceState service, InstanceState state) {
+        if (state.requests < settings.getMinRequests()
+                || state.latencyEwmaNanos < settings.getMinOutlierLatency().toNanos()) {
+            return false;                                  // cheap checks first, the median needs all instances
+        }
+        double[] others = service.instances.values().stream()
+                .filter(other -> other != state && other.requests >= settings.getMinRequests())
+                .mapToDouble(other -> other.latencyEwmaNanos)
+                .toArray();
+        if (others.length == 0) {
+            return false;                                  // nothing to compare with
+        }
+        Arrays.sort(others);
+        double median = others.length % 2 == 1
+                ? others[others.length / 2]
+                : (others[others.length / 2 - 1] + others[others.length / 2]) / 2;
+        return state.latencyEwmaNanos > settings.getLatencyFactor() * median;
+    }
+
+    private synchronized void tryEject(ServiceState service, InstanceState state, long now, String reason) {
+        if (state.isEjected(now)) {
+            return;
+        }
+        int total = Math.max(service.knownInstances, service.instances.size());
+        if ((service.ejectedCount(now) + 1) * 100 > settings.getMaxEjectionPercent() * total) {
+            return;                                        // max-ejection-percent reached
+        }
+        long base = settings.getBaseEjectionTime().toNanos();
+        long max = settings.getMaxEjectionTime().toNanos();
+        if (state.ejections > 0 && now - state.ejectedUntilNanos > max) {
+            state.ejections = 0;                           // healthy for long enough, start over
+        }
+        state.ejections++;
+        long duration = Math.min(max, base << Math.min(state.ejections - 1, 20));
+        synchronized (state) {
+            state.ejectedUntilNanos = now + duration;
+            state.consecutiveErrors = 0;
+            state.requests = 0;                            // judge the latency afresh after the ejection
+        }
+        ("errors".equals(reason) ? ejectedForErrors : ejectedForLatency).increment();
+        log.warn("Ejecting backend instance {} of {} for {} ms ({} ejection in a row, reason: {})",
+                state.key, service.serviceId, Duration.ofNanos(duration).toMillis(), state.ejections, reason);
+    }
+
+    private int ejectedCount() {
+        long now = nanoClock.getAsLong();
+        int count = 0;
+        for (ServiceState service : services.values()) {
+            count += service.ejectedCount(now);
+        }
+        return count;
+    }
+
+    /** For the actuator endpoint: service id -> one entry per instance the client has talked to. */
+    public Map<String, Map<String, Map<String, Object>>> snapshot() {
+        long now = nanoClock.getAsLong();
+        Map<String, Map<String, Map<String, Object>>> result = new LinkedHashMap<>();
+        services.values().stream()
+                .sorted((a, b) -> a.serviceId.compareTo(b.serviceId))
+                .forEach(service -> {
+                    Map<String, Map<String, Object>> instances = new LinkedHashMap<>();
+                    service.instances.values().stream()
+                            .sorted((a, b) -> a.key.compareTo(b.key))
+                            .forEach(state -> {
+                                synchronized (state) {
+                                    Map<String, Object> entry = new LinkedHashMap<>();
+                                    entry.put("ejected", state.isEjected(now));
+                                    entry.put("ejectedForMs", state.isEjected(now) ? (state.ejectedUntilNanos - now) / 1_000_000 : 0);
+                                    entry.put("ejections", state.ejections);
+                                    entry.put("consecutiveErrors", state.consecutiveErrors);
+                                    entry.put("latencyEwmaMs", Math.round(state.latencyEwmaNanos / 1_000.0) / 1_000.0);
+                                    instances.put(state.key, entry);
+                                }
+                            });
+                    result.put(service.serviceId, instances);
+                });
+        return result;
+    }
+
+    /**
+     * Ends the ejection of one instance, e.g. after a manual fix. A null serviceId means every service,
+     * a null key every instance.
+     */
+    public void reinstate(String serviceId, String key) {
+        services.values().stream()
+                .filter(service -> serviceId == null || service.serviceId.equals(normalize(serviceId)))
+                .flatMap(service -> service.instances.values().stream())
+                .filter(state -> key == null || state.key.equals(key))
+                .forEach(state -> {
+                    synchronized (state) {
+                        state.ejectedUntilNanos = 0;
+                        state.consecutiveErrors = 0;
+                    }
+                });
+    }
+
+    private ServiceState service(ServiceInstance instance) {
+        return services.computeIfAbsent(normalize(instance.getServiceId()), ServiceState::new);
+    }
+
+    // Eureka reports the application name upper-case, the static lists and dservice.backends use the configured one
+    private static String normalize(String serviceId) {
+        return serviceId == null ? "" : serviceId.toLowerCase(Locale.ROOT);
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static final class ServiceState {
+        final String serviceId;
+        final ConcurrentMap<String, InstanceState> instances = new ConcurrentHashMap<>();
+        volatile int knownInstances;                       // size of the last instance list we filtered
+
+        ServiceState(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        /**
+         * Drops the state of the instances that are no longer in the list (scaled down, moved to a new port), so
+         * neither the map nor the latency median keep them. Allocates nothing while the list is unchanged.
+         */
+        void forgetAllBut(List<ServiceInstance> candidates) {
+            for (InstanceState state : instances.values()) {
+                if (!state.isIn(candidates)) {
+                    instances.remove(state.key, state);
+                }
+            }
+        }
+
+        int ejectedCount(long now) {
+            int count = 0;
+            for (InstanceState state : instances.values()) {
+                if (state.isEjected(now)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class InstanceState {
+        final String key;
+        final String host;
+        final int port;
+        long requests;
+        double latencyEwmaNanos;
+        int consecutiveErrors;
+        int ejections;                                     // ejections in a row, drives the exponential back-off
+        volatile long ejectedUntilNanos;
+
+        InstanceState(String key, String host, int port) {
+            this.key = key;
+            this.host = host;
+            this.port = port;
+        }
+
+        boolean isIn(List<ServiceInstance> instances) {
+            for (int i = 0; i < instances.size(); i++) {
+                if (port == instances.get(i).getPort() && host.equals(instances.get(i).getHost())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEjected(long now) {
+            long until = ejectedUntilNanos;
+            return until != 0 && now - until < 0;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package demo1.httprestclientservice.loadbalancer;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET    /actuator/outliers                            -> ejection state of every backend instance, by service id
+ *                                                         (see OutlierDetector)
+ * DELETE /actuator/outliers?service=s&instance=h:p      -> ends an ejection right away (without a parameter: of
+ *                                                         every service / every instance)
+ *
+ * NB! Not exposed over http by default: the DELETE is unauthenticated. Add "outliers" to
+ * management.endpoints.web.exposure.include only on an operator-only management port.
+ */
+@Component
+@Endpoint(id = "outliers")
+public class OutliersEndpoint {
+
+    private final OutlierDetector detector;
+
+    public OutliersEndpoint(OutlierDetector detector) {
+        this.detector = detector;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Object>>> outliers() {
+        return detector.snapshot();
+    }
+
+    @DeleteOperation
+    public void reinstate(@Nullable String service, @Nullable String instance) {
+        detector.reinstate(service, instance);
+    }
+}
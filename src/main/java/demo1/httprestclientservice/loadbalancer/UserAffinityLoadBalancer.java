@@ -0,0 +1,157 @@
+package demo1.httprestclientservice.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes every call for the same user id to the same backend instance, so that instance's own cache stays warm.
+ *
+ * 1. The key is the {id} of /user/{id} and /user-with-data/{id} (taken from the request URL that the
+ *    load-balancer interceptor hands us). Calls without an id are spread round-robin.
+ * 2. Rendezvous (highest random weight) hashing: every instance gets score = hash(id, instance), the highest
+ *    score wins. When an instance goes away only its own ids move, to their second-best instance.
+ * 3. Bounded load: an instance may have at most ceil(loadFactor x average) calls in flight. If the preferred
+ *    one is full, the id spills over to the next instance in its ranking (still deterministic, so the
+ *    spill-over instance also builds up a warm cache for it).
+ *
+ * Metrics: proxy.loadbalancer.affinity{result=preferred|spillover|no-key}
+ */
+public class UserAffinityLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InFlightRequests inFlight;
+    private final double loadFactor;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    private final Counter preferred;
+    private final Counter spillover;
+    private final Counter noKey;
+
+    public UserAffinityLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    InFlightRequests inFlight, double loadFactor, MeterRegistry registry) {
+        this.supplierProvider = supplierProvider;
+        this.inFlight = inFlight;
+        this.loadFactor = loadFactor;
+        this.preferred = Counter.builder("proxy.loadbalancer.affinity").tag("result", "preferred").register(registry);
+        this.spillover = Counter.builder("proxy.loadbalancer.affinity").tag("result", "spillover").register(registry);
+        this.noKey = Counter.builder("proxy.loadbalancer.affinity").tag("result", "no-key").register(registry);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances, userId(request));
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances, long userId) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (userId < 0 || instances.size() == 1) {
+            if (userId < 0) {
+                noKey.increment();
+            }
+            int position = (roundRobin.getAndIncrement() & Integer.MAX_VALUE) % instances.size();
+            return new DefaultResponse(instances.get(position));
+        }
+
+        int total = 0;
+        int[] load = new int[instances.size()];
+        for (int i = 0; i < load.length; i++) {
+            load[i] = inFlight.get(instances.get(i));
+            total += load[i];
+        }
+        // +1: the call we are placing now
+        int capacity = (int) Math.ceil(loadFactor * (total + 1) / instances.size());
+
+        int best = -1, bestEligible = -1;
+        long bestScore = Long.MIN_VALUE, bestEligibleScore = Long.MIN_VALUE;
+        for (int i = 0; i < load.length; i++) {
+            long score = score(userId, instances.get(i));
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+            if (load[i] < capacity && score > bestEligibleScore) {
+                bestEligibleScore = score;
+                bestEligible = i;
+            }
+        }
+        if (bestEligible == best || bestEligible < 0) {
+            preferred.increment();
+            return new DefaultResponse(instances.get(best));
+        }
+        spillover.increment();
+        return new DefaultResponse(instances.get(bestEligible));
+    }
+
+    private static long score(long userId, ServiceInstance instance) {
+        long instanceHash = instance.getHost().hashCode() * 31L + instance.getPort();
+        return mix(userId * 0x9E3779B97F4A7C15L ^ mix(instanceHash));
+    }
+
+    /** The 64-bit finalizer of MurmurHash3 - spreads similar inputs over the whole range. */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * @return the id of ".../user/{id}" or ".../user-with-data/{id}", or -1 when the call has none
+     */
+    static long userId(Request<?> request) {
+        if (!(request.getContext() instanceof RequestDataContext context) || context.getClientRequest() == null) {
+            return -1;
+        }
+        String path = context.getClientRequest().getUrl().getPath();
+        if (path == null) {
+            return -1;
+        }
+        for (String prefix : new String[] {"/user/", "/user-with-data/"}) {
+            int at = path.lastIndexOf(prefix);
+            if (at >= 0) {
+                return parseId(path, at + prefix.length());
+            }
+        }
+        return -1;
+    }
+
+    private static long parseId(String path, int from) {
+        long id = 0;
+        int i = from;
+        for (; i < path.length() && path.charAt(i) != '/'; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9' || id > (Long.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return i == from ? -1 : id;
+    }
+}
@@ -0,0 +1,156 @@
+package demo1.httprestclientservice.metrics;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency instrumentation for the calls we make to the backend.
+ *
+ *  - proxy.client.latency   tagged by service + HttpClientInterface method + outcome
+ *  - proxy.instance.latency tagged by the instance's service + ServiceInstance (host:port) + outcome
+ *
+ * Both are Micrometer Timers with a percentile histogram, i.e. they are recorded into HdrHistogram
+ * (Micrometer's TimeWindowPercentileHistogram) and published as Prometheus buckets on /actuator/prometheus.
+ *
+ * NB! Tag cardinality is bounded on purpose:
+ *  - methods are a fixed set (one per HttpClientInterface method), their timers are created once and
+ *    held by the caller (see InstrumentedHttpClientInterface), so the hot path does no lookup and no
+ *    tag/String allocation at all;
+ *  - instances are cached per service + host:port for as long as the instance is in its service's instance
+ *    list: when the load balancer's list no longer has it (scaled down, redeployed on a new port), its
+ *    timers are removed from the registry (see InstanceTimersServiceInstanceListSupplier and retainInstances).
+ */
+@Component
+public class ClientLatencyMetrics {
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    private final MeterRegistry registry;
+    private final String serviceId;
+    // service -> instance -> timers
+    private final ConcurrentMap<String, ConcurrentMap<HostPort, OutcomeTimers>> instanceTimers = new ConcurrentHashMap<>();
+
+    public ClientLatencyMetrics(MeterRegistry registry, DserviceClientProperties props) {
+        this.registry  = registry;
+        this.serviceId = props.getServiceId();
+    }
+
+    /**
+     * Timers for one HttpClientInterface method. Call once, keep the result.
+     */
+    public OutcomeTimers forMethod(String method) {
+        return forMethod(serviceId, method);
+    }
+
+    /**
+     * Timers for one method of another downstream service (see BackendClientRegistry). Call once, keep the result.
+     */
+    public OutcomeTimers forMethod(String service, String method) {
+        return new OutcomeTimers("proxy.client.latency", Tags.of("service", service, "method", method));
+    }
+
+    /**
+     * Timers for the instance the load balancer picked.
+     */
+    public OutcomeTimers forInstance(ServiceInstance instance) {
+        // backend-service and the dservice.backends share this class: the same host:port may serve two services
+        String service = service(instance.getServiceId());
+        ConcurrentMap<HostPort, OutcomeTimers> timers = instanceTimers.computeIfAbsent(service, s -> new ConcurrentHashMap<>());
+        HostPort key = new HostPort(instance.getHost(), instance.getPort());
+        OutcomeTimers instanceTimer = timers.get(key);
+        if (instanceTimer != null) {
+            return instanceTimer;
+        }
+        return timers.computeIfAbsent(key, k -> new OutcomeTimers("proxy.instance.latency",
+                Tags.of("service", service, "instance", k.host() + ":" + k.port())));
+    }
+
+    /**
+     * Removes the timers of the instances of {@code serviceId} that are not in {@code current} any more.
+     * Called with every instance list the load balancer gets, so it allocates nothing while the list is unchanged.
+     *
+     * NB! The removal runs inside the map's compute of that key: a forInstance() of the same instance at the same
+     *     time either gets the old timers (and records into a removed meter - one lost sample) or registers new
+     *     ones after the removal - it never ends up holding meters that are no longer in the registry.
+     */
+    public void retainInstances(String serviceId, List<ServiceInstance> current) {
+        ConcurrentMap<HostPort, OutcomeTimers> timers = instanceTimers.get(service(serviceId));
+        if (timers == null || timers.isEmpty()) {
+            return;
+        }
+        for (HostPort key : timers.keySet()) {
+            if (!key.isIn(current)) {
+                timers.computeIfPresent(key, (k, gone) -> {
+                    gone.remove();
+                    return null;
+                });
+            }
+        }
+    }
+
+    // Eureka reports the application name upper-case, proxy.client.latency carries the configured one
+    private static String service(String serviceId) {
+        return serviceId == null ? "" : serviceId.toLowerCase(Locale.ROOT);
+    }
+
+
+    private record HostPort(String host, int port) {
+
+        boolean isIn(List<ServiceInstance> instances) {
+            for (int i = 0; i < instances.size(); i++) {
+                if (port == instances.get(i).getPort() && host.equals(instances.get(i).getHost())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A pre-registered pair of timers (outcome=success / outcome=error) sharing the same tags.
+     */
+    public final class OutcomeTimers {
+        private final Timer success;
+        private final Timer error;
+
+        private OutcomeTimers(String name, Tags tags) {
+            this.success = timer(name, tags.and("outcome", "success"));
+            this.error   = timer(name, tags.and("outcome", "error"));
+        }
+
+        public void record(long startNanos, boolean succeeded) {
+            (succeeded ? success : error).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordNanos(long nanos, boolean succeeded) {
+            (succeeded ? success : error).record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void remove() {
+            registry.remove(success);
+            registry.remove(error);
+        }
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry);
+    }
+}
@@ -0,0 +1,73 @@
+package demo1.httprestclientservice.metrics;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds ClientLatencyMetrics with the latency per ServiceInstance.
+ *
+ * Spring Cloud LoadBalancer calls every LoadBalancerLifecycle bean (also the ones in the parent
+ * context, like this one) around each load-balanced request:
+ *   onStart -> instance chosen -> onStartRequest -> request executed -> onComplete
+ *
+ * NB! The RestClient status handler (4xx/5xx -> custom exceptions) runs only AFTER the load balancer
+ * is done, so a 5xx still arrives here as Status.SUCCESS - that's why we also look at the status code.
+ */
+@Component
+public class InstanceLatencyLoadBalancerLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final ClientLatencyMetrics metrics;
+
+    public InstanceLatencyLoadBalancerLifecycle(ClientLatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        // nothing to do before an instance is chosen
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || completionContext.getLoadBalancerResponse() == null
+                || !completionContext.getLoadBalancerResponse().hasServer()) {
+            return;
+        }
+        Object context = completionContext.getLoadBalancerRequest().getContext();
+        if (!(context instanceof TimedRequestContext timed) || timed.getRequestStartTime() == 0) {
+            return;
+        }
+        metrics.forInstance(completionContext.getLoadBalancerResponse().getServer())
+                .recordNanos(System.nanoTime() - timed.getRequestStartTime(), succeeded(completionContext));
+    }
+
+    public static boolean succeeded(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() != CompletionContext.Status.SUCCESS) {
+            return false;
+        }
+        Object clientResponse = completionContext.getClientResponse();
+        if (clientResponse instanceof ResponseData data && data.getHttpStatus() != null) {
+            return !data.getHttpStatus().is5xxServerError();
+        }
+        return true;
+    }
+}
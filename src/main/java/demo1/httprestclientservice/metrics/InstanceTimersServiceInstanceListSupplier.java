@@ -0,0 +1,28 @@
+package demo1.httprestclientservice.metrics;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Hands every instance list the delegate emits to ClientLatencyMetrics, which drops the timers of the instances
+ * that are gone. Sits right above discovery (or the fixed list), so an ejected or other-zone instance keeps its
+ * timers - it is still there, just not chosen right now.
+ */
+public class InstanceTimersServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final ClientLatencyMetrics metrics;
+
+    public InstanceTimersServiceInstanceListSupplier(ServiceInstanceListSupplier delegate, ClientLatencyMetrics metrics) {
+        super(delegate);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get().doOnNext(instances -> metrics.retainInstances(getServiceId(), instances));
+    }
+}
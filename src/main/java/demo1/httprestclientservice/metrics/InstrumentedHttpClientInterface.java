@@ -0,0 +1,146 @@
+package demo1.httprestclientservice.metrics;
+
+import demo1.httprestclientservice.DTOs.db.UserDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decorates the HttpServiceProxyFactory proxy and records the latency of every call per method.
+ *
+ * The timers are resolved once, in the constructor - the call path is just two System.nanoTime()
+ * calls and one Timer.record(...).
+ */
+public class InstrumentedHttpClientInterface implements HttpClientInterface {
+
+    private final HttpClientInterface delegate;
+
+    private final ClientLatencyMetrics.OutcomeTimers create;
+    private final ClientLatencyMetrics.OutcomeTimers createBatch;
+    private final ClientLatencyMetrics.OutcomeTimers getById;
+    private final ClientLatencyMetrics.OutcomeTimers getWithData;
+    private final ClientLatencyMetrics.OutcomeTimers getWithDataRaw;
+    private final ClientLatencyMetrics.OutcomeTimers proxyGetCustomErrorResponse;
+    private final ClientLatencyMetrics.OutcomeTimers ping;
+    private final ClientLatencyMetrics.OutcomeTimers uploadFile;
+
+    public InstrumentedHttpClientInterface(HttpClientInterface delegate, ClientLatencyMetrics metrics) {
+        this.delegate = delegate;
+        this.create                      = metrics.forMethod("create");
+        this.createBatch                 = metrics.forMethod("createBatch");
+        this.getById                     = metrics.forMethod("getById");
+        this.getWithData                 = metrics.forMethod("getWithData");
+        this.getWithDataRaw              = metrics.forMethod("getWithDataRaw");
+        this.proxyGetCustomErrorResponse = metrics.forMethod("proxyGetCustomErrorResponse");
+        this.ping                        = metrics.forMethod("ping");
+        this.uploadFile                  = metrics.forMethod("uploadFile");
+    }
+
+    @Override
+    public ResponseEntity<UserDbDTO> create(UserDbDTO body) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ResponseEntity<UserDbDTO> response = delegate.create(body);
+            ok = true;
+            return response;
+        } finally {
+            create.record(start, ok);
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<UserDbDTO>> createBatch(List<UserDbDTO> body) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ResponseEntity<List<UserDbDTO>> response = delegate.createBatch(body);
+            ok = true;
+            return response;
+        } finally {
+            createBatch.record(start, ok);
+        }
+    }
+
+    @Override
+    public ResponseEntity<UserDTO> getById(Long id, String apiVersion) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ResponseEntity<UserDTO> response = delegate.getById(id, apiVersion);
+            ok = true;
+            return response;
+        } finally {
+            getById.record(start, ok);
+        }
+    }
+
+    @Override
+    public ResponseEntity<UserDbDTO> getWithData(Long id, Map<String, String> dynamicHeaders) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ResponseEntity<UserDbDTO> response = delegate.getWithData(id, dynamicHeaders);
+            ok = true;
+            return response;
+        } finally {
+            getWithData.record(start, ok);
+        }
+    }
+
+    @Override
+    public ResponseEntity<byte[]> getWithDataRaw(Long id, String fields, Map<String, String> dynamicHeaders) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ResponseEntity<byte[]> response = delegate.getWithDataRaw(id, fields, dynamicHeaders);
+            ok = true;
+            return response;
+        } finally {
+            getWithDataRaw.record(start, ok);
+        }
+    }
+
+    @Override
+    public ResponseEntity<String> proxyGetCustomErrorResponse(int code) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ResponseEntity<String> response = delegate.proxyGetCustomErrorResponse(code);
+            ok = true;
+            return response;
+        } finally {
+            proxyGetCustomErrorResponse.record(start, ok);
+        }
+    }
+
+    @Override
+    public Map<String, String> ping() {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            Map<String, String> response = delegate.ping();
+            ok = true;
+            return response;
+        } finally {
+            ping.record(start, ok);
+        }
+    }
+
+    @Override
+    public ResponseEntity<Void> uploadFile(Resource file) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ResponseEntity<Void> response = delegate.uploadFile(file);
+            ok = true;
+            return response;
+        } finally {
+            uploadFile.record(start, ok);
+        }
+    }
+}
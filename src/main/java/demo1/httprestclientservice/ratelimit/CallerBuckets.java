@@ -0,0 +1,105 @@
+package demo1.httprestclientservice.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * The per-caller buckets of RateLimitingFilter: a map with at most maxSize entries, evicted with CLOCK
+ * (second chance) instead of scanning the whole map when it is full.
+ *
+ *  1. get() of a tracked caller is a ConcurrentHashMap lookup + setting a "referenced" flag - no lock;
+ *  2. add() of a new caller takes the lock; while there is room it appends, afterwards the clock hand moves
+ *     over the ring: a referenced entry gets its flag cleared (second chance), the first unreferenced one
+ *     is evicted and its slot reused - amortized O(1), at most two laps;
+ *  3. a new entry starts UNreferenced, so a caller seen only once (e.g. a rotated API key) is the next victim,
+ *     while callers that came back since the hand last passed them stay.
+ */
+final class CallerBuckets {
+
+    private final int maxSize;
+    private final ConcurrentMap<String, Entry> index = new ConcurrentHashMap<>();
+    private final List<Entry> ring = new ArrayList<>();   // guarded by this
+    private int hand;                                     // guarded by this
+
+    CallerBuckets(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be >= 1");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the caller's bucket, or null if it is not tracked (any more)
+     */
+    TokenBucket get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;                      // only write when it changes - keeps the cache line shared
+        }
+        return entry.bucket;
+    }
+
+    /**
+     * @return the caller's bucket - the tracked one, or a new one from the factory (evicting another caller if full)
+     */
+    synchronized TokenBucket add(String key, Supplier<TokenBucket> factory) {
+        Entry existing = index.get(key);
+        if (existing != null) {
+            existing.referenced = true;
+            return existing.bucket;                       // another request thread was first
+        }
+        Entry entry = new Entry(key, factory.get());
+        if (ring.size() < maxSize) {
+            ring.add(entry);
+        } else {
+            ring.set(victim(), entry);
+        }
+        index.put(key, entry);
+        return entry.bucket;
+    }
+
+    synchronized void clear() {
+        index.clear();
+        ring.clear();
+        hand = 0;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Moves the hand to the first unreferenced entry and forgets it.
+     * NB! get() may set flags again behind the hand - after two laps the entry under the hand is taken anyway.
+     */
+    private int victim() {
+        for (int step = 0; ; step++) {
+            int slot = hand;
+            hand = (hand + 1) % ring.size();
+            Entry entry = ring.get(slot);
+            if (entry.referenced && step < 2 * ring.size()) {
+                entry.referenced = false;
+                continue;
+            }
+            index.remove(entry.key, entry);
+            return slot;
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final TokenBucket bucket;
+        volatile boolean referenced;
+
+        Entry(String key, TokenBucket bucket) {
+            this.key = key;
+            this.bucket = bucket;
+        }
+    }
+}
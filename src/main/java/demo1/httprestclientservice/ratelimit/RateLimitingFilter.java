@@ -0,0 +1,199 @@
+package demo1.httprestclientservice.ratelimit;
+
+import demo1.httprestclientservice.config.ClientRuntimeSettings;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protects backend-service from a single abusive caller: every /proxy/** request must get a permit from
+ *  1. the bucket of its caller (API key header, or the remote address when there is none), and
+ *  2. the bucket of its route (/proxy/user, /proxy/upload, ...), if that route has a limit.
+ * Otherwise it is answered right here with 429 + Retry-After, without touching the backend.
+ *
+ * All buckets are TokenBucket (one AtomicLong each). The per-caller buckets live in two CallerBuckets
+ * (one for API keys, one for remote addresses, max-tracked-callers each, CLOCK eviction), the per-route
+ * buckets are created once at startup - a known caller takes no lock anywhere on this path.
+ *
+ * NB! An API key we do not track (yet) is charged on the bucket of its remote address, and only gets a bucket
+ * of its own once such a request was allowed. So rotating API keys from one address are limited like that
+ * address, and can replace tracked callers no faster than that address's limit - a real caller who comes back
+ * before the clock hand does keeps its bucket.
+ *
+ * NB! "Remote address" is the client's address only with server.forward-headers-strategy: native (see
+ *     application.yml) - behind a load balancer getRemoteAddr() would otherwise be the balancer itself, and every
+ *     caller without an API key would share its one bucket.
+ *
+ * The per-caller limit can be changed at runtime (ClientRuntimeSettings): all per-caller buckets are dropped
+ * then and refilled with the new limit on the callers' next requests. The per-route limits are startup-only.
+ *
+ * Metrics: proxy.ratelimit.requests{result=allowed} / {result=limited, scope=caller|route}
+ */
+@Component
+@Order(RateLimitingFilter.ORDER)
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    private static final String PROXY_PREFIX = "/proxy/";
+
+    private final DserviceClientProperties.RateLimit settings;
+    private final ClientRuntimeSettings runtime;
+    private final CallerBuckets keyBuckets;
+    private final CallerBuckets addressBuckets;
+    private volatile ClientRuntimeSettings.Settings bucketSettings;   // the settings the caller buckets were made with
+    private final String[] routePrefixes;
+    private final TokenBucket[] routeBuckets;
+
+    private final Counter allowed;
+    private final Counter limitedByCaller;
+    private final Counter limitedByRoute;
+
+    public RateLimitingFilter(DserviceClientProperties props, ClientRuntimeSettings runtime, MeterRegistry registry) {
+        this.settings = props.getRateLimit();
+        this.runtime = runtime;
+        this.bucketSettings = runtime.current();
+        this.keyBuckets = new CallerBuckets(settings.getMaxTrackedCallers());
+        this.addressBuckets = new CallerBuckets(settings.getMaxTrackedCallers());
+
+        Map<String, DserviceClientProperties.RateLimit.Limit> routes = settings.getRoutes();
+        this.routePrefixes = new String[routes.size()];
+        this.routeBuckets  = new TokenBucket[routes.size()];
+        int i = 0;
+        for (Map.Entry<String, DserviceClientProperties.RateLimit.Limit> route : routes.entrySet()) {
+            routePrefixes[i] = PROXY_PREFIX + route.getKey();
+            routeBuckets[i]  = newBucket(route.getValue());
+            i++;
+        }
+
+        this.allowed         = counter(registry, "result", "allowed", "scope", "none");
+        this.limitedByCaller = counter(registry, "result", "limited", "scope", "caller");
+        this.limitedByRoute  = counter(registry, "result", "limited", "scope", "route");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !settings.isEnabled() || !request.getRequestURI().startsWith(PROXY_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        ClientRuntimeSettings.Settings current = runtime.current();
+        if (current != bucketSettings) {
+            callerLimitChanged(current);
+        }
+
+        // 1) per caller - an untracked API key is charged on its address (see above)
+        String apiKey = apiKey(request);
+        TokenBucket callerBucket = apiKey != null ? keyBuckets.get(apiKey) : null;
+        boolean newApiKey = apiKey != null && callerBucket == null;
+        if (callerBucket == null) {
+            callerBucket = addressBucket(request.getRemoteAddr());
+        }
+        long wait = callerBucket.tryAcquire(now);
+        if (wait > 0) {
+            limitedByCaller.increment();
+            reject(response, wait);
+            return;
+        }
+
+        // 2) per route
+        TokenBucket routeBucket = routeBucket(request.getRequestURI());
+        if (routeBucket != null) {
+            wait = routeBucket.tryAcquire(now);
+            if (wait > 0) {
+                callerBucket.refund();     // the caller did nothing wrong, don't charge it
+                limitedByRoute.increment();
+                reject(response, wait);
+                return;
+            }
+        }
+
+        if (newApiKey) {
+            keyBuckets.add(apiKey, this::newCallerBucket);
+        }
+        allowed.increment();
+        chain.doFilter(request, response);
+    }
+
+
+    private String apiKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(settings.getApiKeyHeader());
+        return apiKey != null && !apiKey.isEmpty() ? apiKey : null;
+    }
+
+    private TokenBucket addressBucket(String remoteAddr) {
+        TokenBucket bucket = addressBuckets.get(remoteAddr);
+        return bucket != null ? bucket : addressBuckets.add(remoteAddr, this::newCallerBucket);
+    }
+
+    /**
+     * Called once per runtime settings change (any of them, not only the rate limit).
+     */
+    private synchronized void callerLimitChanged(ClientRuntimeSettings.Settings current) {
+        ClientRuntimeSettings.Settings previous = bucketSettings;
+        if (current == previous) {
+            return;     // another request thread was first
+        }
+        boolean limitChanged = current.perCallerPermitsPerSecond() != previous.perCallerPermitsPerSecond()
+                || current.perCallerBurst() != previous.perCallerBurst();
+        bucketSettings = current;
+        if (limitChanged) {
+            keyBuckets.clear();
+            addressBuckets.clear();
+        }
+    }
+
+    /**
+     * "/proxy/user/42" matches route "user", but not "user-with-data" (and vice versa) - no String is built.
+     */
+    private TokenBucket routeBucket(String uri) {
+        for (int i = 0; i < routePrefixes.length; i++) {
+            String prefix = routePrefixes[i];
+            if (uri.startsWith(prefix) && (uri.length() == prefix.length() || uri.charAt(prefix.length()) == '/')) {
+                return routeBuckets[i];
+            }
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too Many Requests\",\"retryAfterSeconds\":" + retryAfterSeconds + "}");
+    }
+
+    private TokenBucket newCallerBucket() {
+        ClientRuntimeSettings.Settings current = bucketSettings;
+        return new TokenBucket(current.perCallerPermitsPerSecond(), current.perCallerBurst());
+    }
+
+    private static TokenBucket newBucket(DserviceClientProperties.RateLimit.Limit limit) {
+        return new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst());
+    }
+
+    private static Counter counter(MeterRegistry registry, String... tags) {
+        return Counter.builder("proxy.ratelimit.requests")
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -0,0 +1,55 @@
+package demo1.httprestclientservice.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, implemented as GCRA (generic cell rate algorithm).
+ *
+ * Instead of a token count + a last-refill timestamp (two values -> needs a lock or a packed long),
+ * the whole state is ONE long: the "theoretical arrival time" (TAT) of the next request.
+ *  - every permit pushes the TAT one emission interval (1s / rate) into the future,
+ *  - a request is allowed while the TAT is at most burst * interval ahead of now,
+ *  - an idle bucket simply has TAT <= now (= full bucket, nothing to refill).
+ *
+ * So tryAcquire is a single CAS loop on an AtomicLong - no lock, no allocation.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst >= 1");
+        }
+        this.intervalNanos = Math.max(1L, Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos    = intervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    /**
+     * @return 0 when a permit was taken, otherwise how many nanoseconds to wait before the next one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, nowNanos) + intervalNanos;
+            long aheadOfNow = newTat - nowNanos;
+            if (aheadOfNow > burstNanos) {
+                return aheadOfNow - burstNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit taken by tryAcquire (e.g. when a later check rejected the request anyway).
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,203 @@
+package demo1.httprestclientservice.shedding;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for the request threads: at most maxInFlight requests run at once, the others wait in
+ * a bounded queue - one FIFO per Priority - or are shed.
+ *
+ *  1. a request runs at once when there is a free slot for its priority and nobody of the same or a higher
+ *     priority is waiting; the last reservedForCritical slots are for CRITICAL only, so a flood of normal work
+ *     cannot take the capacity the critical reads need;
+ *  2. otherwise it waits, at most maxWaitNanos (its queue age limit) - then it is shed (SHED_QUEUE_AGE);
+ *  3. when the queue is full, the oldest request of the LOWEST priority waiting is shed to make room
+ *     (SHED_EVICTED) - unless the newcomer itself has an even lower priority, then it is shed (SHED_QUEUE_FULL);
+ *  4. every release() hands the free slot to the oldest request of the highest waiting priority.
+ *
+ * So under overload the cheap-to-lose work goes first, and within a priority the oldest (the one most likely
+ * to be given up by its caller anyway) - while the critical requests see at most their queue age as extra latency.
+ *
+ * One lock guards the counters and the queues; it is only held for a few field updates, the waiting happens
+ * outside of it (LockSupport.park, woken up by whoever decided the outcome).
+ *
+ * NB! Every ADMITTED acquire must be followed by exactly one release().
+ */
+public class LoadShedder {
+
+    public enum Outcome {
+        ADMITTED,
+        SHED_QUEUE_FULL,
+        SHED_EVICTED,
+        SHED_QUEUE_AGE
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final int maxInFlight;
+    private final int reservedForCritical;
+    private final int maxQueued;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter>[] queues;      // by Priority ordinal, oldest first
+    private int inFlight;                           // guarded by lock
+    private int queued;                             // guarded by lock
+
+    @SuppressWarnings("unchecked")
+    public LoadShedder(int maxInFlight, int reservedForCritical, int maxQueued) {
+        if (maxInFlight < 1 || reservedForCritical < 0 || reservedForCritical >= maxInFlight || maxQueued < 0) {
+            throw new IllegalArgumentException(
+                    "maxInFlight must be >= 1, 0 <= reservedForCritical < maxInFlight and maxQueued >= 0");
+        }
+        this.maxInFlight = maxInFlight;
+        this.reservedForCritical = reservedForCritical;
+        this.maxQueued = maxQueued;
+        this.queues = new ArrayDeque[PRIORITIES.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Blocks until the request may run or is shed. An interrupt while waiting sheds it (SHED_QUEUE_AGE) and
+     * keeps the interrupt flag.
+     */
+    public Outcome acquire(Priority priority, long maxWaitNanos) {
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (inFlight < limit(priority) && !waitingAtOrAbove(priority)) {
+                inFlight++;
+                return Outcome.ADMITTED;
+            }
+            if (maxWaitNanos <= 0) {
+                return Outcome.SHED_QUEUE_AGE;
+            }
+            if (queued >= maxQueued) {
+                Waiter victim = lowestOldest();
+                if (victim == null || victim.priority.ordinal() < priority.ordinal()) {
+                    return Outcome.SHED_QUEUE_FULL;
+                }
+                queues[victim.priority.ordinal()].pollFirst();
+                queued--;
+                complete(victim, Outcome.SHED_EVICTED);
+            }
+            waiter = new Waiter(priority, System.nanoTime() + maxWaitNanos);
+            queues[priority.ordinal()].addLast(waiter);
+            queued++;
+        } finally {
+            lock.unlock();
+        }
+
+        boolean interrupted = false;
+        while (waiter.outcome == null) {
+            long left = waiter.expiresAt - System.nanoTime();
+            if (left <= 0) {
+                break;
+            }
+            LockSupport.parkNanos(this, left);
+            if (Thread.interrupted()) {
+                interrupted = true;
+                break;
+            }
+        }
+        if (waiter.outcome == null) {
+            lock.lock();
+            try {
+                if (waiter.outcome == null) {      // nobody decided in the meantime: it has been waiting too long
+                    queues[priority.ordinal()].remove(waiter);
+                    queued--;
+                    waiter.outcome = Outcome.SHED_QUEUE_AGE;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return waiter.outcome;
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+            for (Priority priority : PRIORITIES) {
+                ArrayDeque<Waiter> queue = queues[priority.ordinal()];
+                while (!queue.isEmpty() && inFlight < limit(priority)) {
+                    Waiter next = queue.pollFirst();
+                    queued--;
+                    if (now - next.expiresAt >= 0) {
+                        complete(next, Outcome.SHED_QUEUE_AGE);     // too old already, try the next one
+                    } else {
+                        inFlight++;
+                        complete(next, Outcome.ADMITTED);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int limit(Priority priority) {
+        return priority == Priority.CRITICAL ? maxInFlight : maxInFlight - reservedForCritical;
+    }
+
+    private boolean waitingAtOrAbove(Priority priority) {
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (!queues[i].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Waiter lowestOldest() {
+        for (int i = queues.length - 1; i >= 0; i--) {
+            Waiter oldest = queues[i].peekFirst();
+            if (oldest != null) {
+                return oldest;
+            }
+        }
+        return null;
+    }
+
+    private static void complete(Waiter waiter, Outcome outcome) {
+        waiter.outcome = outcome;
+        LockSupport.unpark(waiter.thread);
+    }
+
+    private static final class Waiter {
+        final Thread thread = Thread.currentThread();
+        final Priority priority;
+        final long expiresAt;
+        volatile Outcome outcome;       // null while waiting, set once under the lock
+
+        Waiter(Priority priority, long expiresAt) {
+            this.priority = priority;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package demo1.httprestclientservice.shedding;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.deadline.RequestDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the proxy responsive under overload: every /proxy/** request gets a priority from its route
+ * (dservice.load-shedding.routes, e.g. ping and user = critical, upload = sheddable) and must be admitted by
+ * the LoadShedder before it runs. A shed request is answered with 503 + Retry-After right here.
+ *
+ * The time a request may wait in the queue is max-queue-age of its priority - or less, when the caller's
+ * deadline (see DeadlineFilter) ends earlier: there is no point in running a request nobody waits for anymore.
+ *
+ * Runs after the rate limiter: a caller over its own limit gets its 429 without taking a queue place.
+ *
+ * NB! A queued request waits ON its Tomcat thread. So max-in-flight + max-queued must stay below
+ *     server.tomcat.threads.max, with some threads left for the requests this filter does not see (actuator,
+ *     health probes): otherwise Tomcat runs out of threads first, and the overflow waits in Tomcat's accept
+ *     queue - unprioritized and without any queue age. The filter refuses to start with such a configuration.
+ *
+ * Metrics:
+ *   proxy.shedding.requests{priority, result=admitted|shed_queue_full|shed_evicted|shed_queue_age}
+ *   proxy.shedding.queue.wait{priority}     time from arrival to admission
+ *   proxy.shedding.inflight, proxy.shedding.queued
+ */
+@Component
+@Order(LoadSheddingFilter.ORDER)
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 15;
+
+    private static final String PROXY_PREFIX = "/proxy/";
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final LoadShedder.Outcome[] OUTCOMES = LoadShedder.Outcome.values();
+
+    private final DserviceClientProperties.LoadShedding settings;
+    private final LoadShedder shedder;
+    private final String[] routePrefixes;
+    private final Priority[] routePriorities;
+    private final long[] maxQueueAgeNanos;      // by Priority ordinal
+
+    private final Counter[][] requests;         // [priority][outcome]
+    private final Timer[] queueWait;            // by Priority ordinal
+
+    public LoadSheddingFilter(DserviceClientProperties props, MeterRegistry registry, Environment environment) {
+        this.settings = props.getLoadShedding();
+        int tomcatThreads = environment.getProperty("server.tomcat.threads.max", Integer.class, 200);
+        if (settings.isEnabled() && settings.getMaxInFlight() + settings.getMaxQueued() >= tomcatThreads) {
+            throw new IllegalStateException("dservice.load-shedding.max-in-flight + max-queued ("
+                    + (settings.getMaxInFlight() + settings.getMaxQueued())
+                    + ") must be below server.tomcat.threads.max (" + tomcatThreads + ")");
+        }
+        this.shedder = new LoadShedder(settings.getMaxInFlight(), settings.getReservedForCritical(),
+                settings.getMaxQueued());
+
+        Map<String, Priority> routes = settings.getRoutes();
+        this.routePrefixes   = new String[routes.size()];
+        this.routePriorities = new Priority[routes.size()];
+        int i = 0;
+        for (Map.Entry<String, Priority> route : routes.entrySet()) {
+            routePrefixes[i]   = PROXY_PREFIX + route.getKey();
+            routePriorities[i] = route.getValue();
+            i++;
+        }
+
+        this.maxQueueAgeNanos = new long[PRIORITIES.length];
+        this.requests = new Counter[PRIORITIES.length][OUTCOMES.length];
+        this.queueWait = new Timer[PRIORITIES.length];
+        for (Priority priority : PRIORITIES) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            Duration maxAge = settings.getMaxQueueAge().getOrDefault(priority, Duration.ZERO);
+            maxQueueAgeNanos[priority.ordinal()] = maxAge.toNanos();
+            for (LoadShedder.Outcome outcome : OUTCOMES) {
+                requests[priority.ordinal()][outcome.ordinal()] = Counter.builder("proxy.shedding.requests")
+                        .tag("priority", tag)
+                        .tag("result", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+            queueWait[priority.ordinal()] = Timer.builder("proxy.shedding.queue.wait")
+                    .tag("priority", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        }
+
+        Gauge.builder("proxy.shedding.inflight", shedder, LoadShedder::inFlight).register(registry);
+        Gauge.builder("proxy.shedding.queued", shedder, LoadShedder::queued).register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !settings.isEnabled() || !request.getRequestURI().startsWith(PROXY_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long arrival = System.nanoTime();
+        Priority priority = priority(request.getRequestURI());
+
+        long maxWait = maxQueueAgeNanos[priority.ordinal()];
+        long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis != Long.MAX_VALUE) {
+            maxWait = Math.min(maxWait, TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis)));
+        }
+
+        LoadShedder.Outcome outcome = shedder.acquire(priority, maxWait);
+        requests[priority.ordinal()][outcome.ordinal()].increment();
+        if (outcome != LoadShedder.Outcome.ADMITTED) {
+            reject(response, priority);
+            return;
+        }
+        queueWait[priority.ordinal()].record(System.nanoTime() - arrival, TimeUnit.NANOSECONDS);
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            shedder.release();
+        }
+    }
+
+    /**
+     * Same matching as the rate limiter's routes: "/proxy/user/42" is route "user", not "user-with-data".
+     */
+    private Priority priority(String uri) {
+        for (int i = 0; i < routePrefixes.length; i++) {
+            String prefix = routePrefixes[i];
+            if (uri.startsWith(prefix) && (uri.length() == prefix.length() || uri.charAt(prefix.length()) == '/')) {
+                return routePriorities[i];
+            }
+        }
+        return settings.getDefaultPriority();
+    }
+
+    private static void reject(HttpServletResponse response, Priority priority) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Service Unavailable\",\"reason\":\"overloaded\",\"priority\":\""
+                + priority.name().toLowerCase(Locale.ROOT) + "\"}");
+    }
+}
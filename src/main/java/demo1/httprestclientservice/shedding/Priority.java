@@ -0,0 +1,11 @@
+package demo1.httprestclientservice.shedding;
+
+/**
+ * Priority class of a /proxy/** route under overload (dservice.load-shedding.routes), highest first:
+ * the ordinal is the order in which queued requests are admitted, the reverse is the order in which they are shed.
+ */
+public enum Priority {
+    CRITICAL,       // health probes, single-user reads - may use the reserved slots
+    NORMAL,
+    SHEDDABLE       // bulk / expensive work (uploads) - first to go
+}
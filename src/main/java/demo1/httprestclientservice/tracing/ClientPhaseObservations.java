@@ -0,0 +1,103 @@
+package demo1.httprestclientservice.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.netty.util.AttributeKey;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.context.ContextView;
+
+/**
+ * Phase-level spans for the Reactor Netty client, so a slow /proxy/user/{id} call can be broken down:
+ *
+ *   GET /proxy/user/{id}                       (Spring MVC server observation, continues the inbound traceparent)
+ *    └─ http get                               (RestClient observation, injects the W3C traceparent header)
+ *        ├─ proxy.loadbalancer.select          (LoadBalancerObservationLifecycle)
+ *        ├─ proxy.client.phase phase=acquire   (pool acquire, incl. a new connection if one is needed)
+ *        │    ├─ hostname resolution / connect / tls handshake   (Reactor Netty's own observations)
+ *        ├─ proxy.client.phase phase=ttfb      (request written -> response headers received = backend processing)
+ *        └─ proxy.client.phase phase=body      (response headers -> last byte of the body)
+ *
+ * The parent observation reaches the Netty event loop through the Reactor Context
+ * (spring.reactor.context-propagation=auto captures the RestClient observation when the request blocks).
+ *
+ * Every phase is also a timer: proxy.client.phase{phase=acquire|ttfb|body}.
+ */
+@Component
+public class ClientPhaseObservations {
+
+    static final String PHASE_OBSERVATION = "proxy.client.phase";
+
+    private static final AttributeKey<Observation> OPEN_PHASE = AttributeKey.valueOf("proxy.client.phase.open");
+
+    private final ObservationRegistry registry;
+
+    public ClientPhaseObservations(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    public HttpClient instrument(HttpClient client) {
+        return client
+                // 1) pool acquire (and connect/TLS when the pool has to open a new connection)
+                .mapConnect(connect -> Mono.deferContextual(ctx -> {
+                    Observation acquire = startPhase("acquire", parentOf(ctx));
+                    return connect
+                            .doOnNext(conn -> acquire.stop())
+                            .doOnError(error -> {
+                                acquire.error(error);
+                                acquire.stop();
+                            })
+                            .doOnCancel(acquire::stop);
+                }))
+                // 2) request fully written -> waiting for the first byte of the response
+                .doAfterRequest((request, conn) ->
+                        openPhase(conn, startPhase("ttfb", parentOf(request.currentContextView()))))
+                // 3) response headers received -> reading the body
+                .doOnResponse((response, conn) -> {
+                    closePhase(conn, null);
+                    openPhase(conn, startPhase("body", parentOf(response.currentContextView())));
+                })
+                // 4) body completely received
+                .doAfterResponseSuccess((response, conn) -> closePhase(conn, null))
+                // 5) connection given back / dropped while a phase was still open (timeouts, resets, ...)
+                .observe((conn, state) -> {
+                    if (state == ConnectionObserver.State.RELEASED || state == ConnectionObserver.State.DISCONNECTING) {
+                        closePhase(conn, new IllegalStateException("connection " + state + " before the response completed"));
+                    }
+                });
+    }
+
+    private Observation startPhase(String phase, Observation parent) {
+        return Observation.createNotStarted(PHASE_OBSERVATION, registry)
+                .contextualName(phase)
+                .lowCardinalityKeyValue("phase", phase)
+                .parentObservation(parent)
+                .start();
+    }
+
+    private static Observation parentOf(ContextView ctx) {
+        Object parent = ctx.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        return parent instanceof Observation observation ? observation : null;
+    }
+
+    private static void openPhase(Connection conn, Observation phase) {
+        Observation previous = conn.channel().attr(OPEN_PHASE).getAndSet(phase);
+        if (previous != null) {
+            previous.stop();
+        }
+    }
+
+    private static void closePhase(Connection conn, Throwable error) {
+        Observation phase = conn.channel().attr(OPEN_PHASE).getAndSet(null);
+        if (phase != null) {
+            if (error != null) {
+                phase.error(error);
+            }
+            phase.stop();
+        }
+    }
+}
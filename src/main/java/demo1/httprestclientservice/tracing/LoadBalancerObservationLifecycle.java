@@ -0,0 +1,75 @@
+package demo1.httprestclientservice.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.stereotype.Component;
+
+/**
+ * A "proxy.loadbalancer.select" span around the instance selection done by MyLoadBalancerConfig's
+ * ServiceInstanceListSupplier chain + the load balancer.
+ *
+ * NB! Our RestClient is blocking, so BlockingLoadBalancerClient calls onStart -> onStartRequest
+ * (or onComplete with DISCARD when no instance was found) on the caller's thread, one after another.
+ * That's why the open observation can simply live in a ThreadLocal.
+ */
+@Component
+public class LoadBalancerObservationLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    static final String SELECT_OBSERVATION = "proxy.loadbalancer.select";
+
+    private static final ThreadLocal<Observation> SELECTION = new ThreadLocal<>();
+
+    private final ObservationRegistry registry;
+
+    public LoadBalancerObservationLifecycle(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        Observation selection = Observation.createNotStarted(SELECT_OBSERVATION, registry)
+                .contextualName("loadbalancer select")
+                .parentObservation(registry.getCurrentObservation())
+                .start();
+        SELECTION.set(selection);
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        Observation selection = SELECTION.get();
+        if (selection == null) {
+            return;
+        }
+        SELECTION.remove();
+        if (lbResponse != null && lbResponse.hasServer()) {
+            ServiceInstance instance = lbResponse.getServer();
+            selection.lowCardinalityKeyValue("service", String.valueOf(instance.getServiceId()));
+            selection.highCardinalityKeyValue("instance", instance.getHost() + ":" + instance.getPort());
+        }
+        selection.stop();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        // only still open when no instance could be chosen
+        Observation selection = SELECTION.get();
+        if (selection == null) {
+            return;
+        }
+        SELECTION.remove();
+        selection.error(completionContext.getThrowable() != null
+                ? completionContext.getThrowable()
+                : new IllegalStateException("No instance available"));
+        selection.stop();
+    }
+}
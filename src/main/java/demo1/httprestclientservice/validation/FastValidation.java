@@ -0,0 +1,239 @@
+package demo1.httprestclientservice.validation;
+
+import java.net.IDN;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Runtime helpers called by the generated *FastValidator classes.
+ *
+ * NB! The semantics follow Hibernate Validator, which the backend still runs: null is valid for every
+ * constraint except @NotNull/@NotBlank, @NotBlank trims like String.trim(), and @Past/@PastOrPresent compare
+ * against the JVM's default time zone.
+ */
+public final class FastValidation {
+
+    private FastValidation() {
+    }
+
+    /** Violations are rare, so the list is only created for the first one. */
+    public static List<FieldViolation> add(List<FieldViolation> violations, String field, String message) {
+        if (violations == null) {
+            violations = new ArrayList<>(4);
+        }
+        violations.add(new FieldViolation(field, message));
+        return violations;
+    }
+
+    public static boolean isBlank(CharSequence value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hibernate Validator's @Email rules (AbstractEmailValidator + DomainNameUtil), without its regexes for the
+     * usual all-ASCII address:
+     *  1. the empty string is valid (@NotBlank is the constraint for that), otherwise the LAST '@' splits it;
+     *  2. local part: at most 64 chars, dot-separated segments, each either atom chars (a-z A-Z 0-9
+     *     !#$%&amp;'*+/=?^_`{|}~- and U+0080..U+FFFF) or a quoted string, no empty segment;
+     *  3. domain: no trailing '.', IDN-converted to ASCII (labels of at most 63 chars), at most 255 chars,
+     *     dot-separated labels of domain chars and '-' that neither start nor end with '-' - or an address
+     *     literal [1.2.3.4] / [IPv6:...].
+     * NB! Code points above U+FFFF (e.g. emoji) are not in Hibernate's ranges, so they are invalid here too.
+     */
+    public static boolean isEmail(CharSequence value) {
+        if (value.length() == 0) {
+            return true;
+        }
+        String email = value.toString();
+        int at = email.lastIndexOf('@');
+        if (at < 0) {
+            return false;
+        }
+        return isEmailLocalPart(email, at) && isEmailDomain(email.substring(at + 1));
+    }
+
+    private static boolean isEmailLocalPart(String email, int end) {
+        if (end > 64) {
+            return false;
+        }
+        int i = 0;
+        while (true) {
+            if (i < end && email.charAt(i) == '"') {
+                i = quotedString(email, i + 1, end);
+            } else {
+                int start = i;
+                while (i < end && isAtomChar(email, i)) {
+                    i++;
+                }
+                if (i == start) {
+                    return false;                          // empty segment
+                }
+            }
+            if (i < 0) {
+                return false;
+            }
+            if (i == end) {
+                return true;
+            }
+            if (email.charAt(i) != '.') {
+                return false;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * @return the index after the closing quote, or -1 when the quoted string is empty or not closed
+     */
+    private static int quotedString(String email, int from, int end) {
+        int i = from;
+        while (i < end) {
+            char c = email.charAt(i);
+            if (c == '"') {
+                return i == from ? -1 : i + 1;
+            }
+            if (c == '\\') {
+                // only the escapes \\ and \" are allowed
+                if (i + 1 >= end || (email.charAt(i + 1) != '\\' && email.charAt(i + 1) != '"')) {
+                    return -1;
+                }
+                i += 2;
+            } else if (isQuotedChar(email, i)) {
+                i++;
+            } else {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAtomChar(String s, int i) {
+        char c = s.charAt(i);
+        return isAlphaNumeric(c) || "!#$%&'*+/=?^_`{|}~-".indexOf(c) >= 0 || isBmpNonAscii(s, i);
+    }
+
+    private static boolean isQuotedChar(String s, int i) {
+        char c = s.charAt(i);
+        return isAlphaNumeric(c) || "!#$%&'*.(),<>[]:; @+/=?^_`{|}~-".indexOf(c) >= 0 || isBmpNonAscii(s, i);
+    }
+
+    private static boolean isEmailDomain(String domain) {
+        if (domain.endsWith(".")) {
+            return false;                                  // IDN.toASCII would drop it
+        }
+        if (domain.startsWith("[")) {
+            return IP_LITERAL.matcher(domain).matches();   // rare, the regex is fine here
+        }
+        String ascii = domain;
+        for (int i = 0; i < domain.length(); i++) {
+            if (domain.charAt(i) >= 0x80) {
+                try {
+                    ascii = IDN.toASCII(domain);
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+                break;
+            }
+        }
+        if (ascii.isEmpty() || ascii.length() > 255) {
+            return false;
+        }
+        int labelStart = 0;
+        for (int i = 0; i <= ascii.length(); i++) {
+            if (i == ascii.length() || ascii.charAt(i) == '.') {
+                if (i == labelStart || i - labelStart > 63
+                        || ascii.charAt(labelStart) == '-' || ascii.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else {
+                char c = ascii.charAt(i);
+                if (!isAlphaNumeric(c) && "!#$%&'*+/=?^_`{|}~-".indexOf(c) < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAlphaNumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /** U+0080..U+FFFF as one code point - a surrogate pair is a code point above U+FFFF. */
+    private static boolean isBmpNonAscii(String s, int i) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+            return false;
+        }
+        if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            return false;
+        }
+        return !(Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(s.charAt(i - 1)));
+    }
+
+    private static final String IP_V4 = "[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}\\.[0-9]{1,3}";
+    private static final String IP_V6_PART = "(?:25[0-5]|(?:2[0-4]|1{0,1}[0-9]){0,1}[0-9])";
+    private static final String IP_V6 = "(?:(?:[0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}|(?:[0-9a-fA-F]{1,4}:){1,7}:"
+            + "|(?:[0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|(?:[0-9a-fA-F]{1,4}:){1,5}(?::[0-9a-fA-F]{1,4}){1,2}"
+            + "|(?:[0-9a-fA-F]{1,4}:){1,4}(?::[0-9a-fA-F]{1,4}){1,3}|(?:[0-9a-fA-F]{1,4}:){1,3}(?::[0-9a-fA-F]{1,4}){1,4}"
+            + "|(?:[0-9a-fA-F]{1,4}:){1,2}(?::[0-9a-fA-F]{1,4}){1,5}|[0-9a-fA-F]{1,4}:(?:(?::[0-9a-fA-F]{1,4}){1,6})"
+            + "|:(?:(?::[0-9a-fA-F]{1,4}){1,7}|:)|fe80:(?::[0-9a-fA-F]{0,4}){0,4}%[0-9a-zA-Z]{1,}"
+            + "|::(?:ffff(?::0{1,4}){0,1}:){0,1}(?:" + IP_V6_PART + "\\.){3,3}" + IP_V6_PART
+            + "|(?:[0-9a-fA-F]{1,4}:){1,4}:(?:" + IP_V6_PART + "\\.){3,3}" + IP_V6_PART + ")";
+    private static final Pattern IP_LITERAL = Pattern.compile(
+            "\\[" + IP_V4 + "\\]|\\[IPv6:" + IP_V6 + "\\]", Pattern.CASE_INSENSITIVE);
+
+    // ───────────── "now" for @Past / @PastOrPresent, recomputed at most once per millisecond ─────────────
+
+    private static volatile Now now = new Now(System.currentTimeMillis());
+
+    private static Now now() {
+        long millis = System.currentTimeMillis();
+        Now current = now;
+        if (current.millis != millis) {
+            current = new Now(millis);
+            now = current;
+        }
+        return current;
+    }
+
+    public static LocalDate today() {
+        return now().date;
+    }
+
+    public static LocalDateTime nowDateTime() {
+        return now().dateTime;
+    }
+
+    public static Instant nowInstant() {
+        return now().instant;
+    }
+
+    private static final class Now {
+        final long millis;
+        final Instant instant;
+        final LocalDateTime dateTime;
+        final LocalDate date;
+
+        Now(long millis) {
+            this.millis = millis;
+            this.instant = Instant.ofEpochMilli(millis);
+            this.dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+            this.date = dateTime.toLocalDate();
+        }
+    }
+}
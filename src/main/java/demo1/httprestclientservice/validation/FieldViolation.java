@@ -0,0 +1,12 @@
+package demo1.httprestclientservice.validation;
+
+/**
+ * One failed constraint: the property path (e.g. "profileDataDbDTO.height") and the constraint message.
+ */
+public record FieldViolation(String field, String message) {
+
+    @Override
+    public String toString() {
+        return field + ": " + message;
+    }
+}
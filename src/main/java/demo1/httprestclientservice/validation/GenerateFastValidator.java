@@ -0,0 +1,18 @@
+package demo1.httprestclientservice.validation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a DTO for which the validation-processor module generates a &lt;Type&gt;FastValidator at compile time.
+ *
+ * The generated class checks the Jakarta constraints of the type (and of every @Valid nested type) with plain
+ * getter calls - no reflection, no metadata lookup, and nothing is allocated when the object is valid.
+ * A constraint the processor does not understand fails the build instead of being skipped silently.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateFastValidator {
+}
@@ -0,0 +1,86 @@
+package demo1.httprestclientservice.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void recordsAreConsumedInOrderAndSlotsAreReused() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(4);
+        List<Integer> seen = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                put(ring, round * 4 + i);
+            }
+            ring.drain(r -> seen.add(r.status));
+        }
+        assertEquals(12, seen.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(i, (int) seen.get(i));
+        }
+    }
+
+    @Test
+    void fullRingDropsInsteadOfWaiting() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(2);
+        put(ring, 1);
+        put(ring, 2);
+        assertEquals(-1, ring.claim());
+
+        ring.drain(r -> { });
+        assertTrue(ring.claim() >= 0);
+    }
+
+    @Test
+    void claimedButUnpublishedSlotStopsTheConsumer() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(4);
+        long first = ring.claim();          // being filled by a slow producer
+        put(ring, 2);
+
+        assertEquals(0, ring.drain(r -> { }));
+        ring.slot(first).status = 1;
+        ring.publish(first);
+        assertEquals(2, ring.drain(r -> { }));
+    }
+
+    @Test
+    void concurrentProducersLoseNothingThatWasClaimed() throws Exception {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long seq = ring.claim();
+                    if (seq >= 0) {
+                        ring.slot(seq).status = 200;
+                        ring.publish(seq);
+                        accepted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        long consumed = 0;
+        while (done.getCount() > 0 || ring.size() > 0) {
+            consumed += ring.drain(r -> assertEquals(200, r.status));
+        }
+        assertEquals(accepted.get(), consumed);
+    }
+
+    private static void put(AccessLogRingBuffer ring, int status) {
+        long seq = ring.claim();
+        ring.slot(seq).status = status;
+        ring.publish(seq);
+    }
+}
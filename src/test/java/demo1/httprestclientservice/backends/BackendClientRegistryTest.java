@@ -0,0 +1,106 @@
+package demo1.httprestclientservice.backends;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.exceptions.ClientErrorException;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import demo1.httprestclientservice.exceptions.DownstreamServiceException;
+import demo1.httprestclientservice.exceptions.UserNotFoundException;
+import demo1.httprestclientservice.metrics.ClientLatencyMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.service.annotation.GetExchange;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BackendClientRegistryTest {
+
+    interface OrderClient {
+        @GetExchange("/orders/{id}")
+        String order(@PathVariable long id);
+    }
+
+    private final MeterRegistry meters = new SimpleMeterRegistry();
+    private final DserviceClientProperties props = props("orders", "payments");
+    private final BackendClientRegistry registry = new BackendClientRegistry(
+            props, RestClient.builder(), new ClientLatencyMetrics(meters, props), meters);
+
+    @AfterEach
+    void closeRegistry() {
+        registry.destroy();
+    }
+
+    @Test
+    void clientsAreLookedUpByNameAndType() {
+        assertSame(registry.client("orders", OrderClient.class), registry.client("orders", OrderClient.class));
+        assertNotSame(registry.client("orders", OrderClient.class), registry.client("payments", OrderClient.class));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.client("inventory", OrderClient.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.client("orders", Runnable.class));
+    }
+
+    @Test
+    void anOpenBreakerOnlyStopsItsOwnBackend() {
+        registry.breaker("orders").transitionToOpenState();
+
+        // rejected before any request is made - no backend needed
+        assertThrows(CallNotPermittedException.class, () -> registry.client("orders", OrderClient.class).order(1));
+        assertEquals(CircuitBreaker.State.CLOSED, registry.breaker("payments").getState());
+        assertNotSame(registry.breaker("orders"), registry.breaker("payments"));
+    }
+
+    @Test
+    void aFullBulkheadOnlyStopsItsOwnBackend() {
+        Bulkhead orders = registry.bulkhead("orders");
+        orders.acquirePermission();
+        orders.acquirePermission();                                       // max-concurrent-calls: 2
+
+        assertThrows(BulkheadFullException.class, () -> registry.client("orders", OrderClient.class).order(1));
+        assertEquals(2, registry.bulkhead("payments").getMetrics().getAvailableConcurrentCalls());
+        assertEquals(0, registry.breaker("orders").getMetrics().getNumberOfBufferedCalls());
+    }
+
+    @Test
+    void deadlinesAndClientErrorsAreNotFailures() {
+        CircuitBreaker orders = registry.breaker("orders");
+        for (RuntimeException notTheBackendsFault : new RuntimeException[] {
+                new DeadlineExceededException("too late"),
+                new UserNotFoundException("404"),
+                new ClientErrorException("400")}) {
+            orders.acquirePermission();
+            orders.onError(1, TimeUnit.MILLISECONDS, notTheBackendsFault);
+        }
+        assertEquals(0, orders.getMetrics().getNumberOfBufferedCalls());
+
+        orders.acquirePermission();
+        orders.onError(1, TimeUnit.MILLISECONDS, new DownstreamServiceException("503"));
+        assertEquals(1, orders.getMetrics().getNumberOfFailedCalls());
+    }
+
+    private static DserviceClientProperties props(String... names) {
+        DserviceClientProperties props = new DserviceClientProperties();
+        props.setServiceId("backend-service");
+        for (String name : names) {
+            DserviceClientProperties.Backend backend = new DserviceClientProperties.Backend();
+            backend.setServiceId(name + "-service");
+            backend.setClientInterface(OrderClient.class.getName());
+            backend.setMaxConcurrentCalls(2);
+            backend.setMaxConnections(2);
+            backend.setIoThreads(1);
+            props.getBackends().put(name, backend);
+        }
+        return props;
+    }
+}
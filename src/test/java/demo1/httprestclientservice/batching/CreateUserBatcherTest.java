@@ -0,0 +1,208 @@
+package demo1.httprestclientservice.batching;
+
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.exceptions.ClientErrorException;
+import demo1.httprestclientservice.exceptions.DownstreamServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreateUserBatcherTest {
+
+    private final FakeUsers users = new FakeUsers();
+
+    @Test
+    void concurrentCreatesShareOneBulkCall() throws Exception {
+        CreateUserBatcher batcher = batcher(Duration.ofMillis(200), Duration.ofSeconds(5));
+        try {
+            List<CompletableFuture<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> batcher.create(new UserDbDTO()).getBody().getId(),
+                        runnable -> new Thread(runnable).start()));      // one thread per caller, like Tomcat
+            }
+            List<Long> ids = new ArrayList<>();
+            for (CompletableFuture<Long> result : results) {
+                ids.add(result.get(5, TimeUnit.SECONDS));
+            }
+
+            assertEquals(List.of(3), users.batchSizes);
+            assertEquals(3, ids.stream().distinct().count());
+        } finally {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void aCallerWaitsAtMostMaxWait() throws Exception {
+        users.answer = new CountDownLatch(1);              // the backend never answers on its own
+        CreateUserBatcher batcher = batcher(Duration.ofMillis(1), Duration.ofMillis(100));
+        try {
+            long start = System.nanoTime();
+            assertThrows(DownstreamServiceException.class, () -> batcher.create(new UserDbDTO()));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        } finally {
+            users.answer.countDown();
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void aCallerThatGaveUpIsLeftOutOfItsBatch() throws Exception {
+        CreateUserBatcher batcher = batcher(Duration.ofMillis(300), Duration.ofMillis(50));
+        try {
+            assertThrows(DownstreamServiceException.class, () -> batcher.create(new UserDbDTO()));
+            Thread.sleep(500);                             // the window closes, nothing is left to send
+
+            assertEquals(List.of(), users.batchSizes);
+        } finally {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void aRejectedBatchIsRetriedOneByOne() throws Exception {
+        CreateUserBatcher batcher = batcher(Duration.ofMillis(200), Duration.ofSeconds(5));
+        try {
+            List<CompletableFuture<ResponseEntity<UserDbDTO>>> results = new ArrayList<>();
+            for (String username : new String[] {"alice", FakeUsers.INVALID, "bob"}) {
+                UserDbDTO user = new UserDbDTO();
+                user.setRegistrationDataDbDTO(new RegistrationDataDbDTO());
+                user.getRegistrationDataDbDTO().setUsername(username);
+                results.add(CompletableFuture.supplyAsync(() -> batcher.create(user),
+                        runnable -> new Thread(runnable).start()));
+            }
+
+            assertNotNull(results.get(0).get(5, TimeUnit.SECONDS).getBody().getId());
+            ExecutionException rejected = assertThrows(ExecutionException.class,
+                    () -> results.get(1).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ClientErrorException.class, rejected.getCause());
+            assertNotNull(results.get(2).get(5, TimeUnit.SECONDS).getBody().getId());
+
+            assertEquals(List.of(3), users.batchSizes);
+            assertEquals(3, users.singles.get());
+        } finally {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void createsAfterShutdownAreSentOnTheirOwn() throws Exception {
+        CreateUserBatcher batcher = batcher(Duration.ofMillis(1), Duration.ofSeconds(5));
+        batcher.destroy();
+
+        assertEquals(Long.valueOf(1), batcher.create(new UserDbDTO()).getBody().getId());
+        assertEquals(1, users.singles.get());
+        assertEquals(List.of(), users.batchSizes);
+    }
+
+    private CreateUserBatcher batcher(Duration maxDelay, Duration maxWait) {
+        DserviceClientProperties props = new DserviceClientProperties();
+        DserviceClientProperties.CreateBatching settings = props.getCreateBatching();
+        settings.setEnabled(true);
+        settings.setMaxBatchSize(10);
+        settings.setMaxDelay(maxDelay);
+        settings.setMaxWait(maxWait);
+        settings.setMaxConcurrentBatches(1);
+        return new CreateUserBatcher(users, props, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Assigns ids like the backend; createBatch waits for the answer latch when one is set.
+     */
+    private static final class FakeUsers implements HttpClientInterface {
+        static final String INVALID = "invalid";                 // a username the backend answers with 400
+        final AtomicInteger ids = new AtomicInteger();
+        final AtomicInteger singles = new AtomicInteger();
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch answer;
+
+        @Override
+        public ResponseEntity<UserDbDTO> create(UserDbDTO body) {
+            singles.incrementAndGet();
+            if (isInvalid(body)) {
+                throw new ClientErrorException("My Custom Error Response: Client error: 400");
+            }
+            return ResponseEntity.ok(withId(body));
+        }
+
+        @Override
+        public ResponseEntity<List<UserDbDTO>> createBatch(List<UserDbDTO> body) {
+            batchSizes.add(body.size());
+            if (body.stream().anyMatch(FakeUsers::isInvalid)) {
+                throw new ClientErrorException("My Custom Error Response: Client error: 400");   // all or nothing
+            }
+            CountDownLatch latch = answer;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return ResponseEntity.ok(body.stream().map(this::withId).toList());
+        }
+
+        private static boolean isInvalid(UserDbDTO user) {
+            return user.getRegistrationDataDbDTO() != null
+                    && INVALID.equals(user.getRegistrationDataDbDTO().getUsername());
+        }
+
+        private UserDbDTO withId(UserDbDTO user) {
+            UserDbDTO created = new UserDbDTO();
+            created.setId((long) ids.incrementAndGet());
+            return created;
+        }
+
+        @Override
+        public ResponseEntity<UserDTO> getById(Long id, String apiVersion) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<UserDbDTO> getWithData(Long id, Map<String, String> dynamicHeaders) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<byte[]> getWithDataRaw(Long id, String fields, Map<String, String> dynamicHeaders) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<String> proxyGetCustomErrorResponse(int code) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, String> ping() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<Void> uploadFile(Resource file) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package demo1.httprestclientservice.cache;
+
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapUserCacheTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void roundTripsEveryField() throws Exception {
+        OffHeapUserCache cache = new OffHeapUserCache(null, 4, 1024, HOUR);
+        cache.put(7, user(7));
+
+        UserDbDTO cached = cache.get(7);
+
+        assertNotNull(cached);
+        assertEquals(withoutPassword(user(7)).toString(), cached.toString());
+        assertEquals(Long.valueOf(7), cached.getId());
+        assertEquals(new BigDecimal("181.50"), cached.getProfileDataDbDTO().getHeight());
+        assertEquals(Boolean.FALSE, cached.getProfileDataDbDTO().getDrinking());
+        assertNull(cached.getRegistrationDataDbDTO().getConfirmRegDate());
+    }
+
+    @Test
+    void clockEvictionKeepsRecentlyReadEntries() throws Exception {
+        OffHeapUserCache cache = new OffHeapUserCache(null, 2, 1024, HOUR);
+        cache.put(1, user(1));
+        cache.put(2, user(2));
+        cache.get(1);                 // the hand clears both bits, then takes slot 0 (id 1) ...
+        cache.put(3, user(3));
+        cache.get(3);                 // ... id 3 is read again, so the next victim is id 2
+        cache.put(4, user(4));
+
+        assertNotNull(cache.get(3));
+        assertNotNull(cache.get(4));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.evictions());
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws Exception {
+        OffHeapUserCache cache = new OffHeapUserCache(null, 4, 1024, -1);
+        cache.put(1, user(1));
+
+        assertNull(cache.get(1));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void survivesARestartThroughTheMappedFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("user-cache.bin");
+        OffHeapUserCache first = new OffHeapUserCache(file, 8, 1024, HOUR);
+        first.put(42, user(42));
+        first.close();
+
+        OffHeapUserCache restarted = new OffHeapUserCache(file, 8, 1024, HOUR);
+
+        assertEquals(1, restarted.size());
+        assertEquals(withoutPassword(user(42)).toString(), restarted.get(42).toString());
+    }
+
+    @Test
+    void recordsBiggerThanASlotAreNotCached() throws Exception {
+        OffHeapUserCache cache = new OffHeapUserCache(null, 4, 64, HOUR);
+        cache.put(1, user(1));
+
+        assertNull(cache.get(1));
+        assertTrue(cache.rejected() > 0);
+    }
+
+    @Test
+    void passwordsAreNeverCached(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("user-cache.bin");
+        OffHeapUserCache cache = new OffHeapUserCache(file, 4, 1024, HOUR);
+        cache.put(1, user(1));
+        cache.close();
+
+        assertNull(cache.get(1).getRegistrationDataDbDTO().getPassword());
+        String contents = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertFalse(contents.contains("secret"));
+    }
+
+    @Test
+    void undecodableSlotIsAMissAndIsEvicted(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("user-cache.bin");
+        OffHeapUserCache first = new OffHeapUserCache(file, 4, 1024, HOUR);
+        first.put(1, user(1));
+        first.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {99}), 64 + 32);     // format byte of slot 0's payload
+        }
+
+        OffHeapUserCache restarted = new OffHeapUserCache(file, 4, 1024, HOUR);
+
+        assertNull(restarted.get(1));
+        assertEquals(0, restarted.size());
+        assertEquals(1, restarted.misses());
+    }
+
+    private static UserDbDTO withoutPassword(UserDbDTO user) {
+        user.getRegistrationDataDbDTO().setPassword(null);
+        return user;
+    }
+
+    private static UserDbDTO user(long id) {
+        RegistrationDataDbDTO reg = new RegistrationDataDbDTO();
+        reg.setId(id);
+        reg.setUsername("user" + id);
+        reg.setEmail("user" + id + "@example.com");
+        reg.setPassword("secret");
+        reg.setRegDate(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000));
+        reg.setConfirmRegDeadline(LocalDateTime.of(2024, 5, 2, 10, 15, 30));
+
+        ProfileDataDbDTO profile = new ProfileDataDbDTO();
+        profile.setId(id);
+        profile.setLastLogin(LocalDateTime.of(2025, 1, 1, 0, 0));
+        profile.setBirthDate(LocalDate.of(1990, 2, 28));
+        profile.setCountry("Bulgaria");
+        profile.setCity("Plovdiv – Старият град");
+        profile.setMaritalStatus(MaritalStatus.values()[0]);
+        profile.setHeight(new BigDecimal("181.50"));
+        profile.setWeight(new BigDecimal("-0.000001"));
+        profile.setHairColor(HairColor.BROWN);
+        profile.setEyeColor(EyeColor.values()[EyeColor.values().length - 1]);
+        profile.setChildren(2);
+        profile.setSmoking(true);
+        profile.setDrinking(false);
+        profile.setLanguages("bg,en");
+
+        DescriptionDataDbDTO desc = new DescriptionDataDbDTO();
+        desc.setId(id);
+        desc.setDescription("hello");
+        return new UserDbDTO(id, reg, profile, desc);
+    }
+}
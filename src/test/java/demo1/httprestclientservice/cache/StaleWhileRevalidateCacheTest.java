@@ -0,0 +1,115 @@
+package demo1.httprestclientservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaleWhileRevalidateCacheTest {
+
+    private static final long FRESH = TimeUnit.SECONDS.toNanos(1);
+    private static final long STALE = TimeUnit.SECONDS.toNanos(10);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final StaleWhileRevalidateCache<String, String> cache =
+            new StaleWhileRevalidateCache<>(FRESH, STALE, 4, scheduled::add, clock::get);
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private String load() {
+        return "v" + calls.incrementAndGet();
+    }
+
+    @Test
+    void freshValueIsServedWithoutCallingTheLoader() {
+        assertEquals("v1", cache.get("k", this::load));
+        clock.addAndGet(FRESH - 1);
+        assertEquals("v1", cache.get("k", this::load));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.count(StaleWhileRevalidateCache.Result.FRESH));
+    }
+
+    @Test
+    void staleValueIsServedAndRefreshedOnceInTheBackground() {
+        cache.get("k", this::load);
+        clock.addAndGet(FRESH);
+
+        assertEquals("v1", cache.get("k", this::load));
+        assertEquals("v1", cache.get("k", this::load));
+        assertEquals(1, scheduled.size());           // one refresh, however many stale reads
+
+        scheduled.remove(0).run();
+        assertEquals("v2", cache.get("k", this::load));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void expiredValueIsLoadedOnTheCallersThread() {
+        cache.get("k", this::load);
+        clock.addAndGet(FRESH + STALE);
+
+        assertEquals("v2", cache.get("k", this::load));
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void failuresAreCachedAndAFailedRefreshReplacesTheValue() {
+        cache.get("k", this::load);
+        clock.addAndGet(FRESH);
+        cache.get("k", () -> {
+            throw new IllegalStateException("backend down");
+        });
+        scheduled.remove(0).run();
+
+        assertThrows(IllegalStateException.class, () -> cache.get("k", this::load));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = new Thread(() -> cache.get("k", () -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load();
+        }));
+        first.start();
+        loading.await();
+
+        String[] second = new String[1];
+        Thread joiner = new Thread(() -> second[0] = cache.get("k", this::load));
+        joiner.start();
+        Thread.sleep(50);
+        release.countDown();
+        first.join();
+        joiner.join();
+
+        assertEquals("v1", second[0]);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void keysAboveMaxEntriesAreNotCached() {
+        for (int i = 0; i < 5; i++) {
+            cache.get("k" + i, this::load);
+        }
+        assertEquals(4, cache.size());
+        cache.get("k4", this::load);
+        assertEquals(6, calls.get());
+    }
+}
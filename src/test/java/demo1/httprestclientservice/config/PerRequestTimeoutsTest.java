@@ -0,0 +1,71 @@
+package demo1.httprestclientservice.config;
+
+import io.netty.channel.ChannelId;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerRequestTimeoutsTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @Test
+    void reusedPooledConnectionsKeepTheReadTimeout() {
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/fast", (req, res) -> res.sendString(Mono.just("ok")))
+                        .get("/slow", (req, res) -> res.sendString(
+                                Mono.just("late").delayElement(Duration.ofMillis(500)))))
+                .bindNow();
+        // one connection: every request after the first runs on the same, reused channel
+        ConnectionProvider pool = ConnectionProvider.create("per-request-timeouts-test", 1);
+        ClientRuntimeSettings.Settings settings = new ClientRuntimeSettings.Settings(1,
+                Duration.ofSeconds(5), Duration.ofMillis(100), Duration.ofSeconds(5), null, 1, 1, null);
+        Set<ChannelId> channels = ConcurrentHashMap.newKeySet();
+        HttpClient client = HttpClient.create(pool)
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .doOnRequest((request, conn) -> {
+                    channels.add(conn.channel().id());
+                    ApplicationBeanConfiguration.applyTimeouts(request, conn, settings);
+                });
+        try {
+            assertEquals("ok", get(client, "/fast"));
+            assertEquals("ok", get(client, "/fast"));
+
+            // the response timeout (5s) would let this pass: only the read timeout of 100ms stops it
+            RuntimeException ex = assertThrows(RuntimeException.class, () -> get(client, "/slow"));
+            assertTrue(causedBy(ex, ReadTimeoutException.class), () -> "unexpected " + ex);
+            assertEquals(1, channels.size());
+        } finally {
+            pool.disposeLater().block(WAIT);
+            server.disposeNow();
+        }
+    }
+
+    private static String get(HttpClient client, String uri) {
+        return client.get().uri(uri).responseContent().aggregate().asString().block(WAIT);
+    }
+
+    private static boolean causedBy(Throwable ex, Class<? extends Throwable> type) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
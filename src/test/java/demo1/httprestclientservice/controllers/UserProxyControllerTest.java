@@ -0,0 +1,120 @@
+package demo1.httprestclientservice.controllers;
+
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.cache.UserSnapshotCache;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserProxyControllerTest {
+
+    private final FakeUsers users = new FakeUsers();
+    private final UserSnapshotCache userCache;
+    private final UserProxyController controller;
+
+    UserProxyControllerTest() throws Exception {
+        DserviceClientProperties props = new DserviceClientProperties();
+        props.getUserCache().setEnabled(true);
+        userCache = new UserSnapshotCache(props, new SimpleMeterRegistry());
+        // getWithData needs neither the breaker, the batcher, the idempotency store nor the probe cache
+        controller = new UserProxyController(users, null, null, null, userCache, null, props);
+    }
+
+    @AfterEach
+    void closeCache() {
+        userCache.destroy();
+    }
+
+    @Test
+    void aHitAndAMissReturnTheSameBody() {
+        UserDbDTO miss = controller.getWithData(7L, Map.of(), null).getBody();
+        UserDbDTO hit = controller.getWithData(7L, Map.of(), null).getBody();
+
+        assertEquals(1, users.calls.get(), "the second read is a hit");
+        assertEquals(miss.toString(), hit.toString());
+        assertNull(miss.getRegistrationDataDbDTO().getPassword());
+    }
+
+    @Test
+    void aPerCallerViewIsForwardedAsIs() {
+        UserDbDTO withCredentials = controller.getWithData(7L, Map.of("Authorization", "Bearer x"), null).getBody();
+
+        assertEquals("secret", withCredentials.getRegistrationDataDbDTO().getPassword());
+        assertNull(userCache.get(7));
+    }
+
+    private static final class FakeUsers implements HttpClientInterface {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public ResponseEntity<UserDbDTO> getWithData(Long id, Map<String, String> dynamicHeaders) {
+            calls.incrementAndGet();
+            RegistrationDataDbDTO reg = new RegistrationDataDbDTO();
+            reg.setId(id);
+            reg.setUsername("user" + id);
+            reg.setEmail("user" + id + "@example.com");
+            reg.setPassword("secret");
+            reg.setConfirmRegDeadline(LocalDateTime.of(2024, 5, 2, 10, 15, 30));
+
+            ProfileDataDbDTO profile = new ProfileDataDbDTO();
+            profile.setId(id);
+            profile.setCountry("Bulgaria");
+
+            DescriptionDataDbDTO desc = new DescriptionDataDbDTO();
+            desc.setId(id);
+            desc.setDescription("hello");
+            return ResponseEntity.ok(new UserDbDTO(id, reg, profile, desc));
+        }
+
+        @Override
+        public ResponseEntity<UserDbDTO> create(UserDbDTO body) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<List<UserDbDTO>> createBatch(List<UserDbDTO> body) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<UserDTO> getById(Long id, String apiVersion) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<byte[]> getWithDataRaw(Long id, String fields, Map<String, String> dynamicHeaders) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<String> proxyGetCustomErrorResponse(int code) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, String> ping() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResponseEntity<Void> uploadFile(Resource file) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package demo1.httprestclientservice.converters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.HttpClientInterface;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedHttpMessageConverterTest {
+
+    private final IndexedHttpMessageConverter converter = new IndexedHttpMessageConverter(List.<HttpMessageConverter<?>>of(
+            new ByteArrayHttpMessageConverter(),
+            new MappingJackson2HttpMessageConverter(new ObjectMapper()),
+            new StringHttpMessageConverter(),
+            new ResourceHttpMessageConverter()), HttpClientInterface.class);
+
+    @Test
+    void readsWithTheFirstDelegateThatCanRead() throws Exception {
+        MockHttpInputMessage json = new MockHttpInputMessage("{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+        json.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        UserDbDTO user = (UserDbDTO) converter.read(UserDbDTO.class, null, json);
+
+        assertEquals(Long.valueOf(7), user.getId());
+    }
+
+    @Test
+    void mediaTypeParametersDoNotChangeTheChoice() throws Exception {
+        MockHttpInputMessage bytes = new MockHttpInputMessage("{}".getBytes(StandardCharsets.UTF_8));
+        bytes.getHeaders().setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
+
+        // byte[] goes to ByteArrayHttpMessageConverter (listed first), not to Jackson
+        assertEquals(2, ((byte[]) converter.read(byte[].class, null, bytes)).length);
+    }
+
+    @Test
+    void answersWhatTheDelegatesAnswer() {
+        assertTrue(converter.canRead(UserDbDTO.class, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(UserDbDTO.class, null, MediaType.IMAGE_PNG));
+        assertFalse(converter.canRead(UserDbDTO.class, null, MediaType.IMAGE_PNG));    // cached "no"
+        assertTrue(converter.canWrite(Resource.class, Resource.class, MediaType.APPLICATION_OCTET_STREAM));
+    }
+
+    @Test
+    void writesWithTheChosenDelegate() throws Exception {
+        UserDbDTO user = new UserDbDTO();
+        user.setId(3L);
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+
+        converter.write(user, UserDbDTO.class, MediaType.APPLICATION_JSON, out);
+
+        assertTrue(out.getBodyAsString().contains("\"id\":3"));
+    }
+}
@@ -0,0 +1,81 @@
+package demo1.httprestclientservice.deadline;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineFilterTest {
+
+    @Test
+    void expiredBudgetIsAnsweredWith504WithoutCallingTheChain() throws Exception {
+        AtomicLong seen = new AtomicLong(-1);
+        MockHttpServletResponse response = run(request("0"), seen);
+
+        assertEquals(504, response.getStatus());
+        assertEquals(-1, seen.get());
+    }
+
+    @Test
+    void unparsableBudgetMeansNoDeadline() throws Exception {
+        for (String value : new String[] {"abc", "99999999999999999999", ""}) {
+            AtomicLong seen = new AtomicLong(-1);
+            MockHttpServletResponse response = run(request(value), seen);
+
+            assertEquals(200, response.getStatus(), value);
+            assertEquals(Long.MAX_VALUE, seen.get(), value);
+        }
+    }
+
+    @Test
+    void budgetIsCappedAtMaxBudget() throws Exception {
+        AtomicLong seen = new AtomicLong(-1);
+        run(request("3600000"), seen);
+
+        assertTrue(seen.get() > 0 && seen.get() <= 1000, "remaining " + seen.get());
+        assertFalse(RequestDeadline.isSet(), "cleared after the request");
+    }
+
+    @Test
+    void sharedWorkRunsWithoutTheCallersDeadline() throws Exception {
+        AtomicLong seen = new AtomicLong(-1);
+        AtomicLong inside = new AtomicLong(-1);
+        DeadlineFilter filter = filter();
+
+        filter.doFilter(request("500"), new MockHttpServletResponse(), (req, res) -> {
+            inside.set(RequestDeadline.withoutDeadline(RequestDeadline::remainingMillis));
+            seen.set(RequestDeadline.remainingMillis());
+        });
+
+        assertEquals(Long.MAX_VALUE, inside.get());
+        assertTrue(seen.get() > 0 && seen.get() <= 500, "restored, remaining " + seen.get());
+    }
+
+    private static MockHttpServletRequest request(String timeout) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/proxy/user/1");
+        request.addHeader(RequestDeadline.TIMEOUT_HEADER, timeout);
+        return request;
+    }
+
+    private static MockHttpServletResponse run(MockHttpServletRequest request, AtomicLong remainingInChain)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter().doFilter(request, response, (req, res) -> remainingInChain.set(RequestDeadline.remainingMillis()));
+        return response;
+    }
+
+    private static DeadlineFilter filter() {
+        DserviceClientProperties props = new DserviceClientProperties();
+        props.getDeadline().setEnabled(true);
+        props.getDeadline().setMaxBudget(Duration.ofSeconds(1));
+        return new DeadlineFilter(props, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,94 @@
+package demo1.httprestclientservice.deadline;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlinePropagationInterceptorTest {
+
+    private static final ClientHttpRequestExecution OK =
+            (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void callersBudgetHeadersAreNeverForwarded() throws Exception {
+        MockClientHttpRequest request = request();
+        request.getHeaders().set(RequestDeadline.TIMEOUT_HEADER, "abc");
+        request.getHeaders().set(RequestDeadline.DEADLINE_HEADER, "99999999999999999999");
+
+        interceptor(false).intercept(request, new byte[0], OK);
+
+        assertNull(request.getHeaders().getFirst(RequestDeadline.TIMEOUT_HEADER));
+        assertNull(request.getHeaders().getFirst(RequestDeadline.DEADLINE_HEADER));
+    }
+
+    @Test
+    void remainingBudgetReplacesTheCallersValue() throws Exception {
+        RequestDeadline.set(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+        MockClientHttpRequest request = request();
+        request.getHeaders().set(RequestDeadline.TIMEOUT_HEADER, "abc");
+
+        interceptor(true).intercept(request, new byte[0], OK);
+
+        long forwarded = Long.parseLong(request.getHeaders().getFirst(RequestDeadline.TIMEOUT_HEADER));
+        assertTrue(forwarded > 1000 && forwarded <= 2000, "forwarded " + forwarded);
+    }
+
+    @Test
+    void expiredBudgetFailsWithoutCallingTheBackend() {
+        RequestDeadline.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5));
+        AtomicBoolean called = new AtomicBoolean();
+
+        assertThrows(DeadlineExceededException.class, () -> interceptor(true).intercept(request(), new byte[0],
+                (req, body) -> {
+                    called.set(true);
+                    return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+                }));
+        assertFalse(called.get());
+    }
+
+    @Test
+    void responseTimeoutIsOnlyEverShortened() {
+        Duration configured = Duration.ofSeconds(5);
+
+        assertEquals(Duration.ofMillis(800), RequestDeadline.responseTimeout(configured, "800"));
+        assertEquals(configured, RequestDeadline.responseTimeout(configured, "60000"));
+        assertEquals(Duration.ofMillis(1), RequestDeadline.responseTimeout(configured, "-3"));
+        assertEquals(configured, RequestDeadline.responseTimeout(configured, "abc"));
+        assertEquals(configured, RequestDeadline.responseTimeout(configured, "99999999999999999999"));
+        assertEquals(configured, RequestDeadline.responseTimeout(configured, null));
+    }
+
+    private static MockClientHttpRequest request() {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create("http://backend-service/api/v1/user/1"));
+    }
+
+    private static DeadlinePropagationInterceptor interceptor(boolean enabled) {
+        DserviceClientProperties props = new DserviceClientProperties();
+        props.getDeadline().setEnabled(enabled);
+        props.getDeadline().setMinBudget(Duration.ofMillis(10));
+        return new DeadlinePropagationInterceptor(props, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,120 @@
+package demo1.httprestclientservice.grpc;
+
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+import demo1.httprestclientservice.HttpClientInterface;
+import demo1.httprestclientservice.exceptions.ClientErrorException;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import demo1.httprestclientservice.exceptions.DownstreamServiceException;
+import demo1.httprestclientservice.exceptions.UnauthorizedException;
+import demo1.httprestclientservice.exceptions.UserNotFoundException;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.MetadataUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GrpcHttpClientInterfaceTest {
+
+    @Test
+    void createAndReadBackEveryField() throws Exception {
+        try (LocalUserServiceServer server = LocalUserServiceServer.start("grpc-test-roundtrip", null)) {
+            ManagedChannel channel = server.channel();
+            HttpClientInterface users = new GrpcHttpClientInterface(channel, null, Duration.ofSeconds(5));
+
+            UserDbDTO created = users.create(user(null)).getBody();
+            UserDbDTO read = users.getWithData(created.getId(), Map.of("X-Trace", "1")).getBody();
+
+            assertEquals(user(1L).toString(), created.toString());
+            assertEquals(user(1L).toString(), read.toString());
+            assertEquals(new BigDecimal("181.50"), read.getProfileDataDbDTO().getHeight());
+            assertEquals(Boolean.FALSE, read.getProfileDataDbDTO().getDrinking());
+            assertNull(read.getProfileDataDbDTO().getReligion());
+            assertNull(read.getRegistrationDataDbDTO().getConfirmRegDate());
+            assertEquals(Long.valueOf(1), users.getById(1L, "v2").getBody().getId());
+            assertEquals(Map.of("message", "pong"), users.ping());
+
+            List<UserDbDTO> batch = users.createBatch(List.of(user(null), user(null))).getBody();
+            assertEquals(List.of(2L, 3L), batch.stream().map(UserDbDTO::getId).toList());
+            channel.shutdownNow();
+        }
+    }
+
+    @Test
+    void statusCodesBecomeTheSameExceptionsAsOnHttp() throws Exception {
+        try (LocalUserServiceServer server = LocalUserServiceServer.start("grpc-test-errors", "secret")) {
+            Metadata auth = new Metadata();
+            auth.put(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER), "Bearer secret");
+            ManagedChannel channel = server.channel();
+            HttpClientInterface users = new GrpcHttpClientInterface(
+                    ClientInterceptors.intercept(channel, MetadataUtils.newAttachHeadersInterceptor(auth)),
+                    null, Duration.ofSeconds(5));
+            HttpClientInterface anonymous = new GrpcHttpClientInterface(channel, null, Duration.ofSeconds(5));
+
+            assertThrows(UserNotFoundException.class, () -> users.getById(42L, null));
+            assertThrows(ClientErrorException.class, () -> users.create(new UserDbDTO()));
+            assertThrows(UnauthorizedException.class, anonymous::ping);
+            channel.shutdownNow();
+        }
+    }
+
+    @Test
+    void deadlineExceededIsTheCallersOnlyWhenItsBudgetWasTheLimit() {
+        StatusRuntimeException timedOut = Status.DEADLINE_EXCEEDED.asRuntimeException();
+
+        // the caller's X-Request-Timeout-Ms ran out: 504, not a backend failure
+        assertInstanceOf(DeadlineExceededException.class, GrpcHttpClientInterface.toException(timedOut, true));
+        // dservice.grpc.deadline ran out first: the backend is slow, the breaker must see it
+        assertInstanceOf(DownstreamServiceException.class, GrpcHttpClientInterface.toException(timedOut, false));
+    }
+
+    private static UserDbDTO user(Long id) {
+        RegistrationDataDbDTO reg = new RegistrationDataDbDTO();
+        reg.setId(id);
+        reg.setUsername("user");
+        reg.setEmail("user@example.com");
+        reg.setPassword("secret12");
+        reg.setRegDate(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000));
+        reg.setConfirmRegDeadline(LocalDateTime.of(2024, 5, 2, 10, 15, 30));
+
+        ProfileDataDbDTO profile = new ProfileDataDbDTO();
+        profile.setId(id);
+        profile.setLastLogin(LocalDateTime.of(2025, 1, 1, 0, 0));
+        profile.setBirthDate(LocalDate.of(1990, 2, 28));
+        profile.setCountry("Bulgaria");
+        profile.setCity("Plovdiv – Старият град");
+        profile.setMaritalStatus(MaritalStatus.values()[0]);
+        profile.setHeight(new BigDecimal("181.50"));
+        profile.setWeight(new BigDecimal("-0.000001"));
+        profile.setHairColor(HairColor.values()[HairColor.values().length - 1]);
+        profile.setEyeColor(EyeColor.values()[EyeColor.values().length - 1]);
+        profile.setChildren(0);
+        profile.setSmoking(true);
+        profile.setDrinking(false);
+        profile.setLanguages("bg,en");
+
+        DescriptionDataDbDTO desc = new DescriptionDataDbDTO();
+        desc.setId(id);
+        desc.setDescription("hello");
+        return new UserDbDTO(id, reg, profile, desc);
+    }
+}
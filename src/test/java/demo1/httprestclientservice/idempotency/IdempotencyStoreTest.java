@@ -0,0 +1,192 @@
+package demo1.httprestclientservice.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import demo1.httprestclientservice.exceptions.DeadlineExceededException;
+import demo1.httprestclientservice.exceptions.DownstreamServiceException;
+import demo1.httprestclientservice.exceptions.IdempotencyKeyConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+
+    @Test
+    void retryOfTheSameCallerIsReplayed() throws Exception {
+        IdempotencyStore store = store(100);
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<UserDbDTO> first = store.execute("api-key:a", "k1", user(), created(calls));
+        ResponseEntity<UserDbDTO> retry = store.execute("api-key:a", "k1", user(), created(calls));
+
+        assertEquals(1, calls.get());
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(first.getBody().getId(), retry.getBody().getId());
+    }
+
+    @Test
+    void theSameKeyFromAnotherCallerIsNotReplayed() throws Exception {
+        IdempotencyStore store = store(100);
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<UserDbDTO> mine = store.execute("api-key:a", "k1", user(), created(calls));
+        ResponseEntity<UserDbDTO> theirs = store.execute("api-key:b", "k1", user(), created(calls));
+
+        assertEquals(2, calls.get());
+        assertNull(theirs.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertNotEquals(mine.getBody().getId(), theirs.getBody().getId());
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsAConflict() throws Exception {
+        IdempotencyStore store = store(100);
+        store.execute("api-key:a", "k1", user(), created(new AtomicInteger()));
+
+        UserDbDTO other = user();
+        other.setId(99L);
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> store.execute("api-key:a", "k1", other, created(new AtomicInteger())));
+    }
+
+    @Test
+    void failedCallsLeaveNothingBehind() throws Exception {
+        IdempotencyStore store = store(100);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(DownstreamServiceException.class, () -> store.execute("api-key:a", "k1", user(), () -> {
+                calls.incrementAndGet();
+                throw new DownstreamServiceException("backend down");
+            }));
+        }
+        assertEquals(3, calls.get());
+        assertEquals(0, store.size());
+
+        store.execute("api-key:a", "k1", user(), created(calls));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void aDuplicateWaitsForTheFirstRequestAtMostMaxWait() throws Exception {
+        IdempotencyStore store = store(100, Duration.ofMillis(50));
+        CountDownLatch ownerStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<ResponseEntity<UserDbDTO>> owner = CompletableFuture.supplyAsync(
+                () -> store.execute("api-key:a", "k1", user(), () -> {
+                    ownerStarted.countDown();
+                    await(release);
+                    return created(calls).get();
+                }));
+        ownerStarted.await();
+
+        assertThrows(DownstreamServiceException.class,
+                () -> store.execute("api-key:a", "k1", user(), created(calls)));
+
+        release.countDown();
+        owner.get(5, TimeUnit.SECONDS);
+        ResponseEntity<UserDbDTO> retry = store.execute("api-key:a", "k1", user(), created(calls));
+        assertEquals(1, calls.get());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void aDuplicateIsForwardedWhenTheFirstRequestFails() throws Exception {
+        IdempotencyStore store = store(100);
+        CountDownLatch ownerStarted = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<ResponseEntity<UserDbDTO>> owner = CompletableFuture.supplyAsync(
+                () -> store.execute("api-key:a", "k1", user(), () -> {
+                    ownerStarted.countDown();
+                    await(fail);
+                    throw new DeadlineExceededException("the owner's own deadline");
+                }));
+        ownerStarted.await();
+
+        CompletableFuture<ResponseEntity<UserDbDTO>> duplicate = CompletableFuture.supplyAsync(
+                () -> store.execute("api-key:a", "k1", user(), created(calls)));
+        Thread.sleep(50);                               // let the duplicate start waiting
+        fail.countDown();
+
+        ResponseEntity<UserDbDTO> response = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(1, calls.get());
+        assertNull(response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertThrows(ExecutionException.class, () -> owner.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void maxEntriesIsEnforced() throws Exception {
+        IdempotencyStore store = store(2);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            store.execute("api-key:a", "k" + i, user(), created(calls));
+        }
+        assertEquals(2, store.size());
+
+        store.execute("api-key:a", "k0", user(), created(calls));     // evicted, so forwarded again
+        assertEquals(6, calls.get());
+    }
+
+    @Test
+    void callerIsThePrincipalThenTheApiKeyThenTheAddress() throws Exception {
+        IdempotencyStore store = store(100);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        assertEquals("address:10.0.0.7", store.callerOf(request));
+
+        request.addHeader("X-API-Key", "key-1");
+        assertEquals("api-key:key-1", store.callerOf(request));
+
+        request.setUserPrincipal(() -> "alice");
+        assertEquals("principal:alice", store.callerOf(request));
+    }
+
+    private static IdempotencyStore store(int maxEntries) throws Exception {
+        return store(maxEntries, Duration.ofSeconds(10));
+    }
+
+    private static IdempotencyStore store(int maxEntries, Duration maxWait) throws Exception {
+        DserviceClientProperties props = new DserviceClientProperties();
+        props.getIdempotency().setMaxEntries(maxEntries);
+        props.getIdempotency().setMaxWait(maxWait);
+        return new IdempotencyStore(props, new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+    }
+
+    private static Supplier<ResponseEntity<UserDbDTO>> created(AtomicInteger calls) {
+        return () -> {
+            UserDbDTO created = new UserDbDTO();
+            created.setId((long) calls.incrementAndGet());
+            return ResponseEntity.ok(created);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static UserDbDTO user() {
+        return new UserDbDTO();
+    }
+}
@@ -0,0 +1,61 @@
+package demo1.httprestclientservice.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldProjectionTest {
+
+    private static final String USER = """
+            {"id":7,
+             "registrationDataDbDTO":{"id":1,"username":"john","email":"john@example.com"},
+             "profileDataDbDTO":{"id":2,"city":"Sofia","country":"Bulgaria","tags":[{"k":"a","v":1},{"k":"b","v":2}]},
+             "descriptionDataDbDTO":{"id":3,"description":"a long text nobody asked for"}}
+            """;
+
+    @Test
+    void nestedPathsKeepTheObjectsOnTheirWay() throws Exception {
+        assertEquals("{\"id\":7,\"registrationDataDbDTO\":{\"username\":\"john\"},\"profileDataDbDTO\":{\"city\":\"Sofia\"}}",
+                project("id, registrationDataDbDTO.username, profileDataDbDTO.city"));
+    }
+
+    @Test
+    void aPropertyWithoutPathSelectsItsWholeSubtree() throws Exception {
+        assertEquals("{\"descriptionDataDbDTO\":{\"id\":3,\"description\":\"a long text nobody asked for\"}}",
+                project("descriptionDataDbDTO"));
+        assertEquals("{\"registrationDataDbDTO\":{\"id\":1,\"username\":\"john\",\"email\":\"john@example.com\"}}",
+                project("registrationDataDbDTO,registrationDataDbDTO.username"));
+    }
+
+    @Test
+    void arraysArePassedThroughToTheirElements() throws Exception {
+        assertEquals("{\"profileDataDbDTO\":{\"tags\":[{\"k\":\"a\"},{\"k\":\"b\"}]}}",
+                project("profileDataDbDTO.tags.k"));
+    }
+
+    @Test
+    void unknownFieldsAreLeftOut() throws Exception {
+        assertEquals("{\"id\":7}", project("id,nope,registrationDataDbDTO.nope.deeper"));
+        assertEquals("{}", project("nope"));
+    }
+
+    @Test
+    void theNormalizedValueCanBeForwarded() {
+        assertEquals("id,profileDataDbDTO.city", FieldProjection.parse(" id ,, profileDataDbDTO.city ").toQueryValue());
+    }
+
+    @Test
+    void anInvalidParameterIsRejected() {
+        for (String fields : new String[] {"", " , ", "a..b", ".a", "a."}) {
+            assertThrows(IllegalArgumentException.class, () -> FieldProjection.parse(fields), "'" + fields + "'");
+        }
+    }
+
+    private static String project(String fields) throws Exception {
+        byte[] projected = FieldProjection.parse(fields).apply(USER.getBytes(StandardCharsets.UTF_8));
+        return new String(projected, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package demo1.httprestclientservice.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ProfileAttributesModuleTest {
+
+    private static final String PROFILE = """
+            {"country":"Bulgaria","region":"Plovdiv","city":"Plovdiv","religion":"none","education":"master",
+             "occupation":"engineer","languages":"bg,en","hairColor":"brown"}
+            """;
+
+    private final ProfileAttributesModule module = new ProfileAttributesModule(256, 64);
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(module);
+
+    @Test
+    void profileAttributesAreSharedAcrossRecords() throws Exception {
+        ProfileDataDbDTO first = mapper.readValue(PROFILE, ProfileDataDbDTO.class);
+        ProfileDataDbDTO second = mapper.readValue(PROFILE, ProfileDataDbDTO.class);
+
+        assertEquals("Bulgaria", first.getCountry());
+        assertSame(first.getCountry(), second.getCountry());
+        assertSame(first.getRegion(), second.getRegion());
+        assertSame(first.getCity(), second.getCity());
+        assertSame(first.getReligion(), second.getReligion());
+        assertSame(first.getEducation(), second.getEducation());
+        assertSame(first.getOccupation(), second.getOccupation());
+        assertSame(first.getLanguages(), second.getLanguages());
+        assertEquals(HairColor.BROWN, first.getHairColor());
+        assertEquals(1, module.table("country").size());
+    }
+
+    @Test
+    void everyPropertyHasATableOfItsOwn() throws Exception {
+        mapper.readValue(PROFILE, ProfileDataDbDTO.class);
+
+        // region and city are both "Plovdiv", but each table only holds its own property's values
+        assertEquals(1, module.table("region").size());
+        assertEquals(1, module.table("city").size());
+        assertEquals(ProfileAttributesModule.CANONICAL_PROPERTIES.size(), ProfileAttributesModule.CANONICAL_PROPERTIES
+                .stream().filter(property -> module.table(property).size() == 1).count());
+    }
+
+    @Test
+    void otherTypesAreLeftAlone() throws Exception {
+        String json = "{\"country\":\"Bulgaria\"}";
+        Address first = mapper.readValue(json, Address.class);
+        Address second = mapper.readValue(json, Address.class);
+        RegistrationDataDbDTO registration = mapper.readValue("{\"username\":\"john\"}", RegistrationDataDbDTO.class);
+
+        assertEquals("Bulgaria", first.country);
+        assertNotSame(first.country, second.country);                         // same property name, other class
+        assertEquals("john", registration.getUsername());
+        assertEquals(0, module.table("country").size());
+    }
+
+    public static class Address {
+        public String country;
+    }
+}
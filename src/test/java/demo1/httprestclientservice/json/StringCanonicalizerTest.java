@@ -0,0 +1,55 @@
+package demo1.httprestclientservice.json;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StringCanonicalizerTest {
+
+    @Test
+    void theSameValueIsTheSameInstance() {
+        StringCanonicalizer table = new StringCanonicalizer(64, 32);
+        String first = table.canonicalize("xxBulgariaxx".toCharArray(), 2, 8);
+
+        assertEquals("Bulgaria", first);
+        assertSame(first, table.canonicalize("Bulgaria".toCharArray(), 0, 8));
+        assertSame(first, table.canonicalize(new String("Bulgaria")));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void aThirdValueForTheSameSlotsReplacesTheFirst() {
+        StringCanonicalizer table = new StringCanonicalizer(64, 32);
+        // "Aa" and "BB" have the same hashCode, so these three all probe the same two slots
+        String first = table.canonicalize("AaAa");
+        String second = table.canonicalize("AaBB");
+        String third = table.canonicalize("BBAa");
+
+        assertSame(second, table.canonicalize("AaBB"));
+        assertSame(third, table.canonicalize("BBAa"));
+        assertNotSame(first, table.canonicalize("AaAa"), "replaced: a new copy, still the right value");
+        assertEquals("AaAa", table.canonicalize("AaAa"));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void theTableNeverGrows() {
+        StringCanonicalizer table = new StringCanonicalizer(8, 32);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("value" + i, table.canonicalize("value" + i));
+        }
+
+        assertEquals(8, table.size());
+    }
+
+    @Test
+    void longValuesAreNotKept() {
+        StringCanonicalizer table = new StringCanonicalizer(64, 5);
+
+        assertNotSame(table.canonicalize("Bulgaria"), table.canonicalize("Bulgaria"));
+        assertSame(table.canonicalize("Sofia"), table.canonicalize("Sofia"));    // exactly maxLength is kept
+        assertEquals(1, table.size());
+    }
+}
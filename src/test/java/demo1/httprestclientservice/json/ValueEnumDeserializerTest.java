@@ -0,0 +1,55 @@
+package demo1.httprestclientservice.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValueEnumDeserializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addDeserializer(HairColor.class, new ValueEnumDeserializer<>(HairColor.class, HairColor::getValue))
+            .addDeserializer(EyeColor.class, new ValueEnumDeserializer<>(EyeColor.class, EyeColor::getValue))
+            .addDeserializer(MaritalStatus.class, new ValueEnumDeserializer<>(MaritalStatus.class, MaritalStatus::getValue)));
+
+    @Test
+    void everyConstantIsFoundByItsJsonValue() throws Exception {
+        for (HairColor color : HairColor.values()) {
+            assertEquals(color, mapper.readValue("\"" + color.getValue() + "\"", HairColor.class));
+        }
+        for (EyeColor color : EyeColor.values()) {
+            assertEquals(color, mapper.readValue("\"" + color.getValue() + "\"", EyeColor.class));
+        }
+        for (MaritalStatus status : MaritalStatus.values()) {
+            assertEquals(status, mapper.readValue("\"" + status.getValue() + "\"", MaritalStatus.class));
+        }
+    }
+
+    @Test
+    void aNumberIsTheOrdinal() throws Exception {
+        assertEquals(HairColor.values()[4], mapper.readValue("4", HairColor.class));
+        assertEquals(HairColor.values()[0], mapper.readValue("0", HairColor.class));
+
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue("-1", HairColor.class));
+        assertThrows(InvalidFormatException.class,
+                () -> mapper.readValue(String.valueOf(HairColor.values().length), HairColor.class));
+    }
+
+    @Test
+    void anUnknownValueNamesTheAcceptedOnes() {
+        InvalidFormatException unknown = assertThrows(InvalidFormatException.class,
+                () -> mapper.readValue("\"purple\"", HairColor.class));
+
+        assertEquals("purple", unknown.getValue());
+        assertTrue(unknown.getMessage().contains("[auburn, bald, black"), unknown.getMessage());
+        // the constant's name is not its JSON value
+        assertThrows(InvalidFormatException.class, () -> mapper.readValue("\"BROWN\"", HairColor.class));
+    }
+}
@@ -0,0 +1,161 @@
+package demo1.httprestclientservice.loadbalancer;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OutlierDetectorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000 * MS);
+    private final DserviceClientProperties.OutlierDetection settings = new DserviceClientProperties.OutlierDetection();
+    private final OutlierDetector detector = new OutlierDetector(settings, new SimpleMeterRegistry(), clock::get);
+
+    private final ServiceInstance a = instance("a");
+    private final ServiceInstance b = instance("b");
+    private final ServiceInstance c = instance("c");
+    private final List<ServiceInstance> all = List.of(a, b, c);
+
+    @Test
+    void consecutiveErrorsEjectTheInstanceForTheBaseTime() {
+        detector.filter(all);
+        failTimes(a, settings.getConsecutiveErrors());
+
+        assertEquals(List.of(b, c), detector.filter(all));
+
+        clock.addAndGet(settings.getBaseEjectionTime().toNanos());
+        assertEquals(all, detector.filter(all));
+    }
+
+    @Test
+    void aSuccessResetsTheErrorStreak() {
+        detector.filter(all);
+        failTimes(a, settings.getConsecutiveErrors() - 1);
+        detector.record(a, MS, true);
+        failTimes(a, settings.getConsecutiveErrors() - 1);
+
+        assertEquals(all, detector.filter(all));
+    }
+
+    @Test
+    void repeatedEjectionsLastExponentiallyLonger() {
+        detector.filter(all);
+        failTimes(a, settings.getConsecutiveErrors());
+        clock.addAndGet(settings.getBaseEjectionTime().toNanos());
+
+        failTimes(a, settings.getConsecutiveErrors());                  // second ejection: 2 x base
+        clock.addAndGet(settings.getBaseEjectionTime().toNanos());
+        assertEquals(List.of(b, c), detector.filter(all));
+        clock.addAndGet(settings.getBaseEjectionTime().toNanos());
+        assertEquals(all, detector.filter(all));
+    }
+
+    @Test
+    void neverEjectsMoreThanMaxEjectionPercent() {
+        settings.setMaxEjectionPercent(34);                               // one of three
+        detector.filter(all);
+        failTimes(a, settings.getConsecutiveErrors());
+        failTimes(b, settings.getConsecutiveErrors());
+
+        assertEquals(List.of(b, c), detector.filter(all));
+    }
+
+    @Test
+    void latencyOutliersAreEjected() {
+        settings.setMinOutlierLatency(Duration.ofMillis(100));
+        detector.filter(all);
+        for (int i = 0; i < settings.getMinRequests(); i++) {
+            detector.record(b, 20 * MS, true);
+            detector.record(c, 30 * MS, true);
+            detector.record(a, 400 * MS, true);                           // > 3 x median(20, 30) and > 100 ms
+        }
+
+        assertEquals(List.of(b, c), detector.filter(all));
+    }
+
+    @Test
+    void failsOpenWhenEverythingWouldBeEjected() {
+        settings.setMaxEjectionPercent(100);
+        List<ServiceInstance> single = List.of(a);
+        detector.filter(single);
+        failTimes(a, settings.getConsecutiveErrors());
+
+        assertEquals(single, detector.filter(single));
+    }
+
+    @Test
+    void everyServiceHasItsOwnInstancesAndEjectionBudget() {
+        // the same host:port behind two services: an ejection for one service must not hide it from the other
+        ServiceInstance ordersA = instance("order-service", "a");
+        ServiceInstance ordersB = instance("order-service", "b");
+        ServiceInstance ordersC = instance("order-service", "c");
+        List<ServiceInstance> orders = List.of(ordersA, ordersB, ordersC);
+        settings.setMaxEjectionPercent(34);                               // one of three, per service
+        detector.filter(all);
+        detector.filter(orders);
+
+        failTimes(a, settings.getConsecutiveErrors());
+        failTimes(ordersB, settings.getConsecutiveErrors());
+
+        assertEquals(List.of(b, c), detector.filter(all));
+        assertEquals(List.of(ordersA, ordersC), detector.filter(orders));
+        assertEquals(Set.of("backend-service", "order-service"), detector.snapshot().keySet());
+
+        detector.reinstate("order-service", null);
+        assertEquals(orders, detector.filter(orders));
+        assertEquals(List.of(b, c), detector.filter(all));
+    }
+
+    @Test
+    void latencyIsComparedWithinTheServiceOnly() {
+        settings.setMinOutlierLatency(Duration.ofMillis(100));
+        ServiceInstance slowA = instance("report-service", "a");
+        ServiceInstance slowB = instance("report-service", "b");
+        detector.filter(all);
+        detector.filter(List.of(slowA, slowB));
+        for (int i = 0; i < settings.getMinRequests(); i++) {
+            detector.record(b, 20 * MS, true);
+            detector.record(c, 30 * MS, true);
+            detector.record(slowA, 400 * MS, true);                       // slow, but so is the rest of its service
+            detector.record(slowB, 420 * MS, true);
+        }
+
+        assertEquals(List.of(slowA, slowB), detector.filter(List.of(slowA, slowB)));
+    }
+
+    @Test
+    void instancesThatLeftTheListAreForgotten() {
+        detector.filter(all);
+        failTimes(a, settings.getConsecutiveErrors());
+        detector.record(b, MS, true);
+
+        detector.filter(List.of(b, c));                                     // a was scaled down
+
+        assertEquals(Set.of("b:8080"), detector.snapshot().get("backend-service").keySet());
+    }
+
+    private void failTimes(ServiceInstance instance, int times) {
+        for (int i = 0; i < times; i++) {
+            detector.record(instance, 5 * MS, false);
+        }
+    }
+
+    private static ServiceInstance instance(String host) {
+        return instance("backend-service", host);
+    }
+
+    private static ServiceInstance instance(String serviceId, String host) {
+        return new DefaultServiceInstance(serviceId + "-" + host, serviceId, host, 8080, false);
+    }
+}
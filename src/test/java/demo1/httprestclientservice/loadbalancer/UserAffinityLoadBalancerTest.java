@@ -0,0 +1,108 @@
+package demo1.httprestclientservice.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class UserAffinityLoadBalancerTest {
+
+    private final InFlightRequests inFlight = new InFlightRequests();
+    private final UserAffinityLoadBalancer balancer =
+            new UserAffinityLoadBalancer(null, inFlight, 1.25, new SimpleMeterRegistry());
+
+    private final ServiceInstance a = instance("a");
+    private final ServiceInstance b = instance("b");
+    private final ServiceInstance c = instance("c");
+    private final List<ServiceInstance> all = List.of(a, b, c);
+
+    @Test
+    void theSameUserAlwaysGetsTheSameInstance() {
+        for (long userId = 1; userId <= 100; userId++) {
+            ServiceInstance first = chosen(all, userId);
+
+            assertEquals(first, chosen(all, userId), "user " + userId);
+            assertEquals(first, chosen(List.of(c, a, b), userId), "order of the list must not matter, user " + userId);
+        }
+    }
+
+    @Test
+    void removingAnInstanceOnlyMovesItsOwnUsers() {
+        for (long userId = 1; userId <= 100; userId++) {
+            ServiceInstance before = chosen(all, userId);
+            ServiceInstance after = chosen(List.of(a, b), userId);
+
+            if (before != c) {
+                assertEquals(before, after, "user " + userId + " was not on the removed instance");
+            }
+        }
+    }
+
+    @Test
+    void aFullInstanceSpillsOverToTheNextInTheRanking() {
+        long userId = 42;
+        ServiceInstance preferred = chosen(all, userId);
+        for (int i = 0; i < 10; i++) {
+            inFlight.onStartRequest(null, new DefaultResponse(preferred));   // 10 of 10 calls in flight there
+        }
+
+        ServiceInstance spillover = chosen(all, userId);
+        assertNotEquals(preferred, spillover);
+
+        List<ServiceInstance> others = new ArrayList<>(all);
+        others.remove(preferred);
+        assertEquals(chosen(others, userId), spillover, "the second-best instance, not a random one");
+    }
+
+    @Test
+    void callsWithoutAUserIdAreSpreadRoundRobin() {
+        List<ServiceInstance> chosen = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            chosen.add(chosen(all, -1));
+        }
+
+        assertEquals(3, chosen.stream().distinct().count());
+    }
+
+    @Test
+    void userIdIsTakenFromTheUserPaths() {
+        assertEquals(42, UserAffinityLoadBalancer.userId(request("http://backend-service/user/42")));
+        assertEquals(42, UserAffinityLoadBalancer.userId(request("http://backend-service/api/user-with-data/42")));
+        assertEquals(7, UserAffinityLoadBalancer.userId(request("http://backend-service/user/7/extra")));
+
+        assertEquals(-1, UserAffinityLoadBalancer.userId(request("http://backend-service/user/abc")));
+        assertEquals(-1, UserAffinityLoadBalancer.userId(request("http://backend-service/user/")));
+        assertEquals(-1, UserAffinityLoadBalancer.userId(request("http://backend-service/user/99999999999999999999")));
+        assertEquals(-1, UserAffinityLoadBalancer.userId(request("http://backend-service/ping")));
+        assertEquals(-1, UserAffinityLoadBalancer.userId(new DefaultRequest<>()));
+    }
+
+    private ServiceInstance chosen(List<ServiceInstance> instances, long userId) {
+        return balancer.choose(instances, userId).getServer();
+    }
+
+    private static DefaultRequest<RequestDataContext> request(String url) {
+        RequestData data = new RequestData(HttpMethod.GET, URI.create(url), new HttpHeaders(),
+                new LinkedMultiValueMap<>(), new HashMap<>());
+        return new DefaultRequest<>(new RequestDataContext(data));
+    }
+
+    private static ServiceInstance instance(String host) {
+        return new DefaultServiceInstance(host, "backend-service", host, 8080, false);
+    }
+}
@@ -0,0 +1,67 @@
+package demo1.httprestclientservice.metrics;
+
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ClientLatencyMetricsTest {
+
+    private final MeterRegistry meters = new SimpleMeterRegistry();
+    private final ClientLatencyMetrics metrics = new ClientLatencyMetrics(meters, props());
+
+    private final ServiceInstance a = instance("backend-service", "a", 8080);
+    private final ServiceInstance b = instance("backend-service", "b", 8080);
+
+    @Test
+    void instancesAreTaggedWithTheirOwnService() {
+        ServiceInstance orders = instance("ORDER-SERVICE", "a", 8080);        // same address, other service
+
+        assertNotSame(metrics.forInstance(a), metrics.forInstance(orders));
+        assertSame(metrics.forInstance(orders), metrics.forInstance(instance("order-service", "a", 8080)));
+        assertEquals(2, timers("order-service", "a:8080"));                   // success + error
+        assertEquals(2, timers("backend-service", "a:8080"));
+    }
+
+    @Test
+    void theTimersOfAnInstanceThatLeftTheListAreRemoved() {
+        metrics.forInstance(a);
+        metrics.forInstance(b);
+        ServiceInstance orders = instance("order-service", "b", 8080);
+        metrics.forInstance(orders);
+
+        metrics.retainInstances("backend-service", List.of(a));
+
+        assertEquals(2, timers("backend-service", "a:8080"));
+        assertEquals(0, timers("backend-service", "b:8080"));
+        assertEquals(2, timers("order-service", "b:8080"), "another service's list says nothing about this one");
+
+        metrics.forInstance(b).recordNanos(1_000, true);                     // it is back: registered again
+        assertEquals(2, timers("backend-service", "b:8080"));
+
+        metrics.retainInstances("BACKEND-SERVICE", List.of());
+        assertEquals(0, timers("backend-service", "a:8080") + timers("backend-service", "b:8080"));
+    }
+
+    private int timers(String service, String instance) {
+        return meters.find("proxy.instance.latency").tag("service", service).tag("instance", instance).timers().size();
+    }
+
+    private static ServiceInstance instance(String serviceId, String host, int port) {
+        return new DefaultServiceInstance(serviceId + "-" + host, serviceId, host, port, false);
+    }
+
+    private static DserviceClientProperties props() {
+        DserviceClientProperties props = new DserviceClientProperties();
+        props.setServiceId("backend-service");
+        return props;
+    }
+}
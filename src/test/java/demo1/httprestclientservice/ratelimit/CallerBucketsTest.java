@@ -0,0 +1,56 @@
+package demo1.httprestclientservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CallerBucketsTest {
+
+    @Test
+    void neverHoldsMoreThanMaxSize() {
+        CallerBuckets buckets = new CallerBuckets(3);
+        for (int i = 0; i < 100; i++) {
+            buckets.add("key-" + i, CallerBucketsTest::bucket);
+        }
+
+        assertEquals(3, buckets.size());
+        assertNotNull(buckets.get("key-99"), "the newest caller is tracked");
+    }
+
+    @Test
+    void callersThatCameBackSurviveAFloodOfOneTimeKeys() {
+        CallerBuckets buckets = new CallerBuckets(3);
+        TokenBucket alice = buckets.add("alice", CallerBucketsTest::bucket);
+        TokenBucket bob = buckets.add("bob", CallerBucketsTest::bucket);
+
+        for (int i = 0; i < 50; i++) {
+            buckets.get("alice");                          // both keep calling between the rotated keys
+            buckets.get("bob");
+            buckets.add("rotated-" + i, CallerBucketsTest::bucket);
+        }
+
+        assertSame(alice, buckets.get("alice"));
+        assertSame(bob, buckets.get("bob"));
+        assertNull(buckets.get("rotated-0"));
+        assertEquals(3, buckets.size());
+    }
+
+    @Test
+    void anAddedCallerKeepsItsBucket() {
+        CallerBuckets buckets = new CallerBuckets(2);
+        TokenBucket first = buckets.add("alice", CallerBucketsTest::bucket);
+
+        assertSame(first, buckets.add("alice", CallerBucketsTest::bucket));
+        assertSame(first, buckets.get("alice"));
+
+        buckets.clear();
+        assertNull(buckets.get("alice"));
+    }
+
+    private static TokenBucket bucket() {
+        return new TokenBucket(10, 10);
+    }
+}
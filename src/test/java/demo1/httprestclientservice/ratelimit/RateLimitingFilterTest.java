@@ -0,0 +1,77 @@
+package demo1.httprestclientservice.ratelimit;
+
+import demo1.httprestclientservice.config.ClientRuntimeSettings;
+import demo1.httprestclientservice.config.DserviceClientProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitingFilterTest {
+
+    private final RateLimitingFilter filter = filter(2);
+
+    @Test
+    void callersWithoutAnApiKeyAreLimitedByTheirAddress() throws Exception {
+        assertEquals(200, status(null, "10.0.0.1"));
+        assertEquals(200, status(null, "10.0.0.1"));
+        assertEquals(429, status(null, "10.0.0.1"));       // burst: 2
+
+        assertEquals(200, status(null, "10.0.0.2"));
+    }
+
+    @Test
+    void rotatingApiKeysFromOneAddressAreLimitedLikeThatAddress() throws Exception {
+        assertEquals(200, status("key-1", "10.0.0.1"));
+        assertEquals(200, status("key-2", "10.0.0.1"));
+        assertEquals(429, status("key-3", "10.0.0.1"));    // a new key is charged on its address first
+
+        assertEquals(200, status("key-1", "10.0.0.1"));    // an admitted key has a bucket of its own
+        assertEquals(200, status("key-1", "10.0.0.1"));
+        assertEquals(429, status("key-1", "10.0.0.1"));
+    }
+
+    @Test
+    void aTrackedCallerKeepsItsBucketWhileKeysRotate() throws Exception {
+        RateLimitingFilter filter = filter(2);
+        assertEquals(200, status(filter, "alice", "10.0.0.1"));    // charged on 10.0.0.1, then admitted
+        assertEquals(200, status(filter, "alice", "10.0.0.1"));
+        assertEquals(200, status(filter, "alice", "10.0.0.1"));
+        assertEquals(429, status(filter, "alice", "10.0.0.1"));    // her own bucket is empty
+
+        for (int i = 0; i < 10; i++) {
+            status(filter, "rotated-" + i, "10.0.0.9");
+        }
+
+        // forgotten, she would be charged on 10.0.0.1 again, which has a permit left
+        assertEquals(429, status(filter, "alice", "10.0.0.1"));
+    }
+
+    private int status(String apiKey, String remoteAddr) throws Exception {
+        return status(filter, apiKey, remoteAddr);
+    }
+
+    private static int status(RateLimitingFilter filter, String apiKey, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/proxy/user/1");
+        request.setRemoteAddr(remoteAddr);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response.getStatus();
+    }
+
+    private static RateLimitingFilter filter(int maxTrackedCallers) {
+        DserviceClientProperties props = new DserviceClientProperties();
+        props.getRateLimit().setMaxTrackedCallers(maxTrackedCallers);
+        props.getRateLimit().setPerCaller(new DserviceClientProperties.RateLimit.Limit(0.001, 2));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ClientRuntimeSettings runtime = new ClientRuntimeSettings(props, CircuitBreaker.ofDefaults("test"), registry);
+        return new RateLimitingFilter(props, runtime, registry);
+    }
+}
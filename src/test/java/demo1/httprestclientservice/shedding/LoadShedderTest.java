@@ -0,0 +1,101 @@
+package demo1.httprestclientservice.shedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadShedderTest {
+
+    private static final long LONG_WAIT = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void lastSlotsAreReservedForCritical() {
+        LoadShedder shedder = new LoadShedder(2, 1, 0);
+
+        assertEquals(LoadShedder.Outcome.ADMITTED, shedder.acquire(Priority.NORMAL, LONG_WAIT));
+        assertEquals(LoadShedder.Outcome.SHED_QUEUE_FULL, shedder.acquire(Priority.NORMAL, LONG_WAIT));
+        assertEquals(LoadShedder.Outcome.ADMITTED, shedder.acquire(Priority.CRITICAL, LONG_WAIT));
+        assertEquals(2, shedder.inFlight());
+    }
+
+    @Test
+    void releaseAdmitsTheHighestPriorityFirst() throws Exception {
+        LoadShedder shedder = new LoadShedder(1, 0, 10);
+        shedder.acquire(Priority.NORMAL, LONG_WAIT);
+
+        CompletableFuture<LoadShedder.Outcome> sheddable = waitInQueue(shedder, Priority.SHEDDABLE, 1);
+        CompletableFuture<LoadShedder.Outcome> normal = waitInQueue(shedder, Priority.NORMAL, 2);
+        CompletableFuture<LoadShedder.Outcome> critical = waitInQueue(shedder, Priority.CRITICAL, 3);
+
+        shedder.release();
+        assertEquals(LoadShedder.Outcome.ADMITTED, critical.get(5, TimeUnit.SECONDS));
+        assertFalse(normal.isDone());
+        shedder.release();
+        assertEquals(LoadShedder.Outcome.ADMITTED, normal.get(5, TimeUnit.SECONDS));
+        assertFalse(sheddable.isDone());
+        shedder.release();
+        assertEquals(LoadShedder.Outcome.ADMITTED, sheddable.get(5, TimeUnit.SECONDS));
+        assertEquals(0, shedder.queued());
+    }
+
+    @Test
+    void fullQueueShedsTheOldestOfTheLowestPriority() throws Exception {
+        LoadShedder shedder = new LoadShedder(1, 0, 2);
+        shedder.acquire(Priority.NORMAL, LONG_WAIT);
+
+        CompletableFuture<LoadShedder.Outcome> oldest = waitInQueue(shedder, Priority.SHEDDABLE, 1);
+        CompletableFuture<LoadShedder.Outcome> newer = waitInQueue(shedder, Priority.SHEDDABLE, 2);
+        CompletableFuture<LoadShedder.Outcome> critical = waitInQueue(shedder, Priority.CRITICAL, 2);
+
+        assertEquals(LoadShedder.Outcome.SHED_EVICTED, oldest.get(5, TimeUnit.SECONDS));
+        assertFalse(newer.isDone());
+
+        CompletableFuture<LoadShedder.Outcome> normal = waitInQueue(shedder, Priority.NORMAL, 2);
+        assertEquals(LoadShedder.Outcome.SHED_EVICTED, newer.get(5, TimeUnit.SECONDS));
+
+        // only critical and normal are waiting now: a sheddable newcomer is the lowest, it goes itself
+        assertEquals(LoadShedder.Outcome.SHED_QUEUE_FULL, shedder.acquire(Priority.SHEDDABLE, LONG_WAIT));
+
+        shedder.release();
+        assertEquals(LoadShedder.Outcome.ADMITTED, critical.get(5, TimeUnit.SECONDS));
+        shedder.release();
+        assertEquals(LoadShedder.Outcome.ADMITTED, normal.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void requestsWaitingLongerThanTheirQueueAgeAreShed() {
+        LoadShedder shedder = new LoadShedder(1, 0, 5);
+        shedder.acquire(Priority.CRITICAL, LONG_WAIT);
+
+        long start = System.nanoTime();
+        assertEquals(LoadShedder.Outcome.SHED_QUEUE_AGE,
+                shedder.acquire(Priority.NORMAL, TimeUnit.MILLISECONDS.toNanos(20)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(0, shedder.queued());
+        assertEquals(LoadShedder.Outcome.SHED_QUEUE_AGE, shedder.acquire(Priority.NORMAL, 0));
+    }
+
+    /**
+     * Starts acquire on a new thread and returns once the queue has reached queuedAfter.
+     */
+    private static CompletableFuture<LoadShedder.Outcome> waitInQueue(LoadShedder shedder, Priority priority,
+                                                                      int queuedAfter) throws InterruptedException {
+        CompletableFuture<LoadShedder.Outcome> outcome = new CompletableFuture<>();
+        Thread thread = new Thread(() -> outcome.complete(shedder.acquire(priority, LONG_WAIT)));
+        thread.setDaemon(true);
+        thread.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (shedder.queued() != queuedAfter || thread.getState() != Thread.State.TIMED_WAITING) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("queue did not reach " + queuedAfter + ", is " + shedder.queued());
+            }
+            Thread.sleep(1);
+        }
+        return outcome;
+    }
+}
@@ -0,0 +1,70 @@
+package demo1.httprestclientservice.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The expectations are what Hibernate Validator's @Email answers for the same strings.
+ */
+class FastValidationTest {
+
+    @Test
+    void acceptsWhatHibernateAccepts() {
+        for (String email : new String[] {
+                "",                                        // @NotBlank's job, not @Email's
+                "user@example.com",
+                "First.Last+tag@sub.example.co",
+                "a@b",                                     // no TLD needed
+                "o'brien@example.com",
+                "\"john doe\"@example.com",
+                "\"a@b\"@example.com",                     // the LAST '@' splits
+                "\"back\\\\slash\"@example.com",
+                "\"quote\\\"d\"@example.com",
+                "ünïcode@exämple.com",
+                "user@xn--exmple-cua.com",
+                "user@a--b.com",
+                "user@[192.168.0.1]",
+                "user@[IPv6:2001:db8::1]",
+                "x".repeat(64) + "@example.com",
+                "user@" + "x".repeat(63) + ".com"}) {
+            assertTrue(FastValidation.isEmail(email), email);
+        }
+    }
+
+    @Test
+    void rejectsWhatHibernateRejects() {
+        for (String email : new String[] {
+                "plainaddress",
+                "@example.com",
+                "user@",
+                "user@.com",
+                "user@example.com.",
+                "user@example..com",
+                ".user@example.com",
+                "user.@example.com",
+                "user..dots@example.com",
+                "user name@example.com",
+                "a(b)@example.com",
+                "user@exa mple.com",
+                "user@-example.com",
+                "user@example-.com",
+                "\"\"@example.com",
+                "\"unclosed@example.com",
+                "\"bad\\escape\"@example.com",
+                "😀@example.com",                // an emoji - above U+FFFF
+                "user@[192.168.0.1",
+                "x".repeat(65) + "@example.com",
+                "user@" + "x".repeat(64) + ".com"}) {
+            assertFalse(FastValidation.isEmail(email), email);
+        }
+    }
+
+    @Test
+    void blankIsWhitespaceOnly() {
+        assertTrue(FastValidation.isBlank(null));
+        assertTrue(FastValidation.isBlank(" \t\n"));
+        assertFalse(FastValidation.isBlank(" a "));
+    }
+}
@@ -0,0 +1,182 @@
+package demo1.httprestclientservice.validation;
+
+import demo1.httprestclientservice.DTOs.db.DescriptionDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.ProfileDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.RegistrationDataDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTO;
+import demo1.httprestclientservice.DTOs.db.UserDbDTOFastValidator;
+import demo1.httprestclientservice.DTOs.enums.EyeColor;
+import demo1.httprestclientservice.DTOs.enums.HairColor;
+import demo1.httprestclientservice.DTOs.enums.MaritalStatus;
+import demo1.httprestclientservice.validation.processor.FastValidatorProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastValidatorProcessorTest {
+
+    @TempDir
+    Path out;
+
+    // ───────────────────────────── the validator generated for UserDbDTO ─────────────────────────────
+
+    @Test
+    void aValidUserHasNoViolations() {
+        assertEquals(List.of(), UserDbDTOFastValidator.validate(validUser()));
+    }
+
+    @Test
+    void violationsCarryTheNestedPathAndTheMessage() {
+        UserDbDTO user = validUser();
+        user.getRegistrationDataDbDTO().setEmail("not an email");
+        user.getProfileDataDbDTO().setHeight(new BigDecimal("1.2"));
+        user.setDescriptionDataDbDTO(null);
+
+        assertEquals(List.of(
+                new FieldViolation("registrationDataDbDTO.email", "Invalid email format"),
+                new FieldViolation("profileDataDbDTO.height", "Height must be at least 1.5 meters"),
+                new FieldViolation("descriptionDataDbDTO", "Description data is required")),
+                UserDbDTOFastValidator.validate(user));
+    }
+
+    // ───────────────────────────── the processor itself ─────────────────────────────
+
+    @Test
+    void generatesAValidatorThatFollowsValid() throws Exception {
+        List<String> errors = compile(Map.of(
+                "sample.Sample", """
+                        package sample;
+                        import jakarta.validation.Valid;
+                        import jakarta.validation.constraints.*;
+                        @demo1.httprestclientservice.validation.GenerateFastValidator
+                        public class Sample {
+                            @NotBlank public String name;
+                            @Email(message = "bad email") public String email;
+                            @Size(min = 2, max = 4) public String code;
+                            @Valid @NotNull public Child child;
+                        }
+                        """,
+                "sample.Child", """
+                        package sample;
+                        import jakarta.validation.constraints.*;
+                        public class Child {
+                            @DecimalMin("1.5") public java.math.BigDecimal height;
+                        }
+                        """));
+        assertEquals(List.of(), errors);
+
+        try (URLClassLoader loader = new URLClassLoader(new java.net.URL[] {out.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> sampleType = loader.loadClass("sample.Sample");
+            Class<?> childType = loader.loadClass("sample.Child");
+            Object sample = sampleType.getConstructor().newInstance();
+            Object child = childType.getConstructor().newInstance();
+            sampleType.getField("name").set(sample, "x");
+            sampleType.getField("email").set(sample, "a@@b");
+            sampleType.getField("code").set(sample, "abcde");
+            sampleType.getField("child").set(sample, child);
+            childType.getField("height").set(child, new BigDecimal("1.4"));
+
+            Object violations = loader.loadClass("sample.SampleFastValidator")
+                    .getMethod("validate", sampleType).invoke(null, sample);
+
+            assertEquals(List.of(
+                    new FieldViolation("email", "bad email"),
+                    new FieldViolation("code", "size must be between 2 and 4"),
+                    new FieldViolation("child.height", "must be greater than or equal to 1.5")), violations);
+        }
+    }
+
+    @Test
+    void anUnsupportedConstraintFailsTheBuild() throws Exception {
+        assertEquals(List.of("@Pattern is not supported by the fast validator"),
+                compile(Map.of("sample.Sample", sample("@Pattern(regexp = \"[a-z]+\")"))));
+        assertEquals(List.of("@Email(regexp) is not supported by the fast validator"),
+                compile(Map.of("sample.Sample", sample("@Email(regexp = \".+@example[.]com\")"))));
+    }
+
+    private static String sample(String constraint) {
+        return """
+                package sample;
+                import jakarta.validation.constraints.*;
+                @demo1.httprestclientservice.validation.GenerateFastValidator
+                public class Sample {
+                    %s public String value;
+                }
+                """.formatted(constraint);
+    }
+
+    /**
+     * Compiles the sources into the temp dir with FastValidatorProcessor.
+     * @return the error messages
+     */
+    private List<String> compile(Map<String, String> sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<JavaFileObject> units = new ArrayList<>();
+        sources.forEach((name, code) -> units.add(new SimpleJavaFileObject(
+                URI.create("string:///" + name.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        }));
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    List.of("-d", out.toString(), "-s", out.toString(),
+                            "-classpath", System.getProperty("java.class.path")),
+                    null, units);
+            task.setProcessors(List.of(new FastValidatorProcessor()));
+            task.call();
+        }
+        List<String> errors = new ArrayList<>();
+        diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == javax.tools.Diagnostic.Kind.ERROR)
+                .forEach(d -> errors.add(d.getMessage(null)));
+        return errors;
+    }
+
+    private static UserDbDTO validUser() {
+        RegistrationDataDbDTO registration = new RegistrationDataDbDTO();
+        registration.setUsername("john");
+        registration.setEmail("john@example.com");
+        registration.setPassword("secret-password");
+        registration.setConfirmRegDeadline(LocalDateTime.now().plusDays(1));
+
+        ProfileDataDbDTO profile = new ProfileDataDbDTO();
+        profile.setBirthDate(LocalDate.of(1990, 1, 1));
+        profile.setCountry("Bulgaria");
+        profile.setMaritalStatus(MaritalStatus.values()[0]);
+        profile.setHeight(new BigDecimal("1.80"));
+        profile.setHairColor(HairColor.values()[0]);
+        profile.setEyeColor(EyeColor.values()[0]);
+        profile.setChildren(0);
+        profile.setLanguages("bg, en");
+
+        DescriptionDataDbDTO description = new DescriptionDataDbDTO();
+        description.setDescription("x".repeat(60));
+
+        UserDbDTO user = new UserDbDTO();
+        user.setRegistrationDataDbDTO(registration);
+        user.setProfileDataDbDTO(profile);
+        user.setDescriptionDataDbDTO(description);
+        return user;
+    }
+}
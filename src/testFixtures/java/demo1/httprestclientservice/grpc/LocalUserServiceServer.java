@@ -0,0 +1,187 @@
+package demo1.httprestclientservice.grpc;
+
+import demo1.httprestclientservice.grpc.proto.DateTime;
+import demo1.httprestclientservice.grpc.proto.GetByIdRequest;
+import demo1.httprestclientservice.grpc.proto.GetWithDataRequest;
+import demo1.httprestclientservice.grpc.proto.PingRequest;
+import demo1.httprestclientservice.grpc.proto.PingResponse;
+import demo1.httprestclientservice.grpc.proto.User;
+import demo1.httprestclientservice.grpc.proto.UserRecord;
+import demo1.httprestclientservice.grpc.proto.UserRecordList;
+import demo1.httprestclientservice.grpc.proto.UserServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory UserService on the in-process gRPC transport (no sockets), for tests and benchmarks of the grpc
+ * transport without a backend-service:
+ *
+ *   try (LocalUserServiceServer server = LocalUserServiceServer.start("users", "secret")) {
+ *       HttpClientInterface users = new GrpcHttpClientInterface(server.channel(), http, Duration.ofSeconds(1));
+ *       ...
+ *   }
+ *
+ * It behaves like the backend's /api/v1 endpoints as far as the client can tell: create assigns the ids,
+ * unknown ids are NOT_FOUND, a create without registration data is INVALID_ARGUMENT, and with a requiredToken
+ * every call without "authorization: Bearer <requiredToken>" is UNAUTHENTICATED.
+ */
+public final class LocalUserServiceServer implements AutoCloseable {
+
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final String name;
+    private final Server server;
+    private final Map<Long, UserRecord> users = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private LocalUserServiceServer(String name, String requiredToken) throws IOException {
+        this.name = name;
+        this.server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(new Service(), new AuthCheck(requiredToken)))
+                .build()
+                .start();
+    }
+
+    /**
+     * @param requiredToken the expected bearer token, or null to accept every call
+     */
+    public static LocalUserServiceServer start(String name, String requiredToken) throws IOException {
+        return new LocalUserServiceServer(name, requiredToken);
+    }
+
+    /**
+     * A new in-process channel to this server - the caller closes it (or uses it until close() of the server).
+     */
+    public ManagedChannel channel() {
+        return InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    /**
+     * Stores a user directly (as if it had been created), e.g. to prepare a read-only benchmark.
+     */
+    public UserRecord put(UserRecord user) {
+        UserRecord stored = withIds(user);
+        users.put(stored.getId(), stored);
+        return stored;
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+    }
+
+    /**
+     * The record with the ids the database would have assigned: the user id on the user and on every part.
+     */
+    private UserRecord withIds(UserRecord user) {
+        long id = user.hasId() ? user.getId() : ids.incrementAndGet();
+        UserRecord.Builder b = user.toBuilder().setId(id);
+        if (b.hasRegistration()) b.getRegistrationBuilder().setId(id);
+        if (b.hasProfile()) b.getProfileBuilder().setId(id);
+        if (b.hasDescription()) b.getDescriptionBuilder().setId(id);
+        return b.build();
+    }
+
+    private final class Service extends UserServiceGrpc.UserServiceImplBase {
+
+        @Override
+        public void create(UserRecord request, StreamObserver<UserRecord> response) {
+            if (!request.hasRegistration()) {
+                response.onError(Status.INVALID_ARGUMENT.withDescription("Registration data is required")
+                        .asRuntimeException());
+                return;
+            }
+            response.onNext(put(request.toBuilder().clearId().build()));
+            response.onCompleted();
+        }
+
+        @Override
+        public void createBatch(UserRecordList request, StreamObserver<UserRecordList> response) {
+            UserRecordList.Builder created = UserRecordList.newBuilder();
+            for (UserRecord user : request.getUsersList()) {
+                if (!user.hasRegistration()) {
+                    response.onError(Status.INVALID_ARGUMENT.withDescription("Registration data is required")
+                            .asRuntimeException());
+                    return;
+                }
+            }
+            for (UserRecord user : request.getUsersList()) {
+                created.addUsers(put(user.toBuilder().clearId().build()));
+            }
+            response.onNext(created.build());
+            response.onCompleted();
+        }
+
+        @Override
+        public void getById(GetByIdRequest request, StreamObserver<User> response) {
+            if (!users.containsKey(request.getId())) {
+                response.onError(Status.NOT_FOUND.withDescription("User not found: " + request.getId())
+                        .asRuntimeException());
+                return;
+            }
+            Instant now = Instant.now();
+            response.onNext(User.newBuilder()
+                    .setId(request.getId())
+                    .setTs(DateTime.newBuilder()
+                            .setEpochSecond(now.getEpochSecond())
+                            .setNano(now.getNano()))
+                    .build());
+            response.onCompleted();
+        }
+
+        @Override
+        public void getWithData(GetWithDataRequest request, StreamObserver<UserRecord> response) {
+            UserRecord user = users.get(request.getId());
+            if (user == null) {
+                response.onError(Status.NOT_FOUND.withDescription("User not found: " + request.getId())
+                        .asRuntimeException());
+                return;
+            }
+            response.onNext(user);
+            response.onCompleted();
+        }
+
+        @Override
+        public void ping(PingRequest request, StreamObserver<PingResponse> response) {
+            response.onNext(PingResponse.newBuilder().putValues("message", "pong").build());
+            response.onCompleted();
+        }
+    }
+
+    private static final class AuthCheck implements ServerInterceptor {
+
+        private final String expected;
+
+        AuthCheck(String requiredToken) {
+            this.expected = requiredToken == null ? null : "Bearer " + requiredToken;
+        }
+
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                     ServerCallHandler<ReqT, RespT> next) {
+            if (expected != null && !expected.equals(headers.get(AUTHORIZATION))) {
+                call.close(Status.UNAUTHENTICATED.withDescription("Invalid token"), new Metadata());
+                return new ServerCall.Listener<>() {
+                };
+            }
+            return next.startCall(call, headers);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package demo1.httprestclientservice.validation.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates &lt;Type&gt;FastValidator for every class annotated with @GenerateFastValidator.
+ *
+ * 1. Walks the fields of the type; constraints may sit on the field or on its getter (both are checked,
+ *    identical ones only once). Values are read through the getter, or the field when it is not private.
+ * 2. Every supported jakarta.validation.constraints annotation becomes an inline if-statement. Bounds such as
+ *    @DecimalMin("1.5") become static final constants, messages become string literals.
+ * 3. @Valid fields are followed: one private method per (type, path), so the property paths are literals too
+ *    and nothing has to be concatenated at runtime. A type that is already on the current path is not
+ *    entered again (cycles).
+ * 4. Anything not supported (another constraint, @Valid on a container, a private field without getter) is
+ *    a compile error - the generated validator must never check less than Bean Validation would.
+ */
+@SupportedAnnotationTypes(FastValidatorProcessor.MARKER)
+public class FastValidatorProcessor extends AbstractProcessor {
+
+    static final String MARKER = "demo1.httprestclientservice.validation.GenerateFastValidator";
+
+    private static final String CONSTRAINTS = "jakarta.validation.constraints.";
+    private static final String VALID = "jakarta.validation.Valid";
+    private static final String RUNTIME = "demo1.httprestclientservice.validation.";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment env) {
+        super.init(env);
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.filer = env.getFiler();
+        this.messager = env.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement marker = elements.getTypeElement(MARKER);
+        if (marker == null) {
+            return false;
+        }
+        for (Element element : round.getElementsAnnotatedWith(marker)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateFastValidator is only supported on classes", element);
+                continue;
+            }
+            try {
+                new Generation((TypeElement) element).write();
+            } catch (UnsupportedConstraintException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Cannot write fast validator: " + e, element);
+            }
+        }
+        return true;
+    }
+
+
+    /** The source of one generated validator class. */
+    private final class Generation {
+
+        private final TypeElement root;
+        private final Map<String, String> constants = new LinkedHashMap<>();   // expression -> name
+        private final StringBuilder methods = new StringBuilder();
+        private int methodCount;
+
+        Generation(TypeElement root) {
+            this.root = root;
+        }
+
+        void write() throws IOException {
+            String rootMethod = generateMethod(root, "", new ArrayDeque<>());
+
+            String packageName = ((PackageElement) elements.getPackageOf(root)).getQualifiedName().toString();
+            String simpleName = root.getSimpleName() + "FastValidator";
+            StringBuilder src = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                src.append("package ").append(packageName).append(";\n\n");
+            }
+            src.append("import ").append(RUNTIME).append("FastValidation;\n")
+               .append("import ").append(RUNTIME).append("FieldViolation;\n\n")
+               .append("import java.util.List;\n\n")
+               .append("/**\n * Generated from the Jakarta constraints of ").append(root.getSimpleName())
+               .append(" by FastValidatorProcessor - do not edit.\n */\n")
+               .append("@javax.annotation.processing.Generated(\"").append(FastValidatorProcessor.class.getName()).append("\")\n")
+               .append("public final class ").append(simpleName).append(" {\n\n");
+            for (Map.Entry<String, String> constant : constants.entrySet()) {
+                src.append("    private static final java.math.BigDecimal ").append(constant.getValue())
+                   .append(" = ").append(constant.getKey()).append(";\n");
+            }
+            src.append("\n    private ").append(simpleName).append("() {\n    }\n\n")
+               .append("    /**\n     * @return the violated constraints, an immutable empty list when the object is valid\n     */\n")
+               .append("    public static List<FieldViolation> validate(").append(root.getQualifiedName()).append(" o) {\n")
+               .append("        List<FieldViolation> v = ").append(rootMethod).append("(java.util.Objects.requireNonNull(o), null);\n")
+               .append("        return v == null ? List.of() : v;\n")
+               .append("    }\n")
+               .append(methods)
+               .append("}\n");
+
+            try (Writer writer = filer.createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, root).openWriter()) {
+                writer.write(src.toString());
+            }
+        }
+
+        /** @return the name of the generated method validating type at path */
+        private String generateMethod(TypeElement type, String path, Deque<TypeElement> stack) {
+            String name = "validate" + (methodCount++);
+            stack.push(type);
+            StringBuilder body = new StringBuilder();
+            List<String> nestedCalls = new ArrayList<>();
+
+            for (Element member : type.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.FIELD || member.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                VariableElement field = (VariableElement) member;
+                String property = field.getSimpleName().toString();
+                ExecutableElement getter = findGetter(type, property);
+                String access = accessor(field, getter);
+
+                Map<String, AnnotationMirror> constraints = new LinkedHashMap<>();
+                boolean valid = false;
+                List<AnnotationMirror> mirrors = new ArrayList<>(field.getAnnotationMirrors());
+                if (getter != null) {
+                    mirrors.addAll(getter.getAnnotationMirrors());
+                }
+                for (AnnotationMirror mirror : mirrors) {
+                    String annotation = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+                    if (annotation.equals(VALID)) {
+                        valid = true;
+                    } else if (annotation.startsWith(CONSTRAINTS)) {
+                        constraints.putIfAbsent(mirror.toString(), mirror);   // same constraint on field and getter
+                    }
+                }
+                if (constraints.isEmpty() && !valid) {
+                    continue;
+                }
+
+                TypeMirror valueType = field.asType();
+                String fieldPath = path + property;
+                body.append("        {\n")
+                    .append("            ").append(typeName(valueType)).append(" value = o.").append(access).append(";\n");
+                for (AnnotationMirror constraint : constraints.values()) {
+                    String condition = condition(constraint, valueType, field);
+                    body.append("            if (").append(condition).append(") {\n")
+                        .append("                v = FastValidation.add(v, ").append(literal(fieldPath)).append(", ")
+                        .append(literal(message(constraint))).append(");\n")
+                        .append("            }\n");
+                }
+                if (valid) {
+                    TypeElement nested = beanType(valueType, field);
+                    if (!stack.contains(nested)) {
+                        String nestedMethod = generateMethod(nested, fieldPath + ".", stack);
+                        body.append("            if (value != null) {\n")
+                            .append("                v = ").append(nestedMethod).append("(value, v);\n")
+                            .append("            }\n");
+                    }
+                }
+                body.append("        }\n");
+            }
+            stack.pop();
+
+            methods.append("\n    private static List<FieldViolation> ").append(name).append("(")
+                   .append(type.getQualifiedName()).append(" o, List<FieldViolation> v) {\n")
+                   .append(body)
+                   .append("        return v;\n")
+                   .append("    }\n");
+            return name;
+        }
+
+        private String condition(AnnotationMirror constraint, TypeMirror type, Element field) {
+            String kind = ((TypeElement) constraint.getAnnotationType().asElement()).getSimpleName().toString();
+            boolean primitive = type.getKind().isPrimitive();
+            String notNull = primitive ? "" : "value != null && ";
+            switch (kind) {
+                case "NotNull":
+                    return primitive ? "false" : "value == null";
+                case "NotBlank":
+                    requireCharSequence(type, field, kind);
+                    return "FastValidation.isBlank(value)";
+                case "NotEmpty":
+                    return "value == null || " + sizeOf(type, field, kind) + " == 0";
+                case "Size": {
+                    int min = (Integer) value(constraint, "min");
+                    int max = (Integer) value(constraint, "max");
+                    String size = sizeOf(type, field, kind);
+                    String check = min > 0 ? size + " < " + min : "";
+                    if (max < Integer.MAX_VALUE) {
+                        check = check.isEmpty() ? size + " > " + max : "(" + check + " || " + size + " > " + max + ")";
+                    }
+                    return check.isEmpty() ? "false" : notNull + check;
+                }
+                case "Email":
+                    requireCharSequence(type, field, kind);
+                    if (!".*".equals(value(constraint, "regexp"))) {
+                        throw new UnsupportedConstraintException("@Email(regexp) is not supported by the fast validator", field);
+                    }
+                    return notNull + "!FastValidation.isEmail(value)";
+                case "Min":
+                case "Max": {
+                    long bound = (Long) value(constraint, "value");
+                    String op = kind.equals("Min") ? " < " : " > ";
+                    if (isIntegral(type)) {
+                        return notNull + "value" + op + bound + "L";
+                    }
+                    requireBigDecimal(type, field, kind);
+                    return notNull + "value.compareTo(" + constant("java.math.BigDecimal.valueOf(" + bound + "L)") + ")" + op + "0";
+                }
+                case "DecimalMin":
+                case "DecimalMax": {
+                    String bound = (String) value(constraint, "value");
+                    boolean inclusive = (Boolean) value(constraint, "inclusive");
+                    boolean min = kind.equals("DecimalMin");
+                    String op = min ? (inclusive ? " < " : " <= ") : (inclusive ? " > " : " >= ");
+                    if (isIntegral(type)) {
+                        return notNull + "value" + op + new java.math.BigDecimal(bound).toPlainString() + "D";
+                    }
+                    requireBigDecimal(type, field, kind);
+                    return notNull + "value.compareTo(" + constant("new java.math.BigDecimal(" + literal(bound) + ")") + ")" + op + "0";
+                }
+                case "Past":
+                    return notNull + "!value.isBefore(" + now(type, field, kind) + ")";
+                case "PastOrPresent":
+                    return notNull + "value.isAfter(" + now(type, field, kind) + ")";
+                case "Future":
+                    return notNull + "!value.isAfter(" + now(type, field, kind) + ")";
+                case "FutureOrPresent":
+                    return notNull + "value.isBefore(" + now(type, field, kind) + ")";
+                default:
+                    throw new UnsupportedConstraintException("@" + kind + " is not supported by the fast validator", field);
+            }
+        }
+
+        private String constant(String expression) {
+            return constants.computeIfAbsent(expression, e -> "BOUND_" + constants.size());
+        }
+
+        private String now(TypeMirror type, Element field, String kind) {
+            switch (typeName(type)) {
+                case "java.time.LocalDate":
+                    return "FastValidation.today()";
+                case "java.time.LocalDateTime":
+                    return "FastValidation.nowDateTime()";
+                case "java.time.Instant":
+                    return "FastValidation.nowInstant()";
+                default:
+                    throw new UnsupportedConstraintException("@" + kind + " on " + type + " is not supported by the fast validator", field);
+            }
+        }
+
+        private String sizeOf(TypeMirror type, Element field, String kind) {
+            if (type.getKind() == TypeKind.ARRAY) {
+                return "value.length";
+            }
+            if (isAssignable(type, "java.lang.CharSequence")) {
+                return "value.length()";
+            }
+            if (isAssignable(type, "java.util.Collection") || isAssignable(type, "java.util.Map")) {
+                return "value.size()";
+            }
+            throw new UnsupportedConstraintException("@" + kind + " on " + type + " is not supported by the fast validator", field);
+        }
+
+        private void requireCharSequence(TypeMirror type, Element field, String kind) {
+            if (!isAssignable(type, "java.lang.CharSequence")) {
+                throw new UnsupportedConstraintException("@" + kind + " on " + type + " is not supported by the fast validator", field);
+            }
+        }
+
+        private void requireBigDecimal(TypeMirror type, Element field, String kind) {
+            if (!typeName(type).equals("java.math.BigDecimal")) {
+                throw new UnsupportedConstraintException("@" + kind + " on " + type + " is not supported by the fast validator", field);
+            }
+        }
+
+        private boolean isIntegral(TypeMirror type) {
+            TypeMirror unboxed = type;
+            if (!type.getKind().isPrimitive()) {
+                try {
+                    unboxed = types.unboxedType(type);
+                } catch (IllegalArgumentException notABoxedType) {
+                    return false;
+                }
+            }
+            TypeKind kind = unboxed.getKind();
+            return kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.SHORT || kind == TypeKind.BYTE;
+        }
+
+        private boolean isAssignable(TypeMirror type, String target) {
+            TypeElement targetElement = elements.getTypeElement(target);
+            return targetElement != null && types.isAssignable(types.erasure(type), types.erasure(targetElement.asType()));
+        }
+
+        private TypeElement beanType(TypeMirror type, Element field) {
+            if (type.getKind() != TypeKind.DECLARED
+                    || isAssignable(type, "java.lang.Iterable") || isAssignable(type, "java.util.Map")
+                    || isAssignable(type, "java.util.Optional")) {
+                throw new UnsupportedConstraintException("@Valid on " + type + " is not supported by the fast validator", field);
+            }
+            return (TypeElement) ((DeclaredType) type).asElement();
+        }
+
+        private ExecutableElement findGetter(TypeElement type, String property) {
+            String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+            for (Element member : elements.getAllMembers(type)) {
+                if (member.getKind() == ElementKind.METHOD
+                        && !member.getModifiers().contains(Modifier.PRIVATE)
+                        && ((ExecutableElement) member).getParameters().isEmpty()) {
+                    String name = member.getSimpleName().toString();
+                    if (name.equals("get" + suffix) || name.equals("is" + suffix)) {
+                        return (ExecutableElement) member;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private String accessor(VariableElement field, ExecutableElement getter) {
+            if (getter != null) {
+                return getter.getSimpleName() + "()";
+            }
+            if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+                return field.getSimpleName().toString();
+            }
+            throw new UnsupportedConstraintException("private field " + field.getSimpleName()
+                    + " has no getter, the fast validator cannot read it", field);
+        }
+
+        private String message(AnnotationMirror constraint) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : constraint.getElementValues().entrySet()) {
+                if (e.getKey().getSimpleName().contentEquals("message")) {
+                    String message = (String) e.getValue().getValue();
+                    if (!message.startsWith("{")) {
+                        return message;
+                    }
+                }
+            }
+            return defaultMessage(constraint);
+        }
+
+        /** The English default messages of Hibernate Validator. */
+        private String defaultMessage(AnnotationMirror constraint) {
+            String kind = ((TypeElement) constraint.getAnnotationType().asElement()).getSimpleName().toString();
+            switch (kind) {
+                case "NotNull":         return "must not be null";
+                case "NotBlank":        return "must not be blank";
+                case "NotEmpty":        return "must not be empty";
+                case "Size":            return "size must be between " + value(constraint, "min") + " and " + value(constraint, "max");
+                case "Email":           return "must be a well-formed email address";
+                case "Min":             return "must be greater than or equal to " + value(constraint, "value");
+                case "Max":             return "must be less than or equal to " + value(constraint, "value");
+                case "DecimalMin":      return "must be greater than " + ((Boolean) value(constraint, "inclusive") ? "or equal to " : "") + value(constraint, "value");
+                case "DecimalMax":      return "must be less than " + ((Boolean) value(constraint, "inclusive") ? "or equal to " : "") + value(constraint, "value");
+                case "Past":            return "must be a past date";
+                case "PastOrPresent":   return "must be a date in the past or in the present";
+                case "Future":          return "must be a future date";
+                case "FutureOrPresent": return "must be a date in the present or in the future";
+                default:                return "is invalid";
+            }
+        }
+
+        private Object value(AnnotationMirror mirror, String name) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e
+                    : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+                if (e.getKey().getSimpleName().contentEquals(name)) {
+                    return e.getValue().getValue();
+                }
+            }
+            throw new IllegalStateException(mirror + " has no attribute " + name);
+        }
+
+        /** Raw type name; toString() of the mirror would include TYPE_USE constraint annotations. */
+        private String typeName(TypeMirror type) {
+            if (type.getKind() == TypeKind.DECLARED) {
+                return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            }
+            return types.erasure(type).toString();
+        }
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"'  -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default   -> {
+                    if (c < 0x20 || c > 0x7E) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static final class UnsupportedConstraintException extends RuntimeException {
+        private final transient Element element;
+
+        UnsupportedConstraintException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+}